@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:55:37 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -22,6 +22,8 @@ package com.ceke.multiplayer.core.client.gamemods.coop;
 import com.ceke.multiplayer.core.server.GameMod;
 import com.ceke.multiplayer.core.client.gamemods.coop.rules.MouseSyncRule;
 import com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule;
+import com.ceke.multiplayer.core.client.gamemods.coop.rules.WorldStateRule;
+import com.ceke.multiplayer.core.client.gamemods.coop.state.GameSpeedChannel;
 
 public class CoopGameMod extends GameMod {
 
@@ -31,6 +33,13 @@ public class CoopGameMod extends GameMod {
         rules.add(new TimeSyncRule());
         rules.add(new com.ceke.multiplayer.core.client.gamemods.coop.rules.PingDisplayRule());
         rules.add(new com.ceke.multiplayer.core.client.gamemods.coop.rules.ResourceSyncRule());
+        rules.add(new WorldStateRule());
+
+        // Replicated world state (see WorldStateReplicator)
+        stateChannels.add(new GameSpeedChannel());
+
+        // Player inputs: host-validated, or run on every machine in lockstep
+        inputApplier = new CoopInputApplier();
     }
 
     @Override
@@ -40,6 +49,6 @@ public class CoopGameMod extends GameMod {
 
     @Override
     public int getMaxPlayers() {
-        return 2;
+        return 8;
     }
 }
@@ -0,0 +1,76 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   CoopInputApplier.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:55:16 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.client.gamemods.coop;
+
+import com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule;
+import com.ceke.multiplayer.core.server.MultiplayerSession;
+import com.ceke.multiplayer.core.server.network.HostServer;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputResult;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+import com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange;
+import com.ceke.multiplayer.core.server.sync.InputApplier;
+import com.ceke.multiplayer.core.server.sync.LockstepScheduler;
+
+/**
+ * Player inputs of the co-op mode. The one action players share is the game
+ * speed ({@link PacketPlayerInput#TYPE_SET_SPEED}); everything else each
+ * player does in their own game.
+ *
+ * Otherwise a client's change goes through the host's input pipeline: it is
+ * rejected if the host changed speed after the client made it
+ * ({@link HostServer#claimSpeedChange}), else applied on the host and
+ * broadcast to every client. In lockstep it runs on its turn on every
+ * machine, so all of them switch speed on the same tick (see
+ * {@link TimeSyncRule}).
+ */
+public class CoopInputApplier implements InputApplier {
+
+    /** Builds the input for a local speed change. */
+    public static PacketPlayerInput speedInput(int speed) {
+        return new PacketPlayerInput(PacketPlayerInput.TYPE_SET_SPEED, 0, 0, speed);
+    }
+
+    @Override
+    public byte validate(PacketPlayerInput input) {
+        if (input.type != PacketPlayerInput.TYPE_SET_SPEED)
+            return PacketInputResult.REJECTED_UNSUPPORTED;
+        if (input.payload < 0)
+            return PacketInputResult.REJECTED_INVALID;
+        HostServer host = MultiplayerSession.instance().getHostServer();
+        if (host != null && !host.claimSpeedChange(input.playerId, input.hostTick))
+            return PacketInputResult.REJECTED_INVALID;
+        return PacketInputResult.ACCEPTED;
+    }
+
+    @Override
+    public void apply(long turn, PacketPlayerInput input) {
+        if (input.type != PacketPlayerInput.TYPE_SET_SPEED)
+            return;
+        TimeSyncRule.applyRemoteSpeed(input.payload);
+
+        // Host-authoritative: only the host applies it, so it tells everyone
+        HostServer host = MultiplayerSession.instance().getHostServer();
+        if (!LockstepScheduler.isEnabled() && host != null) {
+            PacketSpeedChange sc = new PacketSpeedChange(input.payload);
+            sc.playerId = input.playerId;
+            host.broadcastSpeedChange(sc);
+        }
+    }
+}
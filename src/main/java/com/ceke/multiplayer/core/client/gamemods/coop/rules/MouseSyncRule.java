@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -30,10 +30,17 @@ import view.main.VIEW;
 import view.subview.GameWindow;
 
 /**
- * Handles synchronizing and rendering the remote player's mouse cursor.
+ * Handles synchronizing and rendering the other players' mouse cursors, one
+ * colour per player.
  */
 public class MouseSyncRule implements GameRule {
 
+    /** Reused each frame for the interpolated remote position. */
+    private final float[] remote = new float[2];
+
+    /** Cursor colours for clients, by player ID; the host's cursor stays red. */
+    private COLOR[] palette;
+
     @Override
     public void hover(COORDINATE mCoo, boolean mouseHasMoved) {
         if (!MultiplayerSession.instance().isActive())
@@ -53,10 +60,23 @@ public class MouseSyncRule implements GameRule {
         if (!MultiplayerSession.instance().isActive())
             return;
 
-        float rx = CursorSyncManager.getRemoteX();
-        float ry = CursorSyncManager.getRemoteY();
+        for (int playerId : CursorSyncManager.remotePlayerIds()) {
+            if (CursorSyncManager.sampleRemote(playerId, remote))
+                renderCursor(r, remote[0], remote[1], colorOf(playerId));
+        }
+    }
+
+    private COLOR colorOf(int playerId) {
+        if (playerId == 0)
+            return COLOR.RED100;
+        if (palette == null)
+            palette = COLOR.generateUnique(4242, 8, true);
+        return palette[playerId % palette.length];
+    }
+
+    private void renderCursor(Renderer r, float rx, float ry, COLOR color) {
         if (rx < 0 || ry < 0)
-            return; // no data yet
+            return;
 
         try {
             GameWindow gw = VIEW.s().getWindow();
@@ -92,8 +112,8 @@ public class MouseSyncRule implements GameRule {
             COLOR.WHITE25.render(sr, screenX - h - 1, screenX + h + 1, screenY - t - 1, screenY + t + 1);
             COLOR.WHITE25.render(sr, screenX - t - 1, screenX + t + 1, screenY - h - 1, screenY + h + 1);
 
-            COLOR.RED100.render(sr, screenX - h, screenX + h, screenY - t, screenY + t);
-            COLOR.RED100.render(sr, screenX - t, screenX + t, screenY - h, screenY + h);
+            color.render(sr, screenX - h, screenX + h, screenY - t, screenY + t);
+            color.render(sr, screenX - t, screenX + t, screenY - h, screenY + h);
             COLOR.unbind();
         } catch (ClassCastException cc) {
         } catch (Throwable t) {
@@ -13,33 +13,71 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:37:56 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.client.gamemods.coop.rules;
 
+import com.ceke.multiplayer.core.server.GameFields;
 import com.ceke.multiplayer.core.server.MultiplayerSession;
+import com.ceke.multiplayer.core.server.network.GameClient;
+import com.ceke.multiplayer.core.server.network.HostServer;
+import com.ceke.multiplayer.core.server.network.LatencyHistogram;
+import com.ceke.multiplayer.core.server.network.PlayerSession;
 import com.ceke.multiplayer.core.server.rules.GameRule;
+import snake2d.MButt;
 import snake2d.SPRITE_RENDERER;
 import snake2d.Renderer;
+import snake2d.util.datatypes.COORDINATE;
 import snake2d.util.gui.GuiSection;
 import util.gui.misc.GText;
 import init.sprite.UI.UI;
 import view.main.VIEW;
-import java.lang.reflect.Field;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
+/**
+ * Ping text in the top panel, on host and client. Clicking it expands a
+ * latency table below it: p50 / p95 / p99 / max round trip and jitter of
+ * every connection (see {@link LatencyHistogram}), refreshed with the text.
+ */
 public class PingDisplayRule implements GameRule {
     private static final Logger LOG = Logger.getLogger(PingDisplayRule.class.getName());
 
+    /** Interfaces of the world UI manager; one of them is the top panel. */
+    @SuppressWarnings("rawtypes")
+    private static final GameFields.Accessor<Iterable> INTERS = GameFields.field("inters", Iterable.class,
+            () -> VIEW.world().uiManager);
+
+    /** Right-hand section of UIPanelTop. */
+    private static final GameFields.Accessor<GuiSection> RIGHT = GameFields.field("right", GuiSection.class);
+
     private GuiSection rightPanel = null;
     private final GText text;
     private int frameCounter = 0;
     private boolean searchFailed = false;
 
+    /** Player names are cut to this many characters in the latency table. */
+    private static final int MAX_NAME = 16;
+
+    /** Characters of a row: name, ": ", five ints of up to 11 characters and their labels. */
+    private static final int ROW_CHARS = MAX_NAME + 2 + 5 * 11 + 33;
+
+    /** Latency table shown below the ping text while expanded, one row per connection. */
+    private final List<GText> rows = new ArrayList<>();
+    private int rowCount = 0;
+    private boolean expanded = false;
+
+    /** Screen area of the ping text (last frame) and the mouse, for the expand toggle. */
+    private int textX, textY, textW, textH;
+    private int mouseX = -1, mouseY = -1;
+
     public PingDisplayRule() {
-        text = new GText(UI.FONT().S, "Ping: --- ms");
+        text = new GText(UI.FONT().S, 24); // "Ping: " + any int + "ms"
+        text.add("Ping: --- ms");
     }
 
     @Override
@@ -48,21 +86,10 @@ public class PingDisplayRule implements GameRule {
             return;
 
         try {
-            Field intersField = null;
-            Class<?> clazz = VIEW.world().uiManager.getClass();
-            while (clazz != null && clazz != Object.class) {
-                try {
-                    intersField = clazz.getDeclaredField("inters");
-                    break;
-                } catch (NoSuchFieldException e) {
-                    clazz = clazz.getSuperclass();
-                }
-            }
-
-            if (intersField == null)
+            Object uiManager = VIEW.world().uiManager;
+            if (!INTERS.isPresent(uiManager))
                 return;
-            intersField.setAccessible(true);
-            Iterable<?> inters = (Iterable<?>) intersField.get(VIEW.world().uiManager);
+            Iterable<?> inters = INTERS.get(uiManager);
 
             Object uiPanelTop = null;
             if (inters != null) {
@@ -75,20 +102,8 @@ public class PingDisplayRule implements GameRule {
             }
 
             if (uiPanelTop != null) {
-                Field rightField = null;
-                Class<?> rClazz = uiPanelTop.getClass();
-                while (rClazz != null && rClazz != Object.class) {
-                    try {
-                        rightField = rClazz.getDeclaredField("right");
-                        break;
-                    } catch (NoSuchFieldException e) {
-                        rClazz = rClazz.getSuperclass();
-                    }
-                }
-
-                if (rightField != null) {
-                    rightField.setAccessible(true);
-                    rightPanel = (GuiSection) rightField.get(uiPanelTop);
+                if (RIGHT.isPresent(uiPanelTop)) {
+                    rightPanel = RIGHT.get(uiPanelTop);
                     LOG.info("[PingDisplayRule] Found UIPanelTop bounds for Ping rendering");
                 } else {
                     LOG.warning("[PingDisplayRule] Found UIPanelTop but no 'right' field.");
@@ -101,6 +116,21 @@ public class PingDisplayRule implements GameRule {
         }
     }
 
+    @Override
+    public void hover(COORDINATE mCoo, boolean mouseHasMoved) {
+        mouseX = mCoo.x();
+        mouseY = mCoo.y();
+    }
+
+    @Override
+    public void mouseClick(MButt button) {
+        if (button == MButt.LEFT && rightPanel != null
+                && mouseX >= textX && mouseX < textX + textW && mouseY >= textY && mouseY < textY + textH) {
+            expanded = !expanded;
+            frameCounter = 60; // refresh now
+        }
+    }
+
     @Override
     public void render(Renderer renderer, float ds) {
         if (rightPanel == null || VIEW.world() == null)
@@ -109,13 +139,7 @@ public class PingDisplayRule implements GameRule {
         frameCounter++;
         if (frameCounter >= 60) {
             frameCounter = 0;
-            MultiplayerSession session = MultiplayerSession.instance();
-            if (session.isClient() && session.getGameClient() != null && session.getGameClient().isConnected()) {
-                int ping = session.getGameClient().getPing();
-                text.clear().add("Ping: ").add(ping).add("ms");
-            } else {
-                text.clear().add("Ping: --- ms");
-            }
+            refresh();
         }
 
         SPRITE_RENDERER r = (SPRITE_RENDERER) renderer;
@@ -125,5 +149,60 @@ public class PingDisplayRule implements GameRule {
         int y = rightPanel.body().y1() + (rightPanel.body().height() - text.height()) / 2 + 5;
 
         text.render(r, x, y);
+        textX = x;
+        textY = y;
+        textW = text.width();
+        textH = text.height();
+
+        if (!expanded)
+            return;
+        int rowY = rightPanel.body().y2() + 4;
+        for (int i = 0; i < rowCount; i++) {
+            GText row = rows.get(i);
+            row.render(r, x, rowY);
+            rowY += row.height() + 2;
+        }
+    }
+
+    /** Rebuilds the ping text and, while expanded, the latency table. */
+    private void refresh() {
+        rowCount = 0;
+        MultiplayerSession session = MultiplayerSession.instance();
+        GameClient client = session.getGameClient();
+        HostServer host = session.getHostServer();
+
+        if (session.isClient() && client != null && client.isConnected()) {
+            text.clear().add("Ping: ").add(client.getPing()).add("ms");
+            if (expanded)
+                addRow("Host", client.getLatency().snapshot());
+        } else if (session.isHost() && host != null && host.isRunning() && !host.getPlayers().isEmpty()) {
+            // The host has one connection per client: show the slowest
+            long worst = 0;
+            for (PlayerSession player : host.getPlayers()) {
+                worst = Math.max(worst, player.latency().lastMs());
+                if (expanded)
+                    addRow(player.getName().isEmpty() ? "Player " + player.getPlayerId() : player.getName(),
+                            player.latency().snapshot());
+            }
+            text.clear().add("Ping: ").add((int) worst).add("ms");
+        } else {
+            text.clear().add("Ping: --- ms");
+        }
+    }
+
+    private void addRow(String name, LatencyHistogram.Snapshot s) {
+        if (rowCount == rows.size())
+            rows.add(new GText(UI.FONT().S, ROW_CHARS));
+        GText row = rows.get(rowCount++).clear();
+        row.add(name.length() > MAX_NAME ? name.substring(0, MAX_NAME - 1) + "~" : name).add(": ");
+        if (s.count == 0) {
+            row.add("no samples yet");
+            return;
+        }
+        row.add("p50 ").add((int) s.p50)
+                .add("  p95 ").add((int) s.p95)
+                .add("  p99 ").add((int) s.p99)
+                .add("  max ").add((int) s.max)
+                .add("  jitter ").add((int) s.jitter).add("ms");
     }
 }
@@ -13,28 +13,41 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:16:34 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.client.gamemods.coop.rules;
 
+import com.ceke.multiplayer.core.server.GameFields;
 import com.ceke.multiplayer.core.server.MultiplayerSession;
 import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
 import com.ceke.multiplayer.core.server.rules.GameRule;
 import settlement.main.SETT;
-import java.lang.reflect.Field;
 import java.util.logging.Logger;
 
 /**
  * Periodically reads the exact resource amounts from the host's stockpiles,
- * haulers, exports, and imports, then broadcasts them to clients to overwrite
+ * haulers, exports, and imports, then sends them to clients to overwrite
  * their local arrays. This ensures the UI perfectly tracks the host's
- * resources.
+ * resources. Only changed slots go over the wire (see
+ * {@link com.ceke.multiplayer.core.server.sync.ResourceReplicator}), so the
+ * sync can run several times per game-second.
  */
 public class ResourceSyncRule implements GameRule {
     private static final Logger LOG = Logger.getLogger(ResourceSyncRule.class.getName());
 
+    /** Game-seconds between syncs. */
+    private static final double SYNC_INTERVAL = 0.25;
+
+    /** TallyData internal array. */
+    private static final GameFields.Accessor<int[]> TALLY_AMS = GameFields.field("ams", int[].class,
+            () -> SETT.ROOMS().STOCKPILE.tally().amount);
+
+    /** RMapInt internal array. */
+    private static final GameFields.Accessor<int[]> MAP_DATA = GameFields.field("data", int[].class,
+            () -> SETT.ROOMS().EXPORT.tally.amount);
+
     private double timer = 0.0;
 
     @Override
@@ -46,9 +59,9 @@ public class ResourceSyncRule implements GameRule {
         if (SETT.ROOMS() == null || SETT.ROOMS().STOCKPILE == null)
             return;
 
-        // Sync approximately every 1 game-second
+        // Sync approximately every SYNC_INTERVAL game-seconds
         timer += ds;
-        if (timer > 1.0) {
+        if (timer > SYNC_INTERVAL) {
             timer = 0.0;
             sendSyncPacket(session);
         }
@@ -58,17 +71,17 @@ public class ResourceSyncRule implements GameRule {
         PacketSyncResources pkt = new PacketSyncResources();
         try {
             // TallyData internal array is called "ams"
-            pkt.stockpileAms = getArray(SETT.ROOMS().STOCKPILE.tally().amount, "ams");
-            pkt.stockpileReservedAms = getArray(SETT.ROOMS().STOCKPILE.tally().amountReserved, "ams");
+            pkt.stockpileAms = getArray(SETT.ROOMS().STOCKPILE.tally().amount, TALLY_AMS);
+            pkt.stockpileReservedAms = getArray(SETT.ROOMS().STOCKPILE.tally().amountReserved, TALLY_AMS);
 
-            pkt.haulerAms = getArray(SETT.ROOMS().HAULER.tally.amount, "ams");
-            pkt.haulerReservedAms = getArray(SETT.ROOMS().HAULER.tally.amountReserved, "ams");
+            pkt.haulerAms = getArray(SETT.ROOMS().HAULER.tally.amount, TALLY_AMS);
+            pkt.haulerReservedAms = getArray(SETT.ROOMS().HAULER.tally.amountReserved, TALLY_AMS);
 
             // RMapInt internal array is called "data"
-            pkt.exportAms = getArray(SETT.ROOMS().EXPORT.tally.amount, "data");
-            pkt.importAms = getArray(SETT.ROOMS().IMPORT.tally.amount, "data");
+            pkt.exportAms = getArray(SETT.ROOMS().EXPORT.tally.amount, MAP_DATA);
+            pkt.importAms = getArray(SETT.ROOMS().IMPORT.tally.amount, MAP_DATA);
 
-            session.getHostServer().broadcastResourceSync(pkt);
+            session.getHostServer().syncResources(pkt);
         } catch (Exception e) {
             LOG.warning("[ResourceSyncRule] Failed to read resource arrays: " + e.getMessage());
             e.printStackTrace();
@@ -84,59 +97,44 @@ public class ResourceSyncRule implements GameRule {
 
         try {
             if (pkt.stockpileAms != null)
-                setArray(SETT.ROOMS().STOCKPILE.tally().amount, "ams", pkt.stockpileAms);
+                setArray(SETT.ROOMS().STOCKPILE.tally().amount, TALLY_AMS, pkt.stockpileAms);
             if (pkt.stockpileReservedAms != null)
-                setArray(SETT.ROOMS().STOCKPILE.tally().amountReserved, "ams", pkt.stockpileReservedAms);
+                setArray(SETT.ROOMS().STOCKPILE.tally().amountReserved, TALLY_AMS, pkt.stockpileReservedAms);
 
             if (pkt.haulerAms != null)
-                setArray(SETT.ROOMS().HAULER.tally.amount, "ams", pkt.haulerAms);
+                setArray(SETT.ROOMS().HAULER.tally.amount, TALLY_AMS, pkt.haulerAms);
             if (pkt.haulerReservedAms != null)
-                setArray(SETT.ROOMS().HAULER.tally.amountReserved, "ams", pkt.haulerReservedAms);
+                setArray(SETT.ROOMS().HAULER.tally.amountReserved, TALLY_AMS, pkt.haulerReservedAms);
 
             if (pkt.exportAms != null)
-                setArray(SETT.ROOMS().EXPORT.tally.amount, "data", pkt.exportAms);
+                setArray(SETT.ROOMS().EXPORT.tally.amount, MAP_DATA, pkt.exportAms);
             if (pkt.importAms != null)
-                setArray(SETT.ROOMS().IMPORT.tally.amount, "data", pkt.importAms);
+                setArray(SETT.ROOMS().IMPORT.tally.amount, MAP_DATA, pkt.importAms);
         } catch (Exception e) {
             LOG.warning("[ResourceSyncRule] Failed to apply remote resources: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    /** Helper to access private arrays via Reflection. */
-    private static int[] getArray(Object target, String fieldName) throws Exception {
+    /** Helper to read private arrays through their cached accessor. */
+    private static int[] getArray(Object target, GameFields.Accessor<int[]> field) throws Exception {
         if (target == null)
             return null;
-        Field field = getFieldAcrossHierarchy(target.getClass(), fieldName);
-        field.setAccessible(true);
-        int[] original = (int[]) field.get(target);
+        int[] original = field.get(target);
         if (original != null) {
             return original.clone(); // Clone for safety against concurrent modification
         }
         return null;
     }
 
-    /** Helper to overwrite private arrays via Reflection. */
-    private static void setArray(Object target, String fieldName, int[] newData) throws Exception {
+    /** Helper to overwrite private arrays through their cached accessor. */
+    private static void setArray(Object target, GameFields.Accessor<int[]> field, int[] newData) throws Exception {
         if (target == null || newData == null)
             return;
-        Field field = getFieldAcrossHierarchy(target.getClass(), fieldName);
-        field.setAccessible(true);
-        int[] localData = (int[]) field.get(target);
+        int[] localData = field.get(target);
 
         if (localData != null && localData.length == newData.length) {
             System.arraycopy(newData, 0, localData, 0, newData.length);
         }
     }
-
-    private static Field getFieldAcrossHierarchy(Class<?> clazz, String fieldName) throws NoSuchFieldException {
-        while (clazz != null) {
-            try {
-                return clazz.getDeclaredField(fieldName);
-            } catch (NoSuchFieldException e) {
-                clazz = clazz.getSuperclass();
-            }
-        }
-        throw new NoSuchFieldException(fieldName);
-    }
 }
@@ -13,15 +13,18 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 19:08:26 by ceketrum                               */
-/*   Updated: 2026/02/28 19:08:26 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.client.gamemods.coop.rules;
 
+import com.ceke.multiplayer.core.client.gamemods.coop.CoopInputApplier;
 import com.ceke.multiplayer.core.server.MultiplayerSession;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
 import com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange;
 import com.ceke.multiplayer.core.server.rules.GameRule;
+import com.ceke.multiplayer.core.server.sync.LockstepScheduler;
 
 /**
  * Detects local game-speed changes and propagates them to all other players.
@@ -30,9 +33,15 @@ import com.ceke.multiplayer.core.server.rules.GameRule;
  * <ul>
  * <li><b>HOST</b>: detects a local speed change → broadcasts
  * {@link PacketSpeedChange} to all connected clients.</li>
- * <li><b>CLIENT</b>: detects a local speed change → sends
- * {@link PacketSpeedChange} to the host, which validates it and
- * re-broadcasts to all other clients.</li>
+ * <li><b>CLIENT</b>: detects a local speed change → sends it to the host
+ * as a {@link PacketPlayerInput#TYPE_SET_SPEED} input; the host validates
+ * and applies it ({@link CoopInputApplier}), then broadcasts
+ * {@link PacketSpeedChange} to all clients. A rejected change is answered
+ * with the host's current speed.</li>
+ * <li><b>Lockstep</b>: the local change is undone and sent as a
+ * {@link PacketPlayerInput#TYPE_SET_SPEED} input instead; it comes back in an
+ * input frame and {@link CoopInputApplier} applies it on the same turn on
+ * every machine, this one included.</li>
  * </ul>
  *
  * <h3>Loop prevention</h3>
@@ -64,6 +73,11 @@ public class TimeSyncRule implements GameRule {
         game.GAME.SPEED.speedSet(speed);
     }
 
+    /** Last speed value sent or applied (-1 before the first). */
+    public static int getLastKnownSpeed() {
+        return lastKnownSpeed;
+    }
+
     // ── GameRule ────────────────────────────────────────────────────────────
 
     @Override
@@ -77,21 +91,35 @@ public class TimeSyncRule implements GameRule {
         if (currentSpeed == lastKnownSpeed)
             return;
 
-        lastKnownSpeed = currentSpeed;
-
         MultiplayerSession session = MultiplayerSession.instance();
-        if (!session.isActive())
+        if (session.isActive() && LockstepScheduler.isEnabled() && lastKnownSpeed >= 0
+                && submitLockstep(session, currentSpeed)) {
+            // Back to the shared speed until the change's turn comes
+            game.GAME.SPEED.speedSet(lastKnownSpeed);
             return;
+        }
 
-        PacketSpeedChange pkt = new PacketSpeedChange(currentSpeed);
+        lastKnownSpeed = currentSpeed;
+        if (!session.isActive())
+            return;
 
         if (session.isHost() && session.getHostServer() != null) {
             // Host changed speed → push to all clients
-            session.getHostServer().broadcastSpeedChange(pkt);
+            session.getHostServer().broadcastSpeedChange(new PacketSpeedChange(currentSpeed));
         } else if (session.isClient() && session.getGameClient() != null
                 && session.getGameClient().isConnected()) {
-            // Client changed speed → send to host for relay
-            session.getGameClient().sendSpeedChange(pkt);
+            // Client changed speed → the host validates, applies and broadcasts it
+            session.getGameClient().sendInput(CoopInputApplier.speedInput(currentSpeed));
         }
     }
+
+    /** Lockstep: sends a local speed change to the next input frame; false if it could not be sent. */
+    private static boolean submitLockstep(MultiplayerSession session, int speed) {
+        PacketPlayerInput input = CoopInputApplier.speedInput(speed);
+        if (session.isHost() && session.getHostServer() != null)
+            return session.getHostServer().submitHostInput(input);
+        if (session.isClient() && session.getGameClient() != null)
+            return session.getGameClient().sendInput(input) >= 0;
+        return false;
+    }
 }
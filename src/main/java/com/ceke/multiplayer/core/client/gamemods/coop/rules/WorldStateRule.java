@@ -0,0 +1,41 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   WorldStateRule.java                                                    */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:39:07 by ceketrum                               */
+/*   Updated: 2026/10/17 21:39:07 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.client.gamemods.coop.rules;
+
+import com.ceke.multiplayer.core.server.MultiplayerSession;
+import com.ceke.multiplayer.core.server.rules.GameRule;
+import com.ceke.multiplayer.core.server.sync.WorldStateReplicator;
+
+/**
+ * HOST only: captures the replicated state channels once per game update, so
+ * the tick thread always diffs a consistent copy taken on the game thread.
+ */
+public class WorldStateRule implements GameRule {
+
+    @Override
+    public void update(double ds) {
+        MultiplayerSession session = MultiplayerSession.instance();
+        if (!session.isHost() || session.getHostServer() == null)
+            return;
+        if (game.GAME.s() == null)
+            return;
+        WorldStateReplicator.captureLocal();
+    }
+}
@@ -0,0 +1,57 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   GameSpeedChannel.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:39:07 by ceketrum                               */
+/*   Updated: 2026/10/17 21:39:07 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.client.gamemods.coop.state;
+
+import com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule;
+import com.ceke.multiplayer.core.server.sync.StateChannel;
+
+/**
+ * Replicates the host's target game speed.
+ *
+ * {@link com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange}
+ * still carries speed changes immediately; this channel is the drift guard
+ * that pulls a client back to the host's speed if a change was ever missed.
+ */
+public class GameSpeedChannel implements StateChannel {
+
+    @Override
+    public String name() {
+        return "speed";
+    }
+
+    @Override
+    public int slots() {
+        return 1;
+    }
+
+    @Override
+    public void capture(int[] dst, int offset) {
+        dst[offset] = game.GAME.SPEED != null ? (int) game.GAME.SPEED.speedTarget() : 0;
+    }
+
+    @Override
+    public void apply(int[] src, int offset) {
+        if (game.GAME.SPEED == null)
+            return;
+        int speed = src[offset];
+        if ((int) game.GAME.SPEED.speedTarget() != speed)
+            TimeSyncRule.applyRemoteSpeed(speed);
+    }
+}
@@ -0,0 +1,230 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   GameFields.java                                                        */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:14:51 by ceketrum                               */
+/*   Updated: 2026/10/17 22:37:16 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the game-internal (private) fields the mod reads and writes.
+ *
+ * Each {@link Accessor} looks its field up once per receiver class, walking
+ * the class hierarchy, and keeps getter / setter {@link MethodHandle}s
+ * already adapted to {@code Object}; every later access is one
+ * {@code invokeExact} instead of a reflective search plus
+ * {@code setAccessible}.
+ *
+ * Accessors declared with a sample (a supplier of a typical receiver) are
+ * checked by {@link #verify()} as soon as that receiver exists, so a game
+ * update that renames a field shows up once in the log when the world
+ * loads, not as a failure on every sync.
+ */
+public final class GameFields {
+
+    private static final Logger LOG = Logger.getLogger(GameFields.class.getName());
+
+    private static final List<Accessor<?>> accessors = new CopyOnWriteArrayList<>();
+
+    private GameFields() {
+    }
+
+    /** Declares an accessor for field {@code name} of type {@code type}. */
+    public static <T> Accessor<T> field(String name, Class<T> type) {
+        return field(name, type, null);
+    }
+
+    /**
+     * Declares an accessor checked by {@link #verify()} against the receiver
+     * {@code sample} returns (null while the game has not created it yet).
+     */
+    public static <T> Accessor<T> field(String name, Class<T> type, Supplier<?> sample) {
+        Accessor<T> accessor = new Accessor<>(name, type, sample);
+        accessors.add(accessor);
+        return accessor;
+    }
+
+    /**
+     * Resolves every accessor whose sample is available and not yet checked,
+     * logging the ones whose field is missing. Cheap once all are checked;
+     * {@link ModLoader#update} calls it every frame.
+     */
+    public static void verify() {
+        for (Accessor<?> a : accessors) {
+            if (a.verified || a.sample == null)
+                continue;
+            Object target;
+            try {
+                target = a.sample.get();
+            } catch (RuntimeException e) {
+                continue; // game not far enough along yet
+            }
+            if (target == null)
+                continue;
+            a.verified = true;
+            if (a.resolve(target.getClass()).getter == null)
+                LOG.warning("[GameFields] Field '" + a.name + "' (" + a.type.getSimpleName() + ") not found on "
+                        + target.getClass().getName() + "; features using it are disabled.");
+        }
+    }
+
+    /** Accessors found missing so far, as "name@class" strings. */
+    public static List<String> missing() {
+        List<String> out = new ArrayList<>();
+        for (Accessor<?> a : accessors) {
+            for (String receiver : a.missingOn)
+                out.add(a.name + "@" + receiver);
+        }
+        return out;
+    }
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** Resolved handles for one receiver class; null getter when the field is missing. */
+    private static final class Binding {
+        final Class<?> receiver;
+        final MethodHandle getter;
+        final MethodHandle setter;
+
+        Binding(Class<?> receiver, MethodHandle getter, MethodHandle setter) {
+            this.receiver = receiver;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * Cached access to one named instance field. Resolution happens once per
+     * receiver class and is kept in a {@link ClassValue}, so accessors used
+     * on receivers of several classes never look a field up twice.
+     */
+    public static final class Accessor<T> {
+
+        private final String name;
+        private final Class<T> type;
+        private final Supplier<?> sample;
+        private final ClassValue<Binding> bindings = new ClassValue<>() {
+            @Override
+            protected Binding computeValue(Class<?> receiver) {
+                Binding b = lookup(receiver);
+                if (b.getter == null)
+                    missingOn.add(receiver.getName());
+                return b;
+            }
+        };
+        /** Receiver classes found without the field, for {@link GameFields#missing()}. */
+        private final Set<String> missingOn = ConcurrentHashMap.newKeySet();
+        private volatile boolean verified = false;
+
+        private Accessor(String name, Class<T> type, Supplier<?> sample) {
+            this.name = name;
+            this.type = type;
+            this.sample = sample;
+        }
+
+        /**
+         * Reads the field of {@code target}.
+         *
+         * @throws NoSuchFieldException if the receiver class has no such field
+         */
+        public T get(Object target) throws NoSuchFieldException {
+            try {
+                return type.cast((Object) bound(target).getter.invokeExact(target));
+            } catch (RuntimeException | Error | NoSuchFieldException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t); // a field read throws nothing else
+            }
+        }
+
+        /**
+         * Writes the field of {@code target}.
+         *
+         * @throws NoSuchFieldException  if the receiver class has no such field
+         * @throws IllegalStateException if the field is final
+         */
+        public void set(Object target, T value) throws NoSuchFieldException {
+            MethodHandle setter = bound(target).setter;
+            if (setter == null)
+                throw new IllegalStateException(name + " is final on " + target.getClass().getName());
+            try {
+                setter.invokeExact(target, (Object) value);
+            } catch (RuntimeException | Error | NoSuchFieldException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        /** True if {@code target}'s class has the field. */
+        public boolean isPresent(Object target) {
+            return target != null && resolve(target.getClass()).getter != null;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        private Binding bound(Object target) throws NoSuchFieldException {
+            Binding b = resolve(target.getClass());
+            if (b.getter == null)
+                throw new NoSuchFieldException(name + " on " + target.getClass().getName());
+            return b;
+        }
+
+        private Binding resolve(Class<?> receiver) {
+            return bindings.get(receiver);
+        }
+
+        private Binding lookup(Class<?> receiver) {
+            for (Class<?> c = receiver; c != null && c != Object.class; c = c.getSuperclass()) {
+                Field f;
+                try {
+                    f = c.getDeclaredField(name);
+                } catch (NoSuchFieldException e) {
+                    continue;
+                }
+                if (!type.isAssignableFrom(f.getType()) && !f.getType().isAssignableFrom(type))
+                    return new Binding(receiver, null, null);
+                try {
+                    // Private access to the owner; handles ignore setAccessible
+                    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                    MethodHandle setter = java.lang.reflect.Modifier.isFinal(f.getModifiers())
+                            ? null // final (e.g. an array whose contents we overwrite): read-only
+                            : lookup.unreflectSetter(f).asType(SETTER);
+                    return new Binding(receiver, lookup.unreflectGetter(f).asType(GETTER), setter);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    LOG.warning("[GameFields] Cannot access " + c.getName() + "." + name + ": " + e);
+                    return new Binding(receiver, null, null);
+                }
+            }
+            return new Binding(receiver, null, null);
+        }
+    }
+}
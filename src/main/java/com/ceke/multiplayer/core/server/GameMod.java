@@ -13,24 +13,33 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:18:14 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.server;
 
 import com.ceke.multiplayer.core.server.rules.GameRule;
+import com.ceke.multiplayer.core.server.sync.InputApplier;
+import com.ceke.multiplayer.core.server.sync.StateChannel;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Represents a distinct multiplayer game mode (e.g. Co-op, PvP, Trade-only).
- * A GameMod defines basic properties and provides a list of active Rules.
+ * A GameMod defines basic properties and provides a list of active Rules,
+ * plus the host-authoritative {@link StateChannel}s replicated to clients.
  */
 public abstract class GameMod {
 
     protected final List<GameRule> rules = new ArrayList<>();
 
+    /** Replicated state layout. Host and clients must register the same order. */
+    protected final List<StateChannel> stateChannels = new ArrayList<>();
+
+    /** Applies player inputs in lockstep mode; null if the mod has none. */
+    protected InputApplier inputApplier = null;
+
     public abstract String getName();
 
     public abstract int getMaxPlayers();
@@ -38,4 +47,12 @@ public abstract class GameMod {
     public List<GameRule> getRules() {
         return rules;
     }
+
+    public List<StateChannel> getStateChannels() {
+        return stateChannels;
+    }
+
+    public InputApplier getInputApplier() {
+        return inputApplier;
+    }
 }
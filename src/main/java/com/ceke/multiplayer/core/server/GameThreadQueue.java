@@ -0,0 +1,231 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   GameThreadQueue.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:01:04 by ceketrum                               */
+/*   Updated: 2026/10/17 23:04:24 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands work from network threads to the game thread.
+ *
+ * Network handlers {@link #post} a task instead of touching game state;
+ * {@link ModLoader#update} runs the queued tasks on the game thread, in
+ * order, within a per-frame time budget. Tasks left over when the budget
+ * runs out wait for the next frame.
+ *
+ * Bounded multi-producer / single-consumer ring (one sequence number per
+ * slot): posting never blocks or locks. When the ring is full the task is
+ * dropped and counted — network threads never wait on game logic.
+ *
+ * State that only matters in its newest form (game speed, resource tallies,
+ * overlay progress) goes through a {@link Latest} instead: it holds one
+ * slot however fast updates arrive, and a full ring delays it rather than
+ * losing it.
+ */
+public final class GameThreadQueue {
+
+    private static final Logger LOG = Logger.getLogger(GameThreadQueue.class.getName());
+
+    /** Ring size; a power of two. */
+    public static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+
+    /** Default time the game thread spends on queued tasks per frame (2 ms). */
+    private static volatile long budgetNanos = 2_000_000L;
+
+    /**
+     * Per-slot sequence: equal to the position when the slot is free for
+     * that position, position + 1 once a task was published in it.
+     */
+    private static final AtomicLongArray sequence = new AtomicLongArray(CAPACITY);
+    private static final AtomicReferenceArray<Runnable> tasks = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong();
+    private static long head = 0; // game thread only
+
+    private static final AtomicLong dropped = new AtomicLong();
+
+    /** Mailboxes that found the ring full; at most one entry each. */
+    private static final ConcurrentLinkedQueue<Latest<?>> overflow = new ConcurrentLinkedQueue<>();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++)
+            sequence.set(i, i);
+    }
+
+    private GameThreadQueue() {
+    }
+
+    /**
+     * Queues {@code task} for the game thread. Safe to call from any thread.
+     *
+     * @return false if the queue was full and the task was dropped
+     */
+    public static boolean post(Runnable task) {
+        if (tryPost(task))
+            return true;
+        long n = dropped.incrementAndGet();
+        if ((n & (n - 1)) == 0) // 1st, 2nd, 4th, 8th... drop
+            LOG.warning("[GameThreadQueue] Queue full, dropped " + n + " task(s) so far.");
+        return false;
+    }
+
+    private static boolean tryPost(Runnable task) {
+        while (true) {
+            long pos = tail.get();
+            int slot = (int) (pos & MASK);
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    tasks.lazySet(slot, task);
+                    sequence.lazySet(slot, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // else: another producer claimed this position, reload tail
+        }
+    }
+
+    /** Runs queued tasks for up to the configured budget. Game thread only. */
+    public static void drain() {
+        drain(budgetNanos);
+    }
+
+    /**
+     * Runs queued tasks in order until the queue is empty or {@code budget}
+     * nanoseconds have passed (at least one task always runs). Game thread
+     * only.
+     *
+     * @return the number of tasks run
+     */
+    public static int drain(long budget) {
+        long start = System.nanoTime();
+        int ran = 0;
+        Latest<?> box;
+        while ((box = overflow.poll()) != null) {
+            runTask(box);
+            ran++;
+        }
+        Runnable task;
+        while ((task = poll()) != null) {
+            runTask(task);
+            ran++;
+            if (System.nanoTime() - start >= budget)
+                break;
+        }
+        return ran;
+    }
+
+    /** Discards everything queued. Game thread only (e.g. on session end). */
+    public static void clear() {
+        Runnable task;
+        while ((task = poll()) != null) {
+            if (task instanceof Latest)
+                ((Latest<?>) task).discard();
+        }
+        Latest<?> box;
+        while ((box = overflow.poll()) != null)
+            box.discard();
+    }
+
+    /** Approximate number of queued tasks. */
+    public static int size() {
+        return (int) Math.max(0L, tail.get() - head);
+    }
+
+    /** Tasks dropped because the queue was full, since startup. */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    public static long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public static void setBudgetNanos(long nanos) {
+        budgetNanos = Math.max(0L, nanos);
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "[GameThreadQueue] Task failed", e);
+        }
+    }
+
+    private static Runnable poll() {
+        int slot = (int) (head & MASK);
+        if (sequence.get(slot) != head + 1)
+            return null;
+        Runnable task = tasks.get(slot);
+        tasks.lazySet(slot, null);
+        sequence.lazySet(slot, head + CAPACITY);
+        head++;
+        return task;
+    }
+
+    /**
+     * Coalescing mailbox: network threads {@link #offer} values, the game
+     * thread applies only the newest one. At most one task per mailbox is
+     * queued at a time; when the ring is full the mailbox waits in a side
+     * list that {@link #drain} empties first.
+     */
+    public static final class Latest<T> implements Runnable {
+
+        private final AtomicReference<T> value = new AtomicReference<>();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private final Consumer<T> apply;
+
+        /** @param apply runs on the game thread with the newest value */
+        public Latest(Consumer<T> apply) {
+            this.apply = apply;
+        }
+
+        /** Replaces any value not applied yet. Safe to call from any thread. */
+        public void offer(T v) {
+            value.set(v);
+            if (queued.compareAndSet(false, true) && !tryPost(this))
+                overflow.add(this);
+        }
+
+        /** Game thread: applies the newest value, if one is still pending. */
+        @Override
+        public void run() {
+            queued.set(false); // an offer from here on queues the mailbox again
+            T v = value.getAndSet(null);
+            if (v != null)
+                apply.accept(v);
+        }
+
+        private void discard() {
+            value.set(null);
+            queued.set(false);
+        }
+    }
+}
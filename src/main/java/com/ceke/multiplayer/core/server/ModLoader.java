@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                           */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                                 */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                                 */
+/*   Updated: 2026/10/17 22:18:14 by ceketrum                                 */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -45,6 +45,15 @@ public class ModLoader {
     }
 
     public static void update(double ds) {
+        // Apply what the network threads received since the last frame
+        GameThreadQueue.drain();
+
+        // Lockstep: apply the input frames that are due
+        com.ceke.multiplayer.core.server.sync.LockstepScheduler.executeDue();
+
+        // Report game fields that went missing, once their owners exist
+        GameFields.verify();
+
         // Drive the join-overlay timer countdown (ContinueMode.TIMER)
         com.ceke.multiplayer.core.client.ui.JoinOverlayManager.update(ds);
 
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:01:15 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -21,6 +21,7 @@ package com.ceke.multiplayer.core.server;
 
 import com.ceke.multiplayer.core.server.network.GameClient;
 import com.ceke.multiplayer.core.server.network.HostServer;
+import com.ceke.multiplayer.core.server.network.PacketRegistry;
 import com.ceke.multiplayer.core.server.sync.CursorSyncManager;
 import com.ceke.multiplayer.core.client.ui.GlobalCursorInjector;
 
@@ -102,7 +103,7 @@ public final class MultiplayerSession {
     public void joinGame(String hostIp) {
         if (role != Role.NONE)
             stopAll();
-        gameClient = new GameClient(localPlayerName, "1.0.0");
+        gameClient = new GameClient(localPlayerName, PacketRegistry.VERSION);
         try {
             gameClient.connect(hostIp, 5000);
             role = Role.CLIENT;
@@ -130,6 +131,7 @@ public final class MultiplayerSession {
             gameClient = null;
         }
         role = Role.NONE;
+        GameThreadQueue.clear();
         LOG.info("[MultiplayerSession] Session ended.");
     }
 
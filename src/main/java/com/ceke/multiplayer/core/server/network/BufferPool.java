@@ -0,0 +1,137 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   BufferPool.java                                                        */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:05:12 by ceketrum                               */
+/*   Updated: 2026/10/17 22:36:09 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide pool of direct {@link ByteBuffer}s in power-of-two size
+ * classes, for the checksum scans of save files (chunk CRCs on the host,
+ * resume and bulk verification on the client). File reads land in the
+ * direct buffer and {@link java.util.zip.CRC32} reads it in place, so the
+ * data is never copied onto the heap. Chunks that travel as packets need a
+ * {@code byte[]} for Kryo anyway and do not use the pool.
+ *
+ * {@link #acquire} hands out a buffer of the smallest class that fits
+ * (allocating one if the class is empty), {@link #release} gives it back.
+ * Each class keeps at most {@link #MAX_RETAINED_PER_CLASS} idle buffers, so
+ * the pool grows with concurrent use, stays bounded, and survives session
+ * restarts instead of leaving fresh garbage behind. Requests above
+ * {@link #MAX_CLASS_BYTES} get an unpooled buffer.
+ *
+ * A released buffer must not be used again by the caller.
+ */
+public final class BufferPool {
+
+    private static final int MIN_SHIFT = 12; // 4 KB
+    private static final int MAX_SHIFT = 22; // 4 MB
+
+    /** Largest pooled buffer. */
+    public static final int MAX_CLASS_BYTES = 1 << MAX_SHIFT;
+
+    /** Idle buffers kept per size class. */
+    public static final int MAX_RETAINED_PER_CLASS = 8;
+
+    /** Idle buffers of one size class. */
+    private static final class SizeClass {
+        final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+        final AtomicInteger idle = new AtomicInteger();
+    }
+
+    private static final SizeClass[] classes = new SizeClass[MAX_SHIFT - MIN_SHIFT + 1];
+
+    private static final AtomicLong allocated = new AtomicLong();
+    private static final AtomicLong reused = new AtomicLong();
+
+    static {
+        for (int i = 0; i < classes.length; i++)
+            classes[i] = new SizeClass();
+    }
+
+    private BufferPool() {
+    }
+
+    /**
+     * Returns a cleared direct buffer with a capacity of at least
+     * {@code minCapacity} and its limit set to {@code minCapacity}.
+     */
+    public static ByteBuffer acquire(int minCapacity) {
+        int cls = classOf(minCapacity);
+        ByteBuffer buf = null;
+        if (cls >= 0) {
+            buf = classes[cls].free.poll();
+            if (buf != null) {
+                classes[cls].idle.decrementAndGet();
+                reused.incrementAndGet();
+            }
+        }
+        if (buf == null) {
+            buf = ByteBuffer.allocateDirect(cls >= 0 ? 1 << (cls + MIN_SHIFT) : minCapacity);
+            allocated.incrementAndGet();
+        }
+        buf.clear().limit(minCapacity);
+        return buf;
+    }
+
+    /** Returns a buffer obtained from {@link #acquire}. Null is ignored. */
+    public static void release(ByteBuffer buf) {
+        if (buf == null || !buf.isDirect())
+            return;
+        int capacity = buf.capacity();
+        int cls = classOf(capacity);
+        if (cls < 0 || 1 << (cls + MIN_SHIFT) != capacity)
+            return; // unpooled size: leave it to the GC
+        SizeClass c = classes[cls];
+        if (c.idle.incrementAndGet() > MAX_RETAINED_PER_CLASS) {
+            c.idle.decrementAndGet();
+            return;
+        }
+        c.free.offer(buf);
+    }
+
+    /** Buffers allocated since startup (pool misses). */
+    public static long getAllocated() {
+        return allocated.get();
+    }
+
+    /** Buffers handed out again from the pool since startup. */
+    public static long getReused() {
+        return reused.get();
+    }
+
+    /** Bytes currently held by idle pooled buffers. */
+    public static long getIdleBytes() {
+        long bytes = 0;
+        for (int i = 0; i < classes.length; i++)
+            bytes += (long) classes[i].idle.get() << (i + MIN_SHIFT);
+        return bytes;
+    }
+
+    /** Size class index for {@code capacity}, or -1 if it is not pooled. */
+    private static int classOf(int capacity) {
+        if (capacity > MAX_CLASS_BYTES)
+            return -1;
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(1, capacity) - 1);
+        return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+    }
+}
@@ -0,0 +1,137 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   BulkTransferClient.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:41:40 by ceketrum                               */
+/*   Updated: 2026/10/17 22:52:59 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * CLIENT side of the bulk save channel (see {@link BulkTransferServer}).
+ * The socket is drained straight into the target file with
+ * {@link FileChannel#transferFrom}, so the download never touches the heap.
+ * The fetched chunks are then checked against their CRCs and the verdict
+ * sent back, so the host only drops its fallback once the file is good.
+ *
+ * A host that sends nothing for {@link BulkTransferServer#READ_TIMEOUT_MS}
+ * ({@link TimedSocket}) makes {@link #download} throw like any other
+ * failure.
+ */
+public final class BulkTransferClient {
+
+    /** Bytes per transferFrom call — also the progress-report granularity. */
+    private static final long STEP = 1L << 20;
+
+    private BulkTransferClient() {
+    }
+
+    /**
+     * Fetches the {@code missing} chunks of an offered file into their offsets
+     * in {@code target}; chunks already on disk are left untouched. Blocking —
+     * call from a background thread.
+     *
+     * @param missing  chunk indices to fetch, in ascending order
+     * @param crcs     CRC32 of every chunk of the file, or null to skip the
+     *                 check
+     * @param progress receives the fetched fraction of the missing bytes in
+     *                 [0, 1]
+     * @throws IOException if the channel cannot be opened, the stream ends
+     *                     early or a chunk fails its CRC; the caller should
+     *                     fall back to the chunked stream
+     */
+    public static void download(String host, int port, long token, long totalBytes, int chunkSize, int[] missing,
+            int[] crcs, Path target, int connectTimeoutMs, Consumer<Float> progress) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (SocketChannel channel = SocketChannel.open()) {
+            channel.socket().connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            try (TimedSocket socket = new TimedSocket(channel, BulkTransferServer.READ_TIMEOUT_MS)) {
+                fetch(socket, totalBytes, chunkSize, token, missing, crcs, target, progress);
+            }
+        }
+    }
+
+    private static void fetch(TimedSocket socket, long totalBytes, int chunkSize, long token, int[] missing,
+            int[] crcs, Path target, Consumer<Float> progress) throws IOException {
+        ByteBuffer request = ByteBuffer.allocate(Long.BYTES + Integer.BYTES * (1 + missing.length));
+        request.putLong(token).putInt(missing.length);
+        for (int index : missing)
+            request.putInt(index);
+        socket.writeFully(request.flip());
+
+        long wanted = 0;
+        for (int index : missing)
+            wanted += Math.min(chunkSize, totalBytes - (long) index * chunkSize);
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long fetched = 0;
+            for (int index : missing) {
+                long position = (long) index * chunkSize;
+                long end = Math.min(position + chunkSize, totalBytes);
+                while (position < end) {
+                    long n = socket.receiveFile(file, position, Math.min(STEP, end - position));
+                    position += n;
+                    fetched += n;
+                    progress.accept(fetched / (float) wanted);
+                }
+            }
+            file.truncate(totalBytes);
+        }
+
+        int bad = firstBadChunk(target, totalBytes, chunkSize, missing, crcs);
+        ByteBuffer verdict = ByteBuffer.allocate(1).put(bad < 0 ? BulkTransferServer.ACK : BulkTransferServer.NACK);
+        socket.writeFully(verdict.flip());
+        if (bad >= 0)
+            throw new IOException("Chunk " + bad + " failed its CRC check");
+    }
+
+    /** Index of the first fetched chunk whose CRC does not match, or -1. */
+    private static int firstBadChunk(Path target, long totalBytes, int chunkSize, int[] missing, int[] crcs)
+            throws IOException {
+        if (crcs == null)
+            return -1;
+        ByteBuffer buf = BufferPool.acquire(chunkSize);
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.READ)) {
+            CRC32 crc = new CRC32();
+            for (int index : missing) {
+                long position = (long) index * chunkSize;
+                buf.clear().limit((int) Math.min(chunkSize, totalBytes - position));
+                while (buf.hasRemaining()) {
+                    if (file.read(buf, position + buf.position()) < 0)
+                        return index;
+                }
+                buf.flip();
+                crc.reset();
+                crc.update(buf);
+                if (index >= crcs.length || (int) crc.getValue() != crcs[index])
+                    return index;
+            }
+            return -1;
+        } finally {
+            BufferPool.release(buf);
+        }
+    }
+}
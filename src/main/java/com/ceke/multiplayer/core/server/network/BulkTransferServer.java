@@ -0,0 +1,213 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   BulkTransferServer.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:41:40 by ceketrum                               */
+/*   Updated: 2026/10/17 23:06:06 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HOST side of the bulk save channel — a plain TCP socket next to the KryoNet
+ * connection, used only to push pre-compressed save files.
+ *
+ * A joining client connects, sends the 8-byte token it received in
+ * {@link com.ceke.multiplayer.core.server.network.packets.PacketWorldLoad}
+ * followed by the chunks it is missing (an int count, then that many int
+ * indices), and those chunks are written back to back with
+ * {@link FileChannel#transferTo} (sendfile on most platforms): the bytes never
+ * enter the Java heap. The client checks the chunk CRCs and answers with one
+ * byte, {@link #ACK} or {@link #NACK}; only an ack completes the offer; a
+ * client that rejects the file falls back to the chunked stream, which still
+ * needs the sender. Every read and write times out after
+ * {@link #READ_TIMEOUT_MS} without progress (see {@link TimedSocket}), so a
+ * client that goes silent or stops reading cannot hold a serving thread.
+ */
+public final class BulkTransferServer {
+
+    private static final Logger LOG = Logger.getLogger(BulkTransferServer.class.getName());
+
+    /** Client verdict after checking the received chunks. */
+    public static final byte ACK = 1;
+    public static final byte NACK = 0;
+
+    /** Longest either side waits for the other to send or accept a byte. */
+    public static final int READ_TIMEOUT_MS = 30_000;
+
+    /** A file waiting to be fetched with its token. */
+    private static final class Offer {
+        final Path file;
+        final int chunkSize;
+        final Runnable onComplete;
+        final Runnable onRelease;
+
+        Offer(Path file, int chunkSize, Runnable onComplete, Runnable onRelease) {
+            this.file = file;
+            this.chunkSize = chunkSize;
+            this.onComplete = onComplete;
+            this.onRelease = onRelease;
+        }
+    }
+
+    private final int port;
+    private final Map<Long, Offer> offers = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService workers;
+
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running = false;
+
+    public BulkTransferServer(int port) {
+        this.port = port;
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ceke-multiplayer-bulk-send");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Binds the bulk port and starts accepting fetches. */
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        running = true;
+        Thread acceptThread = new Thread(this::acceptLoop, "ceke-multiplayer-bulk-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        LOG.info("[BulkTransferServer] Listening on port " + port);
+    }
+
+    public void stop() {
+        running = false;
+        for (Long token : offers.keySet())
+            withdraw(token);
+        try {
+            if (serverChannel != null)
+                serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        workers.shutdownNow();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Makes {@code file} fetchable once.
+     *
+     * @param chunkSize  block size the client's chunk indices refer to
+     * @param onComplete run once the client has confirmed the chunks it
+     *                   received
+     * @param onRelease  run once the server no longer opens or reads
+     *                   {@code file}: after the fetch, or when the offer is
+     *                   withdrawn or the server stops
+     * @return the token the client must present
+     */
+    public long offer(Path file, int chunkSize, Runnable onComplete, Runnable onRelease) {
+        Offer offer = new Offer(file, chunkSize, onComplete, onRelease);
+        long token;
+        do {
+            token = random.nextLong();
+        } while (token == 0 || offers.putIfAbsent(token, offer) != null);
+        return token;
+    }
+
+    /** Cancels an offer (e.g. the client fell back to the chunked stream). */
+    public void withdraw(long token) {
+        Offer offer = offers.remove(token);
+        if (offer != null)
+            offer.onRelease.run();
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                SocketChannel socket = serverChannel.accept();
+                workers.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running)
+                    LOG.log(Level.WARNING, "[BulkTransferServer] Accept failed", e);
+            }
+        }
+    }
+
+    private void serve(SocketChannel socket) {
+        try (SocketChannel s = socket; TimedSocket io = new TimedSocket(s, READ_TIMEOUT_MS)) {
+            ByteBuffer request = io.readFully(Long.BYTES + Integer.BYTES);
+            Offer offer = offers.remove(request.getLong());
+            if (offer == null) {
+                LOG.warning("[BulkTransferServer] Rejected fetch with unknown token from " + s.getRemoteAddress());
+                return;
+            }
+
+            try (FileChannel file = FileChannel.open(offer.file, StandardOpenOption.READ)) {
+                long size = file.size();
+                int chunkCount = (int) ((size + offer.chunkSize - 1) / offer.chunkSize);
+                int count = request.getInt();
+                if (count < 0 || count > chunkCount) {
+                    LOG.warning("[BulkTransferServer] Rejected fetch of " + count + " chunks from " + s.getRemoteAddress());
+                    return;
+                }
+                ByteBuffer indices = io.readFully(count * Integer.BYTES);
+
+                long sent = 0;
+                for (int i = 0; i < count; i++) {
+                    int index = indices.getInt();
+                    if (index < 0 || index >= chunkCount)
+                        throw new IOException("Chunk index out of range: " + index);
+                    long position = (long) index * offer.chunkSize;
+                    long end = Math.min(position + offer.chunkSize, size);
+                    io.sendFile(file, position, end - position);
+                    sent += end - position;
+                }
+                LOG.info("[BulkTransferServer] Sent " + count + " chunks (" + sent + " bytes) to "
+                        + s.getRemoteAddress());
+            } finally {
+                offer.onRelease.run(); // after the file is closed
+            }
+            if (io.readFully(1).get() != ACK) {
+                LOG.warning("[BulkTransferServer] Client rejected the bulk file, leaving it to the chunked stream.");
+                return;
+            }
+            offer.onComplete.run();
+        } catch (EOFException e) {
+            LOG.log(Level.FINE, "[BulkTransferServer] Client hung up", e);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[BulkTransferServer] Bulk send failed", e);
+        }
+    }
+}
@@ -13,14 +13,23 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:20 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.server.network;
 
+import com.ceke.multiplayer.core.server.GameThreadQueue;
 import com.ceke.multiplayer.core.server.network.packets.*;
+import com.ceke.multiplayer.core.server.sync.ClockSync;
+import com.ceke.multiplayer.core.server.sync.CursorPublisher;
 import com.ceke.multiplayer.core.server.sync.CursorSyncManager;
+import com.ceke.multiplayer.core.server.sync.LockstepScheduler;
+import com.ceke.multiplayer.core.server.sync.ResourceReplicator;
+import com.ceke.multiplayer.core.server.sync.SaveCache;
+import com.ceke.multiplayer.core.server.sync.SaveDelta;
+import com.ceke.multiplayer.core.server.sync.SaveSyncManager;
+import com.ceke.multiplayer.core.server.sync.WorldStateReplicator;
 import com.esotericsoftware.kryonet.Client;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.Listener;
@@ -29,6 +38,7 @@ import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,27 +51,96 @@ import java.util.logging.Logger;
  * - Send local player inputs (via {@link #sendInput}) to the authoritative
  * host.
  * - Send local cursor position every cursor-tick via UDP.
- * - Apply incoming {@link PacketGameState} ticks to reconcile local game state.
+ * - Apply incoming {@link PacketGameState} ticks to reconcile local game state
+ * and acknowledge them so the host can keep sending deltas.
  */
 public final class GameClient {
 
     private static final Logger LOG = Logger.getLogger(GameClient.class.getName());
 
-    /** Allow up to 10MB for transferring the zipped save game */
-    private static final int WRITE_BUFFER = 10_000_000;
-    private static final int OBJECT_BUFFER = 10_000_000;
+    /**
+     * The write buffer must fit the largest {@link PacketWorldRequest}; the
+     * largest object received is a save chunk or bundle (64 KB) or a
+     * transfer header. Saves are never sent inline any more.
+     */
+    private static final int WRITE_BUFFER = 2 * 1024 * 1024;
+    private static final int OBJECT_BUFFER = 256 * 1024;
+
+    /**
+     * Largest basis signed for a delta request (~14 bytes per block on the
+     * wire, so the request stays below the host's 1 MB object buffer). Bigger
+     * cached saves are requested in full.
+     */
+    static final int MAX_SIGNATURE_BLOCKS = 65_536;
+
+    /** How long to wait for the host's bulk save channel before falling back. */
+    private static final int BULK_CONNECT_TIMEOUT_MS = 3000;
 
-    /** How often (ms) the client sends its cursor position. */
-    private static final int CURSOR_SEND_INTERVAL_MS = 50; // ~20 Hz
+    /** Failed world downloads retried before giving up. */
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
+
+    /** How often (ms) the local cursor is polled; the publisher decides what is sent. */
+    private static final int CURSOR_SEND_INTERVAL_MS = CursorPublisher.POLL_INTERVAL_MS;
 
     private final Client client;
     private final ScheduledExecutorService cursorExecutor;
 
+    /** Rate / dead-band control of our cursor; used on the cursor thread only. */
+    private final CursorPublisher cursorPublisher = new CursorPublisher();
+    private UnreliableChannel publishedChannel = null;
+
     private volatile boolean connected = false;
 
     private final String playerName;
     private final String modVersion;
 
+    /** Host address, kept for the bulk save channel. */
+    private String hostIp;
+
+    /** Cursor / ephemeral path to the host; replaced on every (re)connect. */
+    private volatile UnreliableChannel cursorChannel = null;
+
+    // Game-thread mailboxes: only the newest value of each is applied
+    private final GameThreadQueue.Latest<PacketGameState> pendingState = new GameThreadQueue.Latest<>(
+            this::applyState);
+    private final GameThreadQueue.Latest<Integer> pendingSpeed = new GameThreadQueue.Latest<>(speed -> {
+        com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule.applyRemoteSpeed(speed);
+        LOG.info("[GameClient] Applied remote speed change from host: " + speed);
+    });
+    private final GameThreadQueue.Latest<PacketSyncResources> pendingResources = new GameThreadQueue.Latest<>(
+            com.ceke.multiplayer.core.client.gamemods.coop.rules.ResourceSyncRule::applyRemoteResources);
+    private final GameThreadQueue.Latest<Runnable> pendingOverlay = new GameThreadQueue.Latest<>(Runnable::run);
+    private final GameThreadQueue.Latest<PacketJoinProgress> pendingProgress = new GameThreadQueue.Latest<>(
+            p -> com.ceke.multiplayer.core.client.ui.JoinOverlayManager.updateProgress(p.statusText,
+                    p.progressPercent));
+
+    /** Routes every received packet to its handler below. */
+    private final PacketDispatcher dispatcher = createDispatcher();
+
+    /** Streamed world download in progress. */
+    private volatile SaveTransferReceiver worldDownload = null;
+
+    /** World downloads that failed since the last handshake. */
+    private volatile int failedDownloads = 0;
+
+    /** Cached save hashes offered in the last handshake. */
+    private volatile String[] offeredSaves = new String[0];
+
+    /** Hash of the host's save, from its handshake reply. */
+    private volatile String hostSaveHash = null;
+
+    /** Sequence of the last input sent. */
+    private final AtomicInteger inputSeq = new AtomicInteger();
+
+    /** Round trips of our heartbeats to the host. */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /** The host runs another protocol version: reconnecting cannot help. */
+    private volatile boolean versionMismatch = false;
+
+    /** ID the host assigned us in its handshake reply, or -1 before that. */
+    private volatile int localPlayerId = -1;
+
     public GameClient(String playerName, String modVersion) {
         this.playerName = playerName;
         this.modVersion = modVersion;
@@ -81,19 +160,34 @@ public final class GameClient {
      * Blocking for up to {@code timeoutMs} ms.
      */
     public void connect(String hostIp, int timeoutMs) throws IOException {
+        this.hostIp = hostIp;
+        WorldStateReplicator.resetClient();
+        ResourceReplicator.resetClient();
+        ClockSync.host().reset();
+        latency.reset();
         client.start();
         PacketRegistry.register(client);
+        try {
+            client.connect(timeoutMs, hostIp, HostServer.PORT, HostServer.PORT);
+        } catch (IOException e) {
+            // UDP registration can fail behind strict NATs/firewalls; TCP alone still works
+            LOG.log(Level.WARNING, "[GameClient] TCP+UDP connect failed, retrying TCP-only", e);
+            client.connect(timeoutMs, hostIp, HostServer.PORT);
+        }
+        // Registered after connecting so a failed UDP attempt does not trigger the reconnect loop
         registerListeners();
-        client.connect(timeoutMs, hostIp, HostServer.PORT, HostServer.PORT);
+        cursorChannel = new UnreliableChannel(client);
         connected = true;
         joinFinishedSent = false; // reset for potential reconnect
 
         // Send handshake immediately
-        client.sendTCP(new PacketHandshake(playerName, modVersion, ""));
+        sendHandshake();
 
         // Start periodic cursor updates
         cursorExecutor.scheduleAtFixedRate(this::sendCursorPosition,
                 0, CURSOR_SEND_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        cursorExecutor.scheduleAtFixedRate(this::sendHeartbeat,
+                0, LatencyHistogram.HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
 
         LOG.info("[GameClient] Connected to " + hostIp + ":" + HostServer.PORT);
     }
@@ -105,17 +199,27 @@ public final class GameClient {
         connected = false;
         cursorExecutor.shutdownNow();
         client.stop();
+        LockstepScheduler.reset();
+        LockstepScheduler.useLocalSettings();
+        ClockSync.host().reset();
+        dispatcher.logStats(Level.FINE);
         LOG.info("[GameClient] Disconnected.");
     }
 
     /**
      * Sends a player input packet to the host over TCP (reliable delivery).
      * Called from the game-side code whenever the local player performs an action.
+     *
+     * @return the sequence number the host's {@link PacketInputResult} will
+     *         refer to, or -1 if not connected
      */
-    public void sendInput(PacketPlayerInput input) {
+    public int sendInput(PacketPlayerInput input) {
         if (!connected)
-            return;
+            return -1;
+        input.seq = inputSeq.incrementAndGet();
+        input.hostTick = ClockSync.host().estimatedHostTick(CursorSyncManager.nowMs());
         client.sendTCP(input);
+        return input.seq;
     }
 
     private boolean joinFinishedSent = false;
@@ -186,13 +290,6 @@ public final class GameClient {
         LOG.fine("[GameClient] Progress sent: " + status + " (" + (int) (percent * 100) + "%)");
     }
 
-    /** Sends a speed change to the host (host will validate and relay back). */
-    public void sendSpeedChange(com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange pkt) {
-        if (!connected)
-            return;
-        client.sendTCP(pkt);
-    }
-
     /** Sends a chat message to the host. */
     public void sendChat(String message) {
         if (!connected)
@@ -204,18 +301,306 @@ public final class GameClient {
     // Internal
     // -----------------------------------------------------------------------
 
-    /** Periodic task: reads the local cursor and sends it over UDP. */
+    /** Periodic task: reads the local cursor and sends it (UDP when available). */
     private void sendCursorPosition() {
-        if (!connected)
+        UnreliableChannel channel = cursorChannel;
+        if (!connected || channel == null)
             return;
         try {
-            PacketMousePos pos = CursorSyncManager.getLocalCursorPacket();
-            client.sendTCP(pos);
+            channel.tick(System.currentTimeMillis());
+            if (channel != publishedChannel) {
+                cursorPublisher.reset(); // (re)connected: resend the current position
+                publishedChannel = channel;
+            }
+            PacketMousePos mp = cursorPublisher.poll(CursorSyncManager.nowMs(),
+                    CursorSyncManager.getLocalX(), CursorSyncManager.getLocalY());
+            if (mp != null)
+                channel.send(UnreliableChannel.stamp(mp));
+            syncClock(channel);
         } catch (Exception e) {
             LOG.log(Level.FINE, "[GameClient] Cursor send failed", e);
         }
     }
 
+    /** Periodic task: sends a latency heartbeat; the host echoes it (see {@link LatencyHistogram}). */
+    private void sendHeartbeat() {
+        if (!connected)
+            return;
+        try {
+            client.sendTCP(new PacketHeartbeat(CursorSyncManager.nowMs()));
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "[GameClient] Heartbeat send failed", e);
+        }
+    }
+
+    /**
+     * Sends the next clock exchange when one is due (see {@link ClockSync}).
+     * Runs on the cursor task so requests go out as soon as they are stamped.
+     */
+    private void syncClock(UnreliableChannel channel) {
+        long now = CursorSyncManager.nowMs();
+        if (!ClockSync.host().isDue(now))
+            return;
+        PacketTimeSync request = ClockSync.host().request(now);
+        if (channel.isUdpUp())
+            client.sendUDP(request);
+        else
+            client.sendTCP(request);
+    }
+
+    /**
+     * Sends the handshake, listing the saves in the local {@link SaveCache} so
+     * the host can skip the world transfer.
+     */
+    private void sendHandshake() {
+        PacketHandshake hs = new PacketHandshake(playerName, modVersion, "");
+        hs.cachedSaves = SaveCache.knownHashes();
+        offeredSaves = hs.cachedSaves;
+        client.sendTCP(hs);
+    }
+
+    /**
+     * Loads the host's save from the cache when the host skipped the transfer
+     * because we offered it. If the cached copy has vanished meanwhile, the
+     * world is requested instead. Copies the save on a background thread.
+     */
+    private void loadCachedWorld(String hash) {
+        new Thread(() -> {
+            if (SaveCache.restore(hash, downloadedSavePath())) {
+                LOG.info("[GameClient] Host save " + hash + " found in cache, skipping download.");
+                sendProgress("Loading world...", 0.30f);
+                menu.ScMainBridge.clientLoadSave("MP_Downloaded");
+            } else {
+                LOG.warning("[GameClient] Cached save " + hash + " unavailable, requesting world.");
+                requestWorld(true);
+            }
+        }, "ceke-multiplayer-world-load").start();
+    }
+
+    /**
+     * Background thread: asks the host for its save. With {@code allowDelta}
+     * the most recently used cached save is signed and sent along, so the host
+     * only ships what changed since.
+     */
+    private void requestWorld(boolean allowDelta) {
+        new Thread(() -> {
+            PacketWorldRequest request = new PacketWorldRequest(null);
+            String basis = allowDelta ? SaveCache.latest() : null;
+            java.nio.file.Path basisFile = basis != null ? SaveCache.fileOf(basis) : null;
+            if (basisFile != null) {
+                try {
+                    SaveDelta.Signatures sig = SaveDelta.signatures(basisFile);
+                    if (sig.weak.length > MAX_SIGNATURE_BLOCKS)
+                        throw new java.io.IOException("Cached save too large to sign (" + sig.weak.length + " blocks)");
+                    request.basisHash = basis;
+                    request.blockSize = sig.blockSize;
+                    request.basisLength = sig.length;
+                    request.weak = sig.weak;
+                    request.strong = sig.strong;
+                    LOG.info("[GameClient] Requesting world as delta against cached save " + basis + " ("
+                            + sig.weak.length + " blocks).");
+                } catch (java.io.IOException e) {
+                    LOG.log(Level.WARNING, "[GameClient] Failed to sign cached save, requesting full world", e);
+                    request = new PacketWorldRequest(null);
+                }
+            }
+            client.sendTCP(request);
+        }, "ceke-multiplayer-world-request").start();
+    }
+
+    /**
+     * Hashes the unzipped host save and adds it to the cache.
+     *
+     * @return false if it does not match the host's announced hash (it is then
+     *         not cached)
+     */
+    private boolean cacheDownloadedSave() {
+        java.nio.file.Path save = downloadedSavePath();
+        try {
+            String hash = SaveSyncManager.hashSaveFile(save);
+            if (hostSaveHash != null && !hostSaveHash.equals(hash)) {
+                LOG.warning("[GameClient] Downloaded save hash " + hash + " differs from host's " + hostSaveHash);
+                return false;
+            }
+            SaveCache.store(hash, save);
+        } catch (java.io.IOException e) {
+            LOG.log(Level.WARNING, "[GameClient] Failed to cache downloaded save", e);
+        }
+        return true;
+    }
+
+    /** Where the downloaded host save is written before the game loads it. */
+    private static java.nio.file.Path downloadedSavePath() {
+        String appdata = System.getenv("APPDATA");
+        return java.nio.file.Paths.get(appdata, "songsofsyx", "saves", "saves", "MP_Downloaded.save");
+    }
+
+    /** Temporary file the compressed save is downloaded into. */
+    private static java.nio.file.Path downloadPartPath() {
+        return downloadedSavePath().resolveSibling("MP_Downloaded.zip.part");
+    }
+
+    /**
+     * Background thread: checks what an earlier, interrupted download left in
+     * the part file, then fetches only the missing chunks — over the bulk
+     * channel when offered, otherwise (or if it fails) as a chunk stream.
+     */
+    private void startWorldDownload(PacketWorldLoad header) {
+        new Thread(() -> {
+            java.nio.file.Path part = downloadPartPath();
+            java.util.BitSet have = SaveTransferReceiver.verifyExisting(part, header);
+            int missing = header.chunkCount - have.cardinality();
+            if (missing < header.chunkCount)
+                LOG.info("[GameClient] Resuming world download: " + missing + "/" + header.chunkCount
+                        + " chunks missing.");
+
+            if (missing == 0) {
+                client.sendTCP(new PacketWorldTransferStart(header.transferId, have.toLongArray()));
+                try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(part,
+                        java.nio.file.StandardOpenOption.WRITE)) {
+                    ch.truncate(header.totalBytes);
+                } catch (java.io.IOException e) {
+                    LOG.log(Level.SEVERE, "[GameClient] Failed to finalize world download", e);
+                    retryWorldDownload("cannot write save file");
+                    return;
+                }
+                loadDownloadedWorld(part, header);
+                return;
+            }
+
+            if (header.bulkPort > 0) {
+                int[] indices = new int[missing];
+                int n = 0;
+                for (int i = have.nextClearBit(0); i < header.chunkCount; i = have.nextClearBit(i + 1))
+                    indices[n++] = i;
+                float[] reported = { 0f };
+                try {
+                    BulkTransferClient.download(hostIp, header.bulkPort, header.bulkToken, header.totalBytes,
+                            header.chunkSize, indices, header.chunkCrcs, part, BULK_CONNECT_TIMEOUT_MS, p -> {
+                                reportDownloadProgress(reported[0], p);
+                                reported[0] = p;
+                            });
+                    LOG.info("[GameClient] Bulk download complete.");
+                    loadDownloadedWorld(part, header);
+                    return;
+                } catch (java.io.IOException e) {
+                    LOG.log(Level.WARNING, "[GameClient] Bulk channel failed, falling back to chunked stream", e);
+                }
+            }
+
+            try {
+                worldDownload = new SaveTransferReceiver(client, header, part, have);
+                client.sendTCP(new PacketWorldTransferStart(header.transferId, have.toLongArray()));
+            } catch (java.io.IOException e) {
+                LOG.log(Level.SEVERE, "[GameClient] Failed to open world download file", e);
+                retryWorldDownload("cannot write save file");
+            }
+        }, "ceke-multiplayer-world-download").start();
+    }
+
+    private void loadDownloadedWorld(java.nio.file.Path part, PacketWorldLoad header) {
+        try {
+            finishWorldDownload(part, header);
+        } catch (java.io.IOException e) {
+            LOG.log(Level.SEVERE, "[GameClient] Failed to load downloaded save", e);
+            retryWorldDownload("downloaded save is unreadable");
+        }
+    }
+
+    /**
+     * A world download failed: asks the host again. The chunks of the part
+     * file that still pass their CRC are kept (see
+     * {@link SaveTransferReceiver#verifyExisting}), so only the rest is
+     * fetched. After {@link #MAX_DOWNLOAD_ATTEMPTS} failures the error is
+     * shown on the join overlay instead.
+     */
+    private void retryWorldDownload(String reason) {
+        int failures = ++failedDownloads;
+        if (failures > MAX_DOWNLOAD_ATTEMPTS) {
+            LOG.severe("[GameClient] World download failed " + failures + " times, giving up: " + reason);
+            sendProgress("World download failed: " + reason, 0f);
+            return;
+        }
+        LOG.warning("[GameClient] World download failed (" + reason + "), retrying " + failures + "/"
+                + MAX_DOWNLOAD_ATTEMPTS + ".");
+        sendProgress("Download failed, retrying (" + failures + "/" + MAX_DOWNLOAD_ATTEMPTS + ")...", 0.10f);
+        requestWorld(false);
+    }
+
+    /**
+     * Network thread: stores one streamed chunk. The last one hands the save
+     * to a background thread, as the bulk path does: decompressing, hashing
+     * and caching it would stall every other packet for seconds.
+     */
+    private void onWorldChunk(PacketWorldChunk chunk) {
+        SaveTransferReceiver download = worldDownload;
+        try {
+            float before = download.progress();
+            if (!download.onChunk(chunk)) {
+                reportDownloadProgress(before, download.progress());
+                return;
+            }
+            worldDownload = null;
+            LOG.info("[GameClient] World download complete.");
+            new Thread(() -> loadDownloadedWorld(download.getPartFile(), download.getHeader()),
+                    "ceke-multiplayer-world-load").start();
+        } catch (java.io.IOException e) {
+            LOG.log(Level.SEVERE, "[GameClient] Failed to store streamed world save", e);
+            download.abort();
+            worldDownload = null;
+            retryWorldDownload(e.getMessage());
+        }
+    }
+
+    /** Reports every ~10% so the host overlay moves without flooding it. */
+    private void reportDownloadProgress(float before, float after) {
+        if ((int) (after * 10) != (int) (before * 10))
+            sendProgress("Downloading world...", 0.10f + 0.20f * after);
+    }
+
+    /**
+     * Decompresses a fully downloaded save — or rebuilds it from a delta and the
+     * cached basis — and hands it to the game loader. A delta that cannot be
+     * applied or does not reproduce the host's save triggers a full request;
+     * a full download that does not match the host's hash is retried.
+     * Background thread only.
+     */
+    private void finishWorldDownload(java.nio.file.Path zipFile, PacketWorldLoad header) throws java.io.IOException {
+        java.nio.file.Path save = downloadedSavePath();
+        if (header.deltaBasis == null) {
+            LOG.info("[GameClient] Decompressing downloaded save...");
+            SaveSyncManager.decompressSaveFile(zipFile, save);
+            java.nio.file.Files.deleteIfExists(zipFile);
+            if (!cacheDownloadedSave()) {
+                retryWorldDownload("save does not match the host's");
+                return;
+            }
+        } else {
+            java.nio.file.Path delta = zipFile.resolveSibling("MP_Downloaded.delta");
+            boolean rebuilt = false;
+            try {
+                java.nio.file.Path basis = SaveCache.fileOf(header.deltaBasis);
+                if (basis == null)
+                    throw new java.io.IOException("Delta basis " + header.deltaBasis + " is no longer cached");
+                LOG.info("[GameClient] Rebuilding save from delta against " + header.deltaBasis + "...");
+                SaveSyncManager.decompressSaveFile(zipFile, delta);
+                SaveDelta.apply(basis, delta, save);
+                rebuilt = cacheDownloadedSave();
+            } catch (java.io.IOException e) {
+                LOG.log(Level.WARNING, "[GameClient] Failed to apply save delta", e);
+            } finally {
+                java.nio.file.Files.deleteIfExists(delta);
+                java.nio.file.Files.deleteIfExists(zipFile);
+            }
+            if (!rebuilt) {
+                requestWorld(false);
+                return;
+            }
+        }
+        sendProgress("Loading world...", 0.30f);
+        menu.ScMainBridge.clientLoadSave("MP_Downloaded");
+    }
+
     private void registerListeners() {
         client.addListener(new Listener() {
 
@@ -227,8 +612,16 @@ public final class GameClient {
             @Override
             public void disconnected(Connection connection) {
                 connected = false;
-                CursorSyncManager.setRemoteCursor(0f, 0f);
+                CursorSyncManager.resetRemoteCursor();
                 LOG.info("[GameClient] Lost connection to host.");
+                if (versionMismatch)
+                    return;
+
+                // Keep the part file: the next PacketWorldLoad resumes from it
+                SaveTransferReceiver download = worldDownload;
+                worldDownload = null;
+                if (download != null)
+                    download.abort();
 
                 // If we are already trying to reconnect, don't start another thread
                 if (com.ceke.multiplayer.core.client.ui.JoinOverlayManager.isReconnectingMode()) {
@@ -246,15 +639,20 @@ public final class GameClient {
                             client.reconnect(5000);
 
                             // If reconnect doesn't throw an Exception, we connected successfully!
+                            cursorChannel = new UnreliableChannel(client);
                             connected = true;
                             joinFinishedSent = false;
                             clientWaitingShown = false;
+                            WorldStateReplicator.resetClient();
+                            ResourceReplicator.resetClient();
+                            ClockSync.host().reset();
+                            latency.reset();
 
                             // Force transition to menu so the impending PacketWorldLoad is processed
                             // properly
                             menu.ScMainBridge.returnToMenu();
 
-                            client.sendTCP(new PacketHandshake(playerName, modVersion, "")); // Must re-send handshake!
+                            sendHandshake(); // Must re-send handshake!
 
                             com.ceke.multiplayer.core.client.ui.JoinOverlayManager.deactivateReconnecting();
                             LOG.info("[GameClient] Reconnect successful! Returning to menu to reload map.");
@@ -271,91 +669,164 @@ public final class GameClient {
 
             @Override
             public void received(Connection connection, Object object) {
-                if (object instanceof PacketHandshake hs) {
-                    LOG.info("[GameClient] Received handshake back from host. Active mod: " + hs.activeMod);
-                    if (hs.activeMod != null && hs.activeMod.equals("Co-op")) {
-                        com.ceke.multiplayer.core.server.ModLoader
-                                .setActiveMod(new com.ceke.multiplayer.core.client.gamemods.coop.CoopGameMod());
-                        LOG.info("[GameClient] Initialized " + hs.activeMod + " mod from host's handshake.");
-                    }
-                }
-
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange sc) {
-                    com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule.applyRemoteSpeed(sc.speed);
-                    LOG.info("[GameClient] Applied remote speed change from host: " + sc.speed);
-                }
-
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketSyncResources syncPkt) {
-                    com.ceke.multiplayer.core.client.gamemods.coop.rules.ResourceSyncRule.applyRemoteResources(syncPkt);
-                }
-
-                if (object instanceof PacketWorldLoad pwl) {
-                    if (pwl.saveZipBytes == null || pwl.saveZipBytes.length == 0) {
-                        LOG.info("[GameClient] Host started a new game. Loading empty world.");
-                        sendProgress("Creating world...", 0.10f);
-                        menu.ScMainBridge.clientLoadSave("");
-                    } else {
-                        LOG.info("[GameClient] Received world save zip (" + pwl.saveZipBytes.length + " bytes).");
-                        sendProgress("Received world data...", 0.10f);
-                        try {
-                            String appdata = System.getenv("APPDATA");
-                            java.nio.file.Path targetFile = java.nio.file.Paths.get(appdata, "songsofsyx", "saves",
-                                    "saves", "MP_Downloaded.save");
-                            com.ceke.multiplayer.core.server.sync.SaveSyncManager.unzipSaveFile(pwl.saveZipBytes,
-                                    targetFile);
-                            LOG.info("[GameClient] Save unzipped. Triggering game load...");
-                            sendProgress("Loading world...", 0.30f);
-                            menu.ScMainBridge.clientLoadSave("MP_Downloaded");
-                        } catch (java.io.IOException e) {
-                            LOG.log(Level.SEVERE, "[GameClient] Failed to load downloaded save", e);
-                        }
-                    }
-                }
+                dispatcher.dispatch(connection, object);
+            }
+        });
+    }
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketJoinStarted p) {
-                    LOG.info("[GameClient] Server reports player joining: " + p.joiningPlayerName);
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.activate(p.joiningPlayerName);
-                }
+    // -----------------------------------------------------------------------
+    // Packet handlers — run on the KryoNet update thread
+    // -----------------------------------------------------------------------
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketJoinProgress p) {
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.updateProgress(p.statusText,
-                            p.progressPercent);
-                }
+    private PacketDispatcher createDispatcher() {
+        PacketDispatcher d = new PacketDispatcher("GameClient");
+        d.on(PacketBundle.class, (c, bundle) -> OutboundBatcher.unpack(bundle, p -> d.dispatch(c, p)));
+        d.on(PacketHandshake.class, this::onHandshake);
+        // Anything that touches game state is handed to the game thread, newest value only:
+        // the queue only runs in game, so updates arriving during a download must not pile up
+        d.on(PacketSpeedChange.class, (c, sc) -> pendingSpeed.offer(sc.speed));
+        d.on(PacketSyncResources.class, (c, syncPkt) -> pendingResources.offer(ResourceReplicator.applyFull(syncPkt)));
+        d.on(PacketSyncResourcesDelta.class, (c, delta) -> {
+            // The replicator is thread-safe and returns a fresh copy: rebuild here, apply there
+            PacketSyncResources full = ResourceReplicator.applyDelta(delta);
+            if (full == null)
+                c.sendTCP(new PacketResourceResync(ResourceReplicator.heldVersion()));
+            else
+                pendingResources.offer(full);
+        });
+        d.on(PacketWorldLoad.class, this::onWorldLoad);
+        d.on(PacketWorldChunk.class, (c, chunk) -> {
+            if (worldDownload != null)
+                onWorldChunk(chunk);
+        });
+        d.on(PacketJoinStarted.class, (c, p) -> {
+            LOG.info("[GameClient] Server reports player joining: " + p.joiningPlayerName);
+            pendingOverlay.offer(() -> com.ceke.multiplayer.core.client.ui.JoinOverlayManager
+                    .activate(p.joiningPlayerName));
+        });
+        d.on(PacketJoinProgress.class, (c, p) -> pendingProgress.offer(p));
+        d.on(PacketOverlayClear.class, (c, p) -> {
+            LOG.info("[GameClient] Server cleared join overlay.");
+            pendingOverlay.offer(com.ceke.multiplayer.core.client.ui.JoinOverlayManager::deactivate);
+        });
+        d.on(PacketHeartbeat.class, (c, hb) -> {
+            if (!hb.echo) {
+                hb.echo = true;
+                c.sendTCP(hb);
+                return;
+            }
+            long now = CursorSyncManager.nowMs();
+            latency.record(now - hb.sentMs, now);
+        });
+        d.on(PacketTimeSync.class, (c, ts) -> ClockSync.host().onReply(ts, CursorSyncManager.nowMs()));
+        d.on(PacketInputFrame.class, (c, frame) -> LockstepScheduler.onFrame(frame));
+        d.on(PacketInputResult.class, this::onInputResult);
+        d.on(PacketGameState.class, (c, state) -> {
+            // Only the newest state is applied: the host deltas against acked ticks only
+            pendingState.offer(state);
+        });
+        d.on(PacketUdpProbe.class, (c, probe) -> {
+            UnreliableChannel channel = cursorChannel;
+            if (channel != null)
+                channel.onProbe(probe);
+        });
+        d.on(PacketMousePos.class, (c, mp) -> {
+            UnreliableChannel channel = cursorChannel;
+            if (mp.playerId == localPlayerId)
+                return; // our own cursor, never echoed back but be safe
+            if (channel != null && !channel.accept(mp))
+                return; // stale or reordered datagram
+            // Host or another client moved its cursor — render it on our screen
+            CursorSyncManager.onRemoteCursor(mp);
+            LOG.fine("[GameClient] Received cursor of player " + mp.playerId + ": x=" + mp.x + ", y=" + mp.y);
+        });
+        d.on(PacketChat.class, (c, chat) -> {
+            LOG.info("[GameClient] Chat from '" + chat.senderName + "': " + chat.message);
+            // TODO: display in in-game chat overlay
+        });
+        return d;
+    }
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketOverlayClear) {
-                    LOG.info("[GameClient] Server cleared join overlay.");
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.deactivate();
-                }
+    private void onHandshake(Connection connection, PacketHandshake hs) {
+        if (!PacketRegistry.VERSION.equals(hs.modVersion)) {
+            LOG.severe("[GameClient] Host runs mod v" + hs.modVersion + ", we run v" + PacketRegistry.VERSION
+                    + ". Both players need the same version.");
+            versionMismatch = true;
+            connection.close();
+            return;
+        }
+        LOG.info("[GameClient] Received handshake back from host. Active mod: " + hs.activeMod
+                + ", player ID: " + hs.playerId);
+        localPlayerId = hs.playerId;
+        failedDownloads = 0;
+        LockstepScheduler.reset();
+        if (hs.activeMod != null && hs.activeMod.equals("Co-op")) {
+            com.ceke.multiplayer.core.server.ModLoader
+                    .setActiveMod(new com.ceke.multiplayer.core.client.gamemods.coop.CoopGameMod());
+            LOG.info("[GameClient] Initialized " + hs.activeMod + " mod from host's handshake.");
+        }
+        LockstepScheduler.followHost(hs.lockstep, hs.inputDelay); // after the mod: it checks its applier
+        hostSaveHash = hs.saveHash;
+        if (hs.saveHash != null) {
+            if (java.util.Arrays.asList(offeredSaves).contains(hs.saveHash))
+                loadCachedWorld(hs.saveHash);
+            else
+                requestWorld(true);
+        }
+    }
 
-                // Temporary logging of input loopback (to verify it works)
-                if (object instanceof PacketPlayerInput) {
-                    // This means the host echoed an input to us, or we are the host.
-                }
+    private void onInputResult(Connection connection, PacketInputResult result) {
+        for (int i = 0; i < result.seqs.length; i++) {
+            if (!PacketInputResult.isAccepted(result.codes[i]))
+                LOG.info("[GameClient] Host rejected input #" + result.seqs[i] + " (code " + result.codes[i] + ")");
+        }
+    }
 
-                if (object instanceof PacketGameState state) {
-                    // TODO: deserialize state.data and reconcile with local game
-                    LOG.fine("[GameClient] Received tick #" + state.tick);
-                }
+    /** Game thread: applies the newest received state and acknowledges it. */
+    private void applyState(PacketGameState state) {
+        long ackTick = WorldStateReplicator.applyPacket(state);
+        client.sendTCP(new PacketGameStateAck(ackTick));
+        LOG.fine("[GameClient] Applied tick #" + state.tick + " (base #" + state.baseTick + ")");
+    }
 
-                if (object instanceof PacketMousePos mp) {
-                    // Host sent its cursor — render it on our screen
-                    CursorSyncManager.setRemoteCursor(mp.x, mp.y);
-                    LOG.fine("[GameClient] Received Host Cursor: x=" + mp.x + ", y=" + mp.y);
-                }
+    private void onWorldLoad(Connection connection, PacketWorldLoad pwl) {
+        if (pwl.isStreamed()) {
+            LOG.info("[GameClient] Receiving world save (" + pwl.totalBytes + " bytes in "
+                    + pwl.chunkCount + " chunks).");
+            sendProgress("Downloading world...", 0.10f);
+            SaveTransferReceiver previous = worldDownload;
+            worldDownload = null;
+            if (previous != null)
+                previous.abort();
+            startWorldDownload(pwl);
+        } else {
+            LOG.info("[GameClient] Host started a new game. Loading empty world.");
+            sendProgress("Creating world...", 0.10f);
+            menu.ScMainBridge.clientLoadSave("");
+        }
+    }
 
-                if (object instanceof PacketChat chat) {
-                    LOG.info("[GameClient] Chat from '" + chat.senderName + "': " + chat.message);
-                    // TODO: display in in-game chat overlay
-                }
-            }
-        });
+    /** Per-packet-type receive counters and handler times. */
+    public PacketDispatcher getDispatcher() {
+        return dispatcher;
     }
 
     public boolean isConnected() {
         return connected;
     }
 
+    /** Our player ID in the host's session (host is 0), or -1 before the handshake. */
+    public int getLocalPlayerId() {
+        return localPlayerId;
+    }
+
+    /** Latest heartbeat round trip in ms (0 before the first). */
     public int getPing() {
-        return client.getReturnTripTime();
+        return (int) Math.max(0, latency.lastMs());
+    }
+
+    /** Round trips of our heartbeats to the host. */
+    public LatencyHistogram getLatency() {
+        return latency;
     }
 }
@@ -0,0 +1,96 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   HandshakeSerializer.java                                               */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:59:43 by ceketrum                               */
+/*   Updated: 2026/10/17 22:59:43 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketHandshake;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo encoding of {@link PacketHandshake} that stays readable across
+ * protocol versions.
+ *
+ * <h3>Layout</h3>
+ * activeMod, modVersion and playerName as strings, in the order the default
+ * field serializer of the 1.0.0 packet wrote them. Then the fields added
+ * since: saveHash, cachedSaves (count + 1 as a varint, 0 = null, then the
+ * strings), playerId, lockstep and inputDelay.
+ *
+ * The reader only trusts the fields after the first three when the peer
+ * runs {@link PacketRegistry#VERSION}; otherwise it skips the rest of the
+ * frame. Either way the peer's version reaches the handlers, which turn a
+ * mismatch away instead of failing on the first packet whose layout moved.
+ */
+public final class HandshakeSerializer extends Serializer<PacketHandshake> {
+
+    /** Refuse longer cached-save lists when reading (the cache keeps a handful). */
+    private static final int MAX_CACHED = 1024;
+
+    @Override
+    public void write(Kryo kryo, Output out, PacketHandshake hs) {
+        out.writeString(hs.activeMod);
+        out.writeString(hs.modVersion);
+        out.writeString(hs.playerName);
+
+        out.writeString(hs.saveHash);
+        if (hs.cachedSaves == null) {
+            out.writeVarInt(0, true);
+        } else {
+            out.writeVarInt(hs.cachedSaves.length + 1, true);
+            for (String hash : hs.cachedSaves)
+                out.writeString(hash);
+        }
+        out.writeVarInt(hs.playerId, true);
+        out.writeBoolean(hs.lockstep);
+        out.writeVarInt(hs.inputDelay, true);
+    }
+
+    @Override
+    public PacketHandshake read(Kryo kryo, Input in, Class<PacketHandshake> type) {
+        PacketHandshake hs = new PacketHandshake();
+        hs.activeMod = in.readString();
+        hs.modVersion = in.readString();
+        hs.playerName = in.readString();
+
+        if (!PacketRegistry.VERSION.equals(hs.modVersion)) {
+            // Unknown layout: KryoNet insists the whole frame is consumed
+            while (!in.eof())
+                in.readByte();
+            return hs;
+        }
+
+        hs.saveHash = in.readString();
+        int count = in.readVarInt(true);
+        if (count > MAX_CACHED + 1)
+            throw new KryoException("Too many cached saves: " + (count - 1));
+        if (count > 0) {
+            hs.cachedSaves = new String[count - 1];
+            for (int i = 0; i < hs.cachedSaves.length; i++)
+                hs.cachedSaves[i] = in.readString();
+        }
+        hs.playerId = in.readVarInt(true);
+        hs.lockstep = in.readBoolean();
+        hs.inputDelay = in.readVarInt(true);
+        return hs;
+    }
+}
@@ -13,22 +13,35 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:06:06 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.server.network;
 
+import com.ceke.multiplayer.core.server.GameThreadQueue;
 import com.ceke.multiplayer.core.server.network.packets.*;
+import com.ceke.multiplayer.core.server.sync.CursorPublisher;
 import com.ceke.multiplayer.core.server.sync.CursorSyncManager;
+import com.ceke.multiplayer.core.server.sync.InputPipeline;
+import com.ceke.multiplayer.core.server.sync.LockstepScheduler;
+import com.ceke.multiplayer.core.server.sync.ResourceReplicator;
+import com.ceke.multiplayer.core.server.sync.WorldSnapshot;
+import com.ceke.multiplayer.core.server.sync.WorldStateReplicator;
 import com.esotericsoftware.kryonet.Connection;
 import com.esotericsoftware.kryonet.Listener;
 import com.esotericsoftware.kryonet.Server;
 
 import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,7 +55,10 @@ import java.util.logging.Logger;
  * - Client inputs (received via listeners) are queued and processed at tick
  * time.
  *
- * Two players maximum are supported in this first version.
+ * Each connected client is a {@link PlayerSession} and packets fan out to all
+ * of them. A session holds up to the active mod's {@code getMaxPlayers()}
+ * players, host included (8 for co-op), unless {@link #setMaxPlayers} or
+ * {@code -Dceke.mp.maxPlayers} says otherwise.
  */
 public final class HostServer {
 
@@ -51,29 +67,80 @@ public final class HostServer {
     /** Network port both TCP and UDP. */
     public static final int PORT = 26565;
 
+    /** TCP port of the zero-copy bulk save channel. */
+    public static final int BULK_PORT = PORT + 1;
+
     /** Tick rate in Hz (20 ticks/s, same order of magnitude as Minecraft). */
     private static final int TICK_RATE_HZ = 20;
 
-    /** Maximum clients allowed (co-op 2-player). */
-    private static final int MAX_CLIENTS = 1; // host + 1 client = 2 players
+    /** Ticks between two latency heartbeats to each client. */
+    private static final long HEARTBEAT_TICKS = Math.max(1,
+            LatencyHistogram.HEARTBEAT_INTERVAL_MS * TICK_RATE_HZ / 1000);
 
-    /** Allow up to 10MB for transferring the zipped save game */
-    private static final int WRITE_BUFFER = 10_000_000;
-    private static final int OBJECT_BUFFER = 10_000_000;
+    /**
+     * Players (host included) allowed when neither {@link #setMaxPlayers}, the
+     * active mod nor {@code -Dceke.mp.maxPlayers} says otherwise.
+     */
+    private static final int DEFAULT_MAX_PLAYERS = 2;
+
+    /**
+     * KryoNet allocates both per connection. The write buffer only ever holds
+     * a few bundles plus one bulk chunk (see {@link OutboundBatcher}); the
+     * largest object received is a {@link PacketWorldRequest} with block
+     * signatures (see {@link GameClient#MAX_SIGNATURE_BLOCKS}).
+     */
+    private static final int WRITE_BUFFER = 512 * 1024;
+    private static final int OBJECT_BUFFER = 1024 * 1024;
 
     private final Server server;
     private final ScheduledExecutorService tickExecutor;
 
+    /** Rate / dead-band control of the host cursor; used on the tick thread only. */
+    private final CursorPublisher cursorPublisher = new CursorPublisher();
+
+    /** Side channel for save files; null if its port could not be bound. */
+    private BulkTransferServer bulkServer;
+
     private volatile long tickCounter = 0;
+
+    /** Current tick and the time it started ({@link CursorSyncManager#nowMs()}), read together. */
+    private volatile long[] tickRef = { 0, 0 };
+
+    /**
+     * Host tick of the last applied speed change; older ones lose. Written
+     * from the game and network threads, and only ever moves forward.
+     */
+    private final AtomicLong lastSpeedTick = new AtomicLong(-1);
     private volatile boolean running = false;
 
-    // Shared cursor position of the connected client (updated by listener)
-    private volatile float clientCursorX = 0f;
-    private volatile float clientCursorY = 0f;
+    /** Clients accepted besides the host; see {@link #setMaxPlayers}. */
+    private volatile int maxClients = -1;
 
     /** The save this host is running — sent to joining clients. */
     private String saveName = "";
 
+    /** Every connected client, keyed by player (= connection) ID. */
+    private final Map<Integer, PlayerSession> players = new ConcurrentHashMap<>();
+
+    // Join overlay updates for the game thread: only the newest of each is applied
+    private final GameThreadQueue.Latest<Runnable> pendingOverlay = new GameThreadQueue.Latest<>(Runnable::run);
+    private final GameThreadQueue.Latest<PacketJoinProgress> pendingProgress = new GameThreadQueue.Latest<>(
+            p -> com.ceke.multiplayer.core.client.ui.JoinOverlayManager.updateProgress(p.statusText,
+                    p.progressPercent));
+
+    /** An {@link #applyInputs} pass is queued on the game thread. */
+    private final AtomicBoolean inputBatchPosted = new AtomicBoolean();
+
+    /** State frames encoded during the current tick, by packet (tick thread only). */
+    private final Map<PacketGameState, OutboundBatcher.Frame> tickFrames = new IdentityHashMap<>();
+
+    /** Streamed world transfers in progress, keyed by connection ID. */
+    private final Map<Integer, SaveTransferSender> transfers = new ConcurrentHashMap<>();
+    private final AtomicInteger transferIds = new AtomicInteger();
+
+    /** Routes every received packet to its handler below. */
+    private final PacketDispatcher dispatcher = createDispatcher();
+
     public HostServer() {
         server = new Server(WRITE_BUFFER, OBJECT_BUFFER);
         PacketRegistry.register(server);
@@ -91,12 +158,34 @@ public final class HostServer {
     public void start() throws IOException {
         if (running)
             return;
+        WorldStateReplicator.resetHost();
+        ResourceReplicator.resetHost();
+        LockstepScheduler.reset();
+        LockstepScheduler.useLocalSettings(); // not whatever the last joined host used
+        InputPipeline.reset();
+        SavePreparer.clear();
+        if (maxClients < 0) {
+            com.ceke.multiplayer.core.server.GameMod mod = com.ceke.multiplayer.core.server.ModLoader.getActiveMod();
+            setMaxPlayers(Integer.getInteger("ceke.mp.maxPlayers",
+                    mod != null ? mod.getMaxPlayers() : DEFAULT_MAX_PLAYERS));
+        }
         server.start();
         server.bind(PORT, PORT); // same port for TCP and UDP
         registerListeners();
+        try {
+            bulkServer = new BulkTransferServer(BULK_PORT);
+            bulkServer.start();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[HostServer] Bulk channel unavailable, saves will be streamed over KryoNet", e);
+            bulkServer = null;
+        }
         tickExecutor.scheduleAtFixedRate(this::tick, 0, 1000L / TICK_RATE_HZ, TimeUnit.MILLISECONDS);
+        cursorPublisher.reset();
+        tickExecutor.scheduleAtFixedRate(this::publishCursor,
+                0, CursorPublisher.POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
         running = true;
-        LOG.info("[HostServer] Listening on port " + PORT + ", save='" + saveName + "'");
+        LOG.info("[HostServer] Listening on port " + PORT + ", save='" + saveName + "', up to "
+                + (maxClients + 1) + " players");
     }
 
     /** Sets the save to advertise to clients — call before start(). */
@@ -111,6 +200,20 @@ public final class HostServer {
         running = false;
         tickExecutor.shutdownNow();
         server.stop();
+        transfers.values().forEach(this::closeTransfer);
+        transfers.clear();
+        players.values().forEach(PlayerSession::close);
+        players.clear();
+        if (bulkServer != null) {
+            bulkServer.stop();
+            bulkServer = null;
+        }
+        WorldStateReplicator.resetHost();
+        ResourceReplicator.resetHost();
+        LockstepScheduler.reset();
+        InputPipeline.reset();
+        SavePreparer.clear();
+        dispatcher.logStats(Level.FINE);
         LOG.info("[HostServer] Stopped.");
     }
 
@@ -118,20 +221,67 @@ public final class HostServer {
     // Tick loop — runs on the dedicated tick thread
     // -----------------------------------------------------------------------
 
+    /**
+     * Polls the host cursor and sends it to all clients (UDP where it works,
+     * else TCP) when the publisher decides it moved enough.
+     */
+    private void publishCursor() {
+        try {
+            PacketMousePos hostCursor = cursorPublisher.poll(CursorSyncManager.nowMs(),
+                    CursorSyncManager.getLocalX(), CursorSyncManager.getLocalY());
+            if (hostCursor == null)
+                return;
+            hostCursor.playerId = PlayerSession.HOST_ID;
+            UnreliableChannel.stamp(hostCursor);
+            for (PlayerSession player : players.values())
+                player.cursorChannel().send(hostCursor);
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "[HostServer] Cursor send failed", e);
+        }
+    }
+
     private void tick() {
         try {
             tickCounter++;
+            tickRef = new long[] { tickCounter, CursorSyncManager.nowMs() };
+
+            if (LockstepScheduler.isEnabled()) {
+                // 1-2. Lockstep: ship this turn's inputs instead of world state
+                queueToAll(LockstepScheduler.closeTurn(tickCounter));
+            } else {
+                // 1. Freeze the replicated state captured on the game thread
+                WorldSnapshot snapshot = WorldStateReplicator.snapshot(tickCounter);
+
+                // 2. Queue each client a delta against the last snapshot it acknowledged
+                //    (clients on the same baseline share one packet, serialized once)
+                tickFrames.clear();
+                for (PlayerSession player : players.values()) {
+                    PacketGameState state = WorldStateReplicator.buildPacket(player.getPlayerId(), snapshot);
+                    player.out().queue(tickFrames.computeIfAbsent(state, OutboundBatcher::encode));
+                }
+            }
 
-            // 1. Build a state snapshot (stub: empty data for now)
-            byte[] stateData = new byte[0]; // TODO: serialize game delta here
-            PacketGameState statePacket = new PacketGameState(tickCounter, stateData);
+            // 2b. Client inputs: one game-thread pass per tick, however many arrived
+            if (InputPipeline.hasPending() && inputBatchPosted.compareAndSet(false, true)) {
+                long tick = tickCounter;
+                if (!GameThreadQueue.post(() -> applyInputs(tick)))
+                    inputBatchPosted.set(false);
+            }
+
+            // 3. Keep the UDP probes of the cursor channels going
+            long now = System.currentTimeMillis();
+            for (PlayerSession player : players.values())
+                player.cursorChannel().tick(now);
 
-            // 2. Broadcast to all connected clients
-            server.sendToAllTCP(statePacket);
+            // 3b. Latency heartbeats, sent directly so batching does not count as latency
+            if (tickCounter % HEARTBEAT_TICKS == 0) {
+                for (PlayerSession player : players.values())
+                    player.getConnection().sendTCP(new PacketHeartbeat(CursorSyncManager.nowMs()));
+            }
 
-            // 3. Send our cursor position to all clients
-            PacketMousePos hostCursor = CursorSyncManager.getLocalCursorPacket();
-            server.sendToAllTCP(hostCursor); // Changed to TCP to ensure delivery and bypass local UDP issues
+            // 4. One write per client for everything queued since the last flush
+            for (PlayerSession player : players.values())
+                player.out().flush();
 
         } catch (Exception e) {
             LOG.log(Level.WARNING, "[HostServer] Exception in tick #" + tickCounter, e);
@@ -143,22 +293,173 @@ public final class HostServer {
     // -----------------------------------------------------------------------
 
     /**
-     * Broadcasts a speed change to all connected clients.
-     * Called by the local TimeSyncRule when the host player changes the speed.
+     * Lockstep: queues an input of the host player for the next frame.
+     * Safe to call from any thread.
+     *
+     * @return false (input ignored) when the host is not running lockstep
+     */
+    public boolean submitHostInput(PacketPlayerInput input) {
+        if (!running || !LockstepScheduler.isEnabled())
+            return false;
+        LockstepScheduler.submit(PlayerSession.HOST_ID, input);
+        return true;
+    }
+
+    /**
+     * Broadcasts a speed change to all connected clients. Called by the
+     * local TimeSyncRule when the host player changes the speed, and by the
+     * mod's input applier once it applied a client's change.
      */
     public void broadcastSpeedChange(com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange sc) {
         if (!running)
             return;
-        server.sendToAllTCP(sc);
+        sc.hostTick = tickCounter;
+        lastSpeedTick.accumulateAndGet(sc.hostTick, Math::max);
+        queueToAll(sc);
     }
 
     /**
-     * Broadcasts the exact host resource tallies to all connected clients.
+     * Claims the speed change a client made at {@code hostTick} (its
+     * {@link com.ceke.multiplayer.core.server.sync.ClockSync} estimate of the
+     * host tick, -1 if unknown) before it is applied. A change made before the
+     * last applied one lost the race: the client is put back on the current
+     * speed and false is returned. Check and update are one CAS, so a
+     * concurrent change cannot slip in between.
      */
-    public void broadcastResourceSync(com.ceke.multiplayer.core.server.network.packets.PacketSyncResources pkt) {
-        if (!running)
+    public boolean claimSpeedChange(int playerId, long hostTick) {
+        long stamp = hostTick >= 0 ? hostTick : tickCounter;
+        long last;
+        do {
+            last = lastSpeedTick.get();
+            if (hostTick >= 0 && hostTick < last) {
+                LOG.info("[HostServer] Stale speed change from player " + playerId + " (tick " + hostTick + " < "
+                        + last + "), resending current speed.");
+                PlayerSession player = players.get(playerId);
+                int speed = com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule.getLastKnownSpeed();
+                if (player != null && speed >= 0) {
+                    PacketSpeedChange current = new PacketSpeedChange(speed);
+                    current.hostTick = last;
+                    player.out().queue(current);
+                }
+                return false;
+            }
+        } while (!lastSpeedTick.compareAndSet(last, Math.max(last, stamp)));
+        return true;
+    }
+
+    /**
+     * Sends the exact host resource tallies to all connected clients: each
+     * client gets the slots that changed since the version it was last sent
+     * (see {@link ResourceReplicator}). Clients on the same version share one
+     * serialized packet. Clients that just joined or asked for a resync are
+     * served even while the tallies stay the same. Call on the game thread.
+     */
+    public void syncResources(PacketSyncResources pkt) {
+        if (!running || LockstepScheduler.isEnabled())
+            return;
+        ResourceReplicator.publish(pkt.toArrays());
+        Map<Object, OutboundBatcher.Frame> frames = new IdentityHashMap<>();
+        for (PlayerSession player : players.values()) {
+            Object update = ResourceReplicator.buildPacket(player.getPlayerId());
+            if (update != null)
+                player.out().queue(frames.computeIfAbsent(update, OutboundBatcher::encode));
+        }
+    }
+
+    /**
+     * Queues a reliable packet for every client. The packet is serialized
+     * once and the same frame is queued on each {@link OutboundBatcher}.
+     */
+    private void queueToAll(Object packet) {
+        queueToAllExcept(-1, packet);
+    }
+
+    /** Queues a reliable packet for every client except one (relays). */
+    private void queueToAllExcept(int playerId, Object packet) {
+        OutboundBatcher.Frame frame = null;
+        for (PlayerSession player : players.values()) {
+            if (player.getPlayerId() == playerId)
+                continue;
+            if (frame == null)
+                frame = OutboundBatcher.encode(packet);
+            player.out().queue(frame);
+        }
+    }
+
+    /**
+     * Sets how many players (host included) may be in the session. Defaults
+     * to the active mod's {@link com.ceke.multiplayer.core.server.GameMod#getMaxPlayers()}.
+     */
+    public void setMaxPlayers(int maxPlayers) {
+        this.maxClients = Math.max(0, maxPlayers - 1);
+    }
+
+    /** Connected clients (the host not included). */
+    public java.util.Collection<PlayerSession> getPlayers() {
+        return java.util.Collections.unmodifiableCollection(players.values());
+    }
+
+    /**
+     * Has {@link SavePreparer} compress the current save — or, when the client
+     * sent block signatures of an older copy, only the delta against it — and
+     * starts the transfer once it is ready. Never blocks the caller.
+     */
+    private void sendWorld(Connection connection, PacketWorldRequest request) {
+        if (saveName == null || saveName.trim().isEmpty())
+            return;
+        java.nio.file.Path p = init.paths.PATHS.local().save().get(saveName);
+        SavePreparer.prepare(p, request).whenComplete((prepared, error) -> {
+            if (error != null) {
+                LOG.log(Level.SEVERE, "[HostServer] Failed to compress save", error);
+                return;
+            }
+            if (!running || !connection.isConnected())
+                return;
+            try {
+                startWorldTransfer(connection, prepared);
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "[HostServer] Failed to start world transfer", e);
+            }
+        });
+    }
+
+    /**
+     * Starts a compressed save transfer to one client, replacing any transfer
+     * already running for that connection. The bulk channel is offered when
+     * available; otherwise (or if the client cannot reach it) the chunks the
+     * client is missing are streamed once it answers with
+     * {@link PacketWorldTransferStart}.
+     */
+    private void startWorldTransfer(Connection connection, SavePreparer.PreparedSave prepared) throws IOException {
+        PlayerSession player = players.get(connection.getID());
+        if (player == null)
+            return; // disconnected meanwhile
+        SaveTransferSender sender = new SaveTransferSender(player.out(), transferIds.incrementAndGet(), prepared);
+        SaveTransferSender previous = transfers.put(connection.getID(), sender);
+        if (previous != null)
+            closeTransfer(previous);
+
+        BulkTransferServer bulk = bulkServer;
+        if (bulk == null) {
+            sender.start();
             return;
-        server.sendToAllTCP(pkt);
+        }
+        // The offer holds its own reference: a fetch may outlive the sender
+        prepared.retain(); // cannot fail, the sender holds one
+        long token = bulk.offer(prepared.file, SaveTransferSender.CHUNK_SIZE, () -> {
+            LOG.info("[HostServer] Bulk transfer #" + sender.getTransferId() + " complete.");
+            if (transfers.remove(connection.getID(), sender))
+                sender.close();
+        }, prepared::release);
+        sender.start(bulk.getPort(), token);
+    }
+
+    /** Closes a transfer and withdraws its bulk offer, if any. */
+    private void closeTransfer(SaveTransferSender sender) {
+        BulkTransferServer bulk = bulkServer;
+        if (bulk != null && sender.getBulkToken() != 0L)
+            bulk.withdraw(sender.getBulkToken());
+        sender.close();
     }
 
     private void registerListeners() {
@@ -166,109 +467,282 @@ public final class HostServer {
 
             @Override
             public void connected(Connection connection) {
-                // Count OTHER connections (exclude the one just arriving)
-                int others = 0;
-                for (Connection c : server.getConnections()) {
-                    if (c.getID() != connection.getID())
-                        others++;
-                }
-                if (others >= MAX_CLIENTS) {
+                // Only accepted players count; rejected connections never get a session
+                if (players.size() >= maxClients) {
                     LOG.warning("[HostServer] Max clients reached, rejecting connection " + connection.getID());
                     connection.close();
                     return;
                 }
+                players.put(connection.getID(), new PlayerSession(connection, tickExecutor, WRITE_BUFFER));
                 LOG.info("[HostServer] Client connected: " + connection.getRemoteAddressTCP());
             }
 
             @Override
             public void disconnected(Connection connection) {
                 LOG.info("[HostServer] Client disconnected: " + connection.getID());
-                // Reset remote cursor
-                clientCursorX = 0f;
-                clientCursorY = 0f;
-                CursorSyncManager.setRemoteCursor(0f, 0f);
+                WorldStateReplicator.forget(connection.getID());
+                ResourceReplicator.forget(connection.getID());
+                InputPipeline.forget(connection.getID());
+                PlayerSession player = players.remove(connection.getID());
+                if (player != null)
+                    player.close();
+                SaveTransferSender transfer = transfers.remove(connection.getID());
+                if (transfer != null)
+                    closeTransfer(transfer);
+                // Forget its cursor here; the other clients time it out
+                CursorSyncManager.resetRemoteCursor(connection.getID());
             }
 
             @Override
             public void received(Connection connection, Object object) {
-                if (object instanceof PacketHandshake hs) {
-                    LOG.info("[HostServer] Handshake from '" + hs.playerName + "' v" + hs.modVersion);
-
-                    // Activate overlay locally and broadcast to other clients
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.activate(hs.playerName);
-                    server.sendToAllExceptTCP(connection.getID(),
-                            new com.ceke.multiplayer.core.server.network.packets.PacketJoinStarted(hs.playerName));
-
-                    // We respond by sending a handshake back with the server's active mod
-                    com.ceke.multiplayer.core.server.GameMod activeMod = com.ceke.multiplayer.core.server.ModLoader
-                            .getActiveMod();
-                    String modName = activeMod != null ? activeMod.getName() : "";
-                    connection.sendTCP(new PacketHandshake("Host", "1.0.0", modName));
-
-                    if (saveName == null || saveName.trim().isEmpty()) {
-                        // New game: send empty bytes
-                        connection.sendTCP(new PacketWorldLoad(new byte[0]));
-                        LOG.info("[HostServer] Sent empty PacketWorldLoad (new game) to client.");
-                    } else {
-                        try {
-                            java.nio.file.Path p = init.paths.PATHS.local().save().get(saveName);
-                            byte[] zipBytes = com.ceke.multiplayer.core.server.sync.SaveSyncManager.zipSaveFile(p);
-                            connection.sendTCP(new PacketWorldLoad(zipBytes));
-                            LOG.info("[HostServer] Sent PacketWorldLoad (" + zipBytes.length + " bytes) to client.");
-                        } catch (IOException e) {
-                            LOG.log(Level.SEVERE, "[HostServer] Failed to zip save directory", e);
-                        }
-                    }
-                }
+                dispatcher.dispatch(connection, object);
+            }
 
-                if (object instanceof PacketMousePos mp) {
-                    clientCursorX = mp.x;
-                    clientCursorY = mp.y;
-                    CursorSyncManager.setRemoteCursor(mp.x, mp.y);
-                }
+            @Override
+            public void idle(Connection connection) {
+                // Write buffer drained: refill bulk only. KryoNet calls this on every update
+                // pass, so flushing the other classes here would defeat the batching deadline.
+                PlayerSession player = players.get(connection.getID());
+                if (player != null)
+                    player.out().flushBulk();
+            }
+        });
+    }
 
-                if (object instanceof PacketPlayerInput input) {
-                    // TODO: validate & apply input to the authoritative game state
-                    LOG.fine("[HostServer] Input type=" + input.type
-                            + " at tile (" + input.tileX + "," + input.tileY + ")");
-                }
+    // -----------------------------------------------------------------------
+    // Packet handlers — run on the KryoNet update thread
+    // -----------------------------------------------------------------------
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketJoinProgress jp) {
-                    // The joining client reports its own progress — relay to all waiting players.
-                    // Also update the host's own overlay (host shows the join overlay too).
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.updateProgress(jp.statusText,
-                            jp.progressPercent);
-                    server.sendToAllExceptTCP(connection.getID(), jp);
-                    LOG.fine("[HostServer] Relayed progress '" + jp.statusText + "' ("
-                            + (int) (jp.progressPercent * 100) + "%) to other clients.");
-                }
+    private PacketDispatcher createDispatcher() {
+        PacketDispatcher d = new PacketDispatcher("HostServer");
+        d.on(PacketBundle.class, (c, bundle) -> OutboundBatcher.unpack(bundle, p -> d.dispatch(c, p)));
+        d.on(PacketHandshake.class, this::onHandshake);
+        d.on(PacketWorldRequest.class, this::sendWorld);
+        d.on(PacketGameStateAck.class, (c, ack) -> WorldStateReplicator.acknowledge(c.getID(), ack.tick));
+        d.on(PacketResourceResync.class, (c, r) -> ResourceReplicator.requestFull(c.getID()));
+        d.on(PacketWorldTransferStart.class, this::onWorldTransferStart);
+        d.on(PacketWorldChunkAck.class, this::onWorldChunkAck);
+        d.on(PacketUdpProbe.class, this::onUdpProbe);
+        d.on(PacketHeartbeat.class, this::onHeartbeat);
+        d.on(PacketTimeSync.class, this::onTimeSync);
+        d.on(PacketMousePos.class, this::onMousePos);
+        d.on(PacketPlayerInput.class, this::onPlayerInput);
+        d.on(PacketJoinProgress.class, this::onJoinProgress);
+        d.on(PacketJoinFinished.class, this::onJoinFinished);
+        d.on(PacketChat.class, this::onChat);
+        return d;
+    }
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketJoinFinished) {
-                    LOG.info("[HostServer] Client finished loading map. Clearing overlay.");
-                    com.ceke.multiplayer.core.client.ui.JoinOverlayManager.deactivate();
-                    server.sendToAllTCP(new com.ceke.multiplayer.core.server.network.packets.PacketOverlayClear());
-                }
+    private void onHandshake(Connection connection, PacketHandshake hs) {
+        LOG.info("[HostServer] Handshake from '" + hs.playerName + "' v" + hs.modVersion);
+        if (!PacketRegistry.VERSION.equals(hs.modVersion)) {
+            // Packet IDs and layouts differ between versions: refuse before anything else is sent
+            LOG.warning("[HostServer] Rejecting '" + hs.playerName + "': mod v" + hs.modVersion
+                    + ", host runs v" + PacketRegistry.VERSION);
+            connection.sendTCP(new PacketHandshake("Host", PacketRegistry.VERSION, null));
+            connection.close();
+            return;
+        }
 
-                if (object instanceof com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange sc) {
-                    // A client changed speed → apply locally and relay to all other clients
-                    com.ceke.multiplayer.core.client.gamemods.coop.rules.TimeSyncRule.applyRemoteSpeed(sc.speed);
-                    server.sendToAllExceptTCP(connection.getID(), sc);
-                    LOG.info("[HostServer] Speed change from client: " + sc.speed);
-                }
+        // Activate overlay locally and broadcast to other clients
+        int playerId = connection.getID();
+        PlayerSession player = players.get(playerId);
+        if (player != null)
+            player.setName(hs.playerName);
+        pendingOverlay.offer(() -> com.ceke.multiplayer.core.client.ui.JoinOverlayManager.activate(hs.playerName));
+        queueToAllExcept(playerId, new PacketJoinStarted(playerId, hs.playerName));
+
+        // We respond by sending a handshake back with the server's active mod
+        com.ceke.multiplayer.core.server.GameMod activeMod = com.ceke.multiplayer.core.server.ModLoader
+                .getActiveMod();
+        String modName = activeMod != null ? activeMod.getName() : "";
+        boolean newGame = saveName == null || saveName.trim().isEmpty();
+
+        if (newGame) {
+            PacketHandshake reply = new PacketHandshake("Host", PacketRegistry.VERSION, modName);
+            reply.playerId = playerId;
+            reply.lockstep = LockstepScheduler.isEnabled();
+            reply.inputDelay = LockstepScheduler.getInputDelay();
+            connection.sendTCP(reply);
+            // New game: send empty bytes
+            connection.sendTCP(new PacketWorldLoad(new byte[0]));
+            LOG.info("[HostServer] Sent empty PacketWorldLoad (new game) to client.");
+            return;
+        }
 
-                if (object instanceof PacketChat chat) {
-                    LOG.info("[HostServer] Chat from '" + chat.senderName + "': " + chat.message);
-                    // Relay chat to all other clients
-                    for (Connection c : server.getConnections()) {
-                        if (c.getID() != connection.getID()) {
-                            c.sendTCP(chat);
-                        }
-                    }
-                }
+        java.nio.file.Path p = init.paths.PATHS.local().save().get(saveName);
+        boolean hasCache = hs.cachedSaves != null && hs.cachedSaves.length > 0;
+        if (!hasCache)
+            SavePreparer.prepare(p, null); // it will ask for the full save: start compressing now
+
+        // Name our save so a client that already has it can skip the transfer.
+        // Hashing runs off the network thread; the reply goes out once it is done.
+        SavePreparer.hash(p).whenComplete((hash, error) -> {
+            if (error != null)
+                LOG.log(Level.WARNING, "[HostServer] Failed to hash save, client cache disabled", error);
+            PacketHandshake reply = new PacketHandshake("Host", PacketRegistry.VERSION, modName);
+            reply.saveHash = hash;
+            reply.playerId = playerId;
+            reply.lockstep = LockstepScheduler.isEnabled();
+            reply.inputDelay = LockstepScheduler.getInputDelay();
+            connection.sendTCP(reply);
+
+            if (hash == null) {
+                // Without a hash the client cannot request a delta: push the full save now
+                sendWorld(connection, new PacketWorldRequest(null));
+            } else if (hasCache && java.util.Arrays.asList(hs.cachedSaves).contains(hash)) {
+                LOG.info("[HostServer] Client already has save " + hash + ", skipping world transfer.");
             }
+            // Otherwise the client answers with a PacketWorldRequest
         });
     }
 
+    private void onWorldTransferStart(Connection connection, PacketWorldTransferStart start) {
+        SaveTransferSender sender = transfers.get(connection.getID());
+        if (sender == null || sender.getTransferId() != start.transferId)
+            return;
+        if (bulkServer != null)
+            bulkServer.withdraw(sender.getBulkToken());
+        try {
+            if (sender.beginStreaming(start.transferId, start.haveChunks))
+                transfers.remove(connection.getID(), sender);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "[HostServer] World transfer failed", e);
+            closeTransfer(sender);
+            transfers.remove(connection.getID(), sender);
+        }
+    }
+
+    private void onWorldChunkAck(Connection connection, PacketWorldChunkAck ack) {
+        SaveTransferSender sender = transfers.get(connection.getID());
+        if (sender == null)
+            return;
+        try {
+            if (sender.onAck(ack.transferId, ack.received))
+                transfers.remove(connection.getID(), sender);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "[HostServer] World transfer failed", e);
+            closeTransfer(sender);
+            transfers.remove(connection.getID(), sender);
+        }
+    }
+
+    private void onUdpProbe(Connection connection, PacketUdpProbe probe) {
+        PlayerSession player = players.get(connection.getID());
+        if (player != null)
+            player.cursorChannel().onProbe(probe);
+    }
+
+    private void onHeartbeat(Connection connection, PacketHeartbeat hb) {
+        if (!hb.echo) {
+            hb.echo = true;
+            connection.sendTCP(hb);
+            return;
+        }
+        PlayerSession player = players.get(connection.getID());
+        if (player != null) {
+            long now = CursorSyncManager.nowMs();
+            player.latency().record(now - hb.sentMs, now);
+        }
+    }
+
+    private void onMousePos(Connection connection, PacketMousePos mp) {
+        PlayerSession player = players.get(connection.getID());
+        if (player == null)
+            return;
+        mp.playerId = player.getPlayerId(); // never trust the sender's claim
+        if (!player.cursorChannel().accept(mp))
+            return; // stale or reordered datagram
+        player.setCursor(mp.x, mp.y);
+
+        // Relayed cursors carry host-clock times (see ClockSync), or none while the sender is unsynced
+        if (mp.time != 0)
+            mp.time = player.clock().isSynced() ? player.clock().toLocalTime(mp.time) : 0;
+        CursorSyncManager.onRemoteCursor(mp);
+
+        // Relay to the other clients; each channel keeps its own sequence per player
+        for (PlayerSession other : players.values()) {
+            if (other != player)
+                other.cursorChannel().send(mp);
+        }
+    }
+
+    private void onTimeSync(Connection connection, PacketTimeSync ts) {
+        long received = CursorSyncManager.nowMs();
+        PlayerSession player = players.get(connection.getID());
+        if (player == null)
+            return;
+        player.clock().setReported(ts);
+
+        long[] ref = tickRef;
+        ts.hostReceiveMs = received;
+        ts.hostTick = ref[0];
+        ts.hostTickMs = ref[1];
+        ts.tickPeriodMs = 1000 / TICK_RATE_HZ;
+        ts.hostSendMs = CursorSyncManager.nowMs();
+        // Straight back, not batched: the timestamps are only as good as the send
+        try {
+            if (player.cursorChannel().isUdpUp())
+                connection.sendUDP(ts);
+            else
+                connection.sendTCP(ts);
+        } catch (IllegalStateException e) {
+            connection.sendTCP(ts);
+        }
+    }
+
+    private void onPlayerInput(Connection connection, PacketPlayerInput input) {
+        if (LockstepScheduler.isEnabled()) {
+            LockstepScheduler.submit(connection.getID(), input);
+            return;
+        }
+        // Authoritative: queue it for the next per-tick batch on the game thread (see tick())
+        if (!InputPipeline.submit(connection.getID(), input)) {
+            PlayerSession player = players.get(connection.getID());
+            if (player != null)
+                player.out().queue(new PacketInputResult(new int[] { input.seq },
+                        new byte[] { PacketInputResult.REJECTED_RATE }));
+        }
+    }
+
+    /** Game thread: applies the inputs queued since the last tick and answers each player. */
+    private void applyInputs(long tick) {
+        inputBatchPosted.set(false);
+        for (Map.Entry<Integer, PacketInputResult> e : InputPipeline.applyPending(tick).entrySet()) {
+            PlayerSession player = players.get(e.getKey());
+            if (player != null)
+                player.out().queue(e.getValue());
+        }
+    }
+
+    private void onJoinProgress(Connection connection, PacketJoinProgress jp) {
+        // The joining client reports its own progress — relay to all waiting players.
+        // Also update the host's own overlay (host shows the join overlay too).
+        pendingProgress.offer(jp);
+        jp.playerId = connection.getID();
+        queueToAllExcept(connection.getID(), jp);
+        LOG.fine("[HostServer] Relayed progress '" + jp.statusText + "' ("
+                + (int) (jp.progressPercent * 100) + "%) to other clients.");
+    }
+
+    private void onJoinFinished(Connection connection, PacketJoinFinished finished) {
+        LOG.info("[HostServer] Client finished loading map. Clearing overlay.");
+        pendingOverlay.offer(com.ceke.multiplayer.core.client.ui.JoinOverlayManager::deactivate);
+        queueToAll(new PacketOverlayClear());
+    }
+
+    private void onChat(Connection connection, PacketChat chat) {
+        LOG.info("[HostServer] Chat from '" + chat.senderName + "': " + chat.message);
+        // Relay chat to all other clients
+        chat.playerId = connection.getID();
+        queueToAllExcept(connection.getID(), chat);
+    }
+
+    /** Per-packet-type receive counters and handler times. */
+    public PacketDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -0,0 +1,197 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   LatencyHistogram.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:25:04 by ceketrum                               */
+/*   Updated: 2026/10/17 22:26:26 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Round-trip times of one connection, for the latency HUD.
+ *
+ * <h3>Buckets</h3>
+ * 1 ms wide up to 32 ms, then 16 per power of two (about 6% wide), up to
+ * 65 s. Percentiles report the top of their bucket (capped at the
+ * maximum), so they are never lower than the real value.
+ *
+ * <h3>Window</h3>
+ * Two generations of {@link #WINDOW_MS} each: samples go into the current
+ * one, and when it is full the older one is cleared and becomes current.
+ * {@link #snapshot()} covers both, i.e. the last one to two windows, so an
+ * old stutter stops weighing on the tail.
+ *
+ * Recording never locks: counts are atomic increments, and the
+ * generation switch is won by a single CAS. A sample racing the switch may
+ * be lost, which is fine for a display.
+ */
+public final class LatencyHistogram {
+
+    /** Time between two heartbeats sent on a connection. */
+    public static final long HEARTBEAT_INTERVAL_MS = 250;
+
+    /** Length of one generation. */
+    public static final long WINDOW_MS = 15_000;
+
+    private static final int LINEAR = 32;
+    private static final int SUB_BITS = 4;
+    private static final int MAX_EXP = 16;
+    private static final int BUCKETS = LINEAR + (MAX_EXP - 5) * (1 << SUB_BITS);
+
+    private final AtomicLongArray[] counts = { new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS) };
+    private final AtomicLong[] max = { new AtomicLong(), new AtomicLong() };
+    private final AtomicInteger current = new AtomicInteger();
+    private final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE);
+
+    /** Last sample, and RFC 3550 style jitter scaled by 16. */
+    private final AtomicLong last = new AtomicLong(-1);
+    private final AtomicLong jitter16 = new AtomicLong();
+
+    /** Adds one round trip of {@code rttMs} measured at {@code nowMs}. */
+    public void record(long rttMs, long nowMs) {
+        if (rttMs < 0)
+            return;
+        rotate(nowMs);
+        int gen = current.get();
+        counts[gen].incrementAndGet(bucketOf(rttMs));
+        max[gen].accumulateAndGet(rttMs, Math::max);
+
+        long prev = last.getAndSet(rttMs);
+        if (prev >= 0)
+            jitter16.accumulateAndGet(Math.abs(rttMs - prev), (j, d) -> j + d - (j >> 4));
+    }
+
+    /** Forgets every sample. */
+    public void reset() {
+        for (int gen = 0; gen < 2; gen++) {
+            clear(gen);
+        }
+        windowStart.set(Long.MIN_VALUE);
+        last.set(-1);
+        jitter16.set(0);
+    }
+
+    /** Percentiles over the current and the previous window. */
+    public Snapshot snapshot() {
+        long[] sum = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray gen : counts) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = gen.get(i);
+                sum[i] += c;
+                total += c;
+            }
+        }
+        long top = Math.max(max[0].get(), max[1].get());
+        return new Snapshot(total,
+                Math.min(top, percentile(sum, total, 0.50)),
+                Math.min(top, percentile(sum, total, 0.95)),
+                Math.min(top, percentile(sum, total, 0.99)),
+                top,
+                jitter16.get() >> 4,
+                last.get());
+    }
+
+    /** Latest round trip in ms, or -1 before the first. */
+    public long lastMs() {
+        return last.get();
+    }
+
+    /** Immutable view of the histogram; all values in ms. */
+    public static final class Snapshot {
+        public final long count;
+        public final long p50;
+        public final long p95;
+        public final long p99;
+        public final long max;
+        public final long jitter;
+        public final long last;
+
+        Snapshot(long count, long p50, long p95, long p99, long max, long jitter, long last) {
+            this.count = count;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+            this.jitter = jitter;
+            this.last = last;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50 %d, p95 %d, p99 %d, max %d, jitter %d ms (%d samples)",
+                    p50, p95, p99, max, jitter, count);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private void rotate(long nowMs) {
+        long start = windowStart.get();
+        if (start == Long.MIN_VALUE) {
+            windowStart.compareAndSet(start, nowMs);
+            return;
+        }
+        if (nowMs - start < WINDOW_MS || !windowStart.compareAndSet(start, nowMs))
+            return;
+        int next = 1 - current.get();
+        clear(next);
+        current.set(next);
+    }
+
+    private void clear(int gen) {
+        for (int i = 0; i < BUCKETS; i++)
+            counts[gen].set(i, 0);
+        max[gen].set(0);
+    }
+
+    static int bucketOf(long v) {
+        if (v < LINEAR)
+            return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        if (exp >= MAX_EXP)
+            return BUCKETS - 1;
+        int sub = (int) (v >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return LINEAR + (exp - 5) * (1 << SUB_BITS) + sub;
+    }
+
+    /** Largest value that falls into {@code bucket}. */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR)
+            return bucket;
+        int exp = 5 + (bucket - LINEAR) / (1 << SUB_BITS);
+        int sub = (bucket - LINEAR) % (1 << SUB_BITS);
+        return ((long) ((1 << SUB_BITS) + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double p) {
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return upperBound(i);
+        }
+        return upperBound(counts.length - 1);
+    }
+}
@@ -0,0 +1,469 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   OutboundBatcher.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:58:27 by ceketrum                               */
+/*   Updated: 2026/10/17 23:08:58 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketBundle;
+import com.ceke.multiplayer.core.server.network.packets.PacketGameState;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputFrame;
+import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunk;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryonet.Connection;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-connection outbound scheduler for reliable packets.
+ *
+ * <h3>Priority classes</h3>
+ * Every packet belongs to a {@link Priority}. Realtime, state and control
+ * packets are serialized into per-class queues and leave, coalesced into
+ * {@link PacketBundle}s, in weighted round-robin order: when the connection's
+ * TCP write buffer cannot take everything at once, each class gets a share
+ * proportional to its weight. Bulk packets (world chunks) are only handed
+ * to KryoNet once the other classes are empty and the write buffer has
+ * drained below {@link #BULK_LOW_WATER}, so a download uses leftover
+ * bandwidth and never sits more than about one chunk ahead of a cursor or
+ * state update.
+ *
+ * <h3>Flushing</h3>
+ * Realtime and bulk packets are flushed as soon as they are queued. State
+ * and control packets wait for {@link #flush()} (the host calls it at the
+ * end of every tick), for a batch to reach {@link #MAX_BUNDLE_BYTES}, or at
+ * the latest for the {@link #getFlushDeadlineMs() flush deadline}. A batch of
+ * one packet is sent as is. When KryoNet reports the connection idle, only
+ * bulk is refilled ({@link #flushBulk()}).
+ *
+ * <h3>Broadcasts</h3>
+ * {@link #encode(Object)} serializes a packet once into an immutable
+ * {@link Frame} that can be queued on any number of batchers, so a packet
+ * fanned out to every client costs one Kryo pass instead of one per client.
+ * A shared frame is always sent inside a bundle, even alone, so KryoNet
+ * copies its bytes rather than serializing the packet again.
+ *
+ * <h3>Backlog</h3>
+ * A client that cannot keep up makes the queues grow. Dropping packets is
+ * not an option for any class (deltas, lockstep frames and save chunks all
+ * count on delivery), so once a connection has more than
+ * {@link #MAX_BACKLOG_BYTES} waiting, the batcher discards its queues and
+ * closes the connection. The client reconnects and starts over from a fresh
+ * world transfer.
+ *
+ * Packets keep their order within a class. Anything sent on the connection
+ * directly (handshakes) is not ordered against the batcher.
+ */
+public final class OutboundBatcher {
+
+    private static final Logger LOG = Logger.getLogger(OutboundBatcher.class.getName());
+
+    /** Traffic classes, highest priority first. */
+    public enum Priority {
+        /** Latency-critical and tiny: cursor updates on the TCP fallback. */
+        REALTIME(8),
+        /** Replicated game state: world deltas, resource tallies, lockstep frames. */
+        STATE(4),
+        /** Session control: chat, speed, join overlay relays, transfer headers. */
+        CONTROL(2),
+        /** Save chunks: only leftover bandwidth. */
+        BULK(0);
+
+        /** Share of the write buffer when classes compete. */
+        final int weight;
+
+        Priority(int weight) {
+            this.weight = weight;
+        }
+
+        /** Default class of a packet type. */
+        public static Priority of(Object packet) {
+            if (packet instanceof PacketMousePos)
+                return REALTIME;
+            if (packet instanceof PacketGameState || packet instanceof PacketSyncResources
+                    || packet instanceof PacketSyncResourcesDelta || packet instanceof PacketInputFrame)
+                return STATE;
+            if (packet instanceof PacketWorldChunk)
+                return BULK;
+            return CONTROL;
+        }
+    }
+
+    /** A bundle is closed once it holds this many bytes. */
+    public static final int MAX_BUNDLE_BYTES = 32 * 1024;
+
+    /** Largest single packet that is batched; bigger ones are sent directly. */
+    private static final int MAX_FRAME_BYTES = MAX_BUNDLE_BYTES;
+
+    /**
+     * Queued bytes (serialized frames plus save chunk payloads) past which the
+     * connection is closed. Far above a healthy backlog: a tick's state, a few
+     * control packets and one transfer window of chunks.
+     */
+    public static final int MAX_BACKLOG_BYTES = 4 * 1024 * 1024;
+
+    /** Bulk packets wait until the TCP write buffer holds less than this. */
+    public static final int BULK_LOW_WATER = SaveTransferSender.CHUNK_SIZE;
+
+    /** Bytes a class may send per round-robin turn, times its weight. */
+    private static final int QUANTUM = 1024;
+
+    /** Write buffer space never handed out, for KryoNet's own messages. */
+    private static final int HEADROOM = 16 * 1024;
+
+    /**
+     * Longest a queued packet may wait for its batch to fill (ms). 0 sends
+     * every packet immediately. Override with {@code -Dceke.mp.flushDeadlineMs}.
+     */
+    private static volatile long flushDeadlineMs = Long.getLong("ceke.mp.flushDeadlineMs", 5L);
+
+    /** Kryo is not thread-safe: one standalone instance per thread. */
+    private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(() -> {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        kryo.setRegistrationRequired(true);
+        PacketRegistry.register(kryo);
+        return kryo;
+    });
+
+    /** Reusable scratch buffer for {@link #encode}, one per thread. */
+    private static final ThreadLocal<Output> SCRATCH = ThreadLocal.withInitial(() -> new Output(1024, MAX_FRAME_BYTES));
+
+    /**
+     * A packet serialized once, ready to be queued on any number of batchers.
+     * Immutable; obtain one with {@link #encode(Object)}.
+     */
+    public static final class Frame {
+        final Object packet;
+        /** Serialized packet, or null when it must go through KryoNet as is (bulk, oversized). */
+        final byte[] bytes;
+        final Priority priority;
+        /** Queued on several batchers: never re-serialized, see {@link #sendBatch}. */
+        final boolean shared;
+
+        private Frame(Object packet, byte[] bytes, Priority priority, boolean shared) {
+            this.packet = packet;
+            this.bytes = bytes;
+            this.priority = priority;
+            this.shared = shared;
+        }
+
+        public Object packet() {
+            return packet;
+        }
+    }
+
+    private static final Priority[] WEIGHTED = { Priority.REALTIME, Priority.STATE, Priority.CONTROL };
+
+    private final Connection connection;
+    private final ScheduledExecutorService scheduler;
+    private final int writeBufferSize;
+
+    private final Output batch = new Output(4096, -1);
+    private final EnumMap<Priority, ArrayDeque<Frame>> queues = new EnumMap<>(Priority.class);
+    private final int[] deficit = new int[Priority.values().length];
+    private final ArrayDeque<Object> bulk = new ArrayDeque<>();
+    private int queuedBytes = 0;
+    private int bulkBytes = 0;
+    private ScheduledFuture<?> deadline = null;
+
+    /**
+     * @param scheduler       runs the deadline flushes; the host passes its
+     *                        tick executor
+     * @param writeBufferSize the connection's KryoNet TCP write buffer size
+     */
+    public OutboundBatcher(Connection connection, ScheduledExecutorService scheduler, int writeBufferSize) {
+        this.connection = connection;
+        this.scheduler = scheduler;
+        this.writeBufferSize = writeBufferSize;
+        for (Priority p : WEIGHTED)
+            queues.put(p, new ArrayDeque<>());
+        // KryoNet calls Listener.idle() once the buffer drains this far: time for more bulk
+        connection.setIdleThreshold((float) BULK_LOW_WATER / writeBufferSize);
+    }
+
+    /** Queues a reliable packet in its default {@link Priority}. */
+    public void queue(Object packet) {
+        queue(packet, Priority.of(packet));
+    }
+
+    /** Queues a reliable packet. Safe to call from any thread. */
+    public void queue(Object packet, Priority priority) {
+        queue(encode(packet, priority, false));
+    }
+
+    /**
+     * Serializes a packet once, in its default {@link Priority}, for
+     * {@link #queue(Frame)} on several batchers.
+     */
+    public static Frame encode(Object packet) {
+        return encode(packet, Priority.of(packet));
+    }
+
+    /** Serializes a packet once for {@link #queue(Frame)} on several batchers. */
+    public static Frame encode(Object packet, Priority priority) {
+        return encode(packet, priority, true);
+    }
+
+    private static Frame encode(Object packet, Priority priority, boolean shared) {
+        if (priority == Priority.BULK)
+            return new Frame(packet, null, priority, shared);
+        Output out = SCRATCH.get();
+        out.clear();
+        try {
+            KRYO.get().writeClassAndObject(out, packet);
+        } catch (KryoException e) {
+            // Too large (or not serializable here): let KryoNet handle it
+            return new Frame(packet, null, priority, shared);
+        }
+        return new Frame(packet, out.toBytes(), priority, shared);
+    }
+
+    /** Queues an already serialized packet. Safe to call from any thread. */
+    public void queue(Frame frame) {
+        if (!enqueue(frame))
+            return;
+        // Outside the lock: closing runs the connection's listeners on this thread
+        LOG.warning("[OutboundBatcher] Connection " + connection.getID() + " is more than "
+                + MAX_BACKLOG_BYTES / 1024 + " KB behind, disconnecting it.");
+        connection.close();
+    }
+
+    /** @return true if the backlog overflowed and the connection must be closed */
+    private synchronized boolean enqueue(Frame frame) {
+        Priority priority = frame.priority;
+        if (!connection.isConnected())
+            return false;
+        if (priority == Priority.BULK) {
+            bulk.add(frame.packet);
+            bulkBytes += bulkSize(frame.packet);
+            flushLocked();
+            return overflowed();
+        }
+        if (frame.bytes == null) {
+            // Keep the order and send it directly
+            flushLocked();
+            send(frame.packet);
+            return false;
+        }
+        queues.get(priority).add(frame);
+        queuedBytes += frame.bytes.length;
+
+        if (priority == Priority.REALTIME || queuedBytes >= MAX_BUNDLE_BYTES || flushDeadlineMs <= 0) {
+            flushLocked();
+        } else if (deadline == null) {
+            try {
+                deadline = scheduler.schedule(this::flush, flushDeadlineMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushLocked(); // owner shutting down
+            }
+        }
+        return overflowed();
+    }
+
+    /** Discards everything if the backlog is past {@link #MAX_BACKLOG_BYTES}. */
+    private boolean overflowed() {
+        if (queuedBytes + bulkBytes <= MAX_BACKLOG_BYTES)
+            return false;
+        discard();
+        return true;
+    }
+
+    /**
+     * Sends what the write buffer has room for: queued realtime, state and
+     * control packets in weighted order, then bulk packets if nothing else
+     * is waiting.
+     */
+    public synchronized void flush() {
+        flushLocked();
+    }
+
+    /**
+     * Sends waiting bulk packets if nothing else is queued and the write
+     * buffer has drained; other classes keep waiting for their flush.
+     */
+    public synchronized void flushBulk() {
+        sendBulkLocked();
+    }
+
+    /** Drops anything still queued. Call when the connection goes away. */
+    public synchronized void discard() {
+        cancelDeadline();
+        for (Priority p : WEIGHTED)
+            queues.get(p).clear();
+        bulk.clear();
+        batch.clear();
+        queuedBytes = 0;
+        bulkBytes = 0;
+    }
+
+    /** True when nothing is waiting in any class. */
+    public synchronized boolean isEmpty() {
+        return queuedBytes == 0 && bulk.isEmpty();
+    }
+
+    private void flushLocked() {
+        cancelDeadline();
+        int budget = writeBufferSize - HEADROOM - connection.getTcpWriteBufferSize();
+
+        // Deficit round-robin over the weighted classes, cut into bundles. Rounds go on
+        // while some head frame fits the budget, so a frame bigger than one quantum
+        // collects quanta within this flush instead of waiting for later ones.
+        Frame single = null;
+        int count = 0;
+        while (queuedBytes > 0 && headFits(budget)) {
+            for (Priority p : WEIGHTED) {
+                ArrayDeque<Frame> q = queues.get(p);
+                if (q.isEmpty()) {
+                    deficit[p.ordinal()] = 0;
+                    continue;
+                }
+                deficit[p.ordinal()] += p.weight * QUANTUM;
+                while (!q.isEmpty()) {
+                    Frame f = q.peek();
+                    int size = f.bytes.length + 5;
+                    if (size > deficit[p.ordinal()] || size > budget)
+                        break;
+                    q.poll();
+                    deficit[p.ordinal()] -= size;
+                    budget -= size;
+                    queuedBytes -= f.bytes.length;
+
+                    batch.writeVarInt(f.bytes.length, true);
+                    batch.writeBytes(f.bytes);
+                    if (count++ == 0)
+                        single = f;
+                    if (batch.position() >= MAX_BUNDLE_BYTES) {
+                        sendBatch(single, count);
+                        count = 0;
+                    }
+                }
+            }
+        }
+        sendBatch(single, count);
+        sendBulkLocked();
+    }
+
+    /** True if the head frame of some weighted class fits in {@code budget}. */
+    private boolean headFits(int budget) {
+        for (Priority p : WEIGHTED) {
+            Frame f = queues.get(p).peek();
+            if (f != null && f.bytes.length + 5 <= budget)
+                return true;
+        }
+        return false;
+    }
+
+    private void sendBulkLocked() {
+        // Bulk gets the line only when nothing else waits and the buffer is nearly empty
+        while (!bulk.isEmpty() && queuedBytes == 0 && connection.getTcpWriteBufferSize() < BULK_LOW_WATER) {
+            Object packet = bulk.poll();
+            bulkBytes -= bulkSize(packet);
+            send(packet);
+        }
+    }
+
+    /** Payload bytes a bulk packet holds while queued. */
+    private static int bulkSize(Object packet) {
+        return packet instanceof PacketWorldChunk chunk && chunk.data != null ? chunk.data.length : 0;
+    }
+
+    private void sendBatch(Frame single, int count) {
+        if (count == 0)
+            return;
+        Object packet = (count == 1 && !single.shared)
+                ? single.packet
+                : new PacketBundle(count, batch.toBytes());
+        batch.clear();
+        send(packet);
+    }
+
+    private void send(Object packet) {
+        try {
+            connection.sendTCP(packet);
+        } catch (Exception e) {
+            LOG.log(Level.FINE, "[OutboundBatcher] Send to connection " + connection.getID() + " failed", e);
+        }
+    }
+
+    private void cancelDeadline() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Receiving
+    // -----------------------------------------------------------------------
+
+    /**
+     * Decodes a bundle and hands each packet, in order, to {@code handler}.
+     * A frame that fails to decode is skipped; the length prefix keeps the
+     * following ones readable.
+     */
+    public static void unpack(PacketBundle bundle, Consumer<Object> handler) {
+        if (bundle.frames == null)
+            return;
+        Kryo kryo = KRYO.get();
+        Input in = new Input(bundle.frames);
+        for (int n = 0; n < bundle.count && in.position() < bundle.frames.length; n++) {
+            int length = in.readVarInt(true);
+            int start = in.position();
+            if (length < 0 || length > bundle.frames.length - start) {
+                LOG.warning("[OutboundBatcher] Truncated bundle, dropping " + (bundle.count - n) + " packet(s).");
+                return;
+            }
+            Object packet;
+            try {
+                packet = kryo.readClassAndObject(new Input(bundle.frames, start, length));
+            } catch (KryoException e) {
+                LOG.warning("[OutboundBatcher] Skipping undecodable packet in bundle: " + e.getMessage());
+                in.setPosition(start + length);
+                continue;
+            }
+            in.setPosition(start + length);
+            handler.accept(packet);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Tuning
+    // -----------------------------------------------------------------------
+
+    public static long getFlushDeadlineMs() {
+        return flushDeadlineMs;
+    }
+
+    public static void setFlushDeadlineMs(long ms) {
+        flushDeadlineMs = Math.max(0L, ms);
+    }
+}
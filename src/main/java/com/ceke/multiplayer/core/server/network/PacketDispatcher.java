@@ -0,0 +1,174 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketDispatcher.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:59:37 by ceketrum                               */
+/*   Updated: 2026/10/17 21:59:37 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.esotericsoftware.kryonet.Connection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Routes received packets to one handler per packet class.
+ *
+ * A receive costs one map lookup however many packet types are registered,
+ * instead of an {@code instanceof} test per type. Every handled type keeps
+ * a counter and the time spent in its handler, see {@link #stats()}.
+ *
+ * Register all handlers with {@link #on} before the dispatcher receives its
+ * first packet; the table is not modified afterwards, so lookups need no
+ * locking. Packets of unregistered types (e.g. KryoNet keep-alives) are
+ * ignored.
+ */
+public final class PacketDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(PacketDispatcher.class.getName());
+
+    /** Handles one packet type. */
+    @FunctionalInterface
+    public interface Handler<T> {
+        void handle(Connection connection, T packet);
+    }
+
+    private final String owner;
+    private final Map<Class<?>, Route<?>> routes = new HashMap<>();
+
+    /** @param owner name used in log messages, e.g. "HostServer" */
+    public PacketDispatcher(String owner) {
+        this.owner = owner;
+    }
+
+    /** Sets the handler of {@code type}, replacing any previous one. */
+    public <T> PacketDispatcher on(Class<T> type, Handler<? super T> handler) {
+        routes.put(type, new Route<>(type, handler));
+        return this;
+    }
+
+    /**
+     * Runs the handler registered for the packet's class.
+     *
+     * @return false if no handler is registered for it
+     */
+    public boolean dispatch(Connection connection, Object packet) {
+        Route<?> route = routes.get(packet.getClass());
+        if (route == null)
+            return false;
+        long start = System.nanoTime();
+        try {
+            route.invoke(connection, packet);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "[" + owner + "] Handler for " + route.type.getSimpleName() + " failed", e);
+        } finally {
+            route.record(System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    // -----------------------------------------------------------------------
+    // Statistics
+    // -----------------------------------------------------------------------
+
+    /** Counters of one packet type. Times include nested dispatches. */
+    public static final class Stats {
+        public final String type;
+        public final long count;
+        public final long totalNanos;
+        public final long maxNanos;
+
+        Stats(String type, long count, long totalNanos, long maxNanos) {
+            this.type = type;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public double averageMicros() {
+            return count == 0 ? 0.0 : totalNanos / 1000.0 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d, avg %.1f us, max %.1f us",
+                    type, count, averageMicros(), maxNanos / 1000.0);
+        }
+    }
+
+    /** Current counters of every type that was received at least once. */
+    public List<Stats> stats() {
+        List<Stats> out = new ArrayList<>();
+        for (Route<?> r : routes.values()) {
+            long count = r.count.sum();
+            if (count > 0)
+                out.add(new Stats(r.type.getSimpleName(), count, r.nanos.sum(), r.maxNanos.get()));
+        }
+        out.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return out;
+    }
+
+    /** Zeroes all counters. */
+    public void resetStats() {
+        for (Route<?> r : routes.values()) {
+            r.count.reset();
+            r.nanos.reset();
+            r.maxNanos.set(0);
+        }
+    }
+
+    /** Logs {@link #stats()} at {@code level}, most expensive type first. */
+    public void logStats(Level level) {
+        if (!LOG.isLoggable(level))
+            return;
+        for (Stats s : stats())
+            LOG.log(level, "[" + owner + "] " + s);
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static final class Route<T> {
+        final Class<T> type;
+        final Handler<? super T> handler;
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Route(Class<T> type, Handler<? super T> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+
+        void invoke(Connection connection, Object packet) {
+            handler.handle(connection, type.cast(packet));
+        }
+
+        void record(long elapsed) {
+            count.increment();
+            nanos.add(elapsed);
+            if (elapsed > maxNanos.get())
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+}
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:01:15 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -21,17 +21,30 @@ package com.ceke.multiplayer.core.server.network;
 
 import com.ceke.multiplayer.core.server.network.packets.PacketChat;
 import com.ceke.multiplayer.core.server.network.packets.PacketGameState;
+import com.ceke.multiplayer.core.server.network.packets.PacketGameStateAck;
 import com.ceke.multiplayer.core.server.network.packets.PacketHandshake;
 import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
+import com.ceke.multiplayer.core.server.network.packets.PacketUdpProbe;
+import com.ceke.multiplayer.core.server.network.packets.PacketTimeSync;
+import com.ceke.multiplayer.core.server.network.packets.PacketHeartbeat;
 import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputFrame;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputResult;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunk;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunkAck;
 import com.ceke.multiplayer.core.server.network.packets.PacketWorldLoad;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldRequest;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldTransferStart;
 import com.ceke.multiplayer.core.server.network.packets.PacketJoinStarted;
 import com.ceke.multiplayer.core.server.network.packets.PacketJoinProgress;
 import com.ceke.multiplayer.core.server.network.packets.PacketJoinFinished;
 import com.ceke.multiplayer.core.server.network.packets.PacketOverlayClear;
 import com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange;
 import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
-import com.esotericsoftware.kryonet.EndPoint;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+import com.ceke.multiplayer.core.server.network.packets.PacketResourceResync;
+import com.ceke.multiplayer.core.server.network.packets.PacketBundle;
+import com.esotericsoftware.kryo.Kryo;
 
 /**
  * All packet types that can be sent over the network.
@@ -39,12 +52,28 @@ import com.esotericsoftware.kryonet.EndPoint;
  */
 public final class PacketRegistry {
 
+    /**
+     * Wire protocol version, sent in every handshake. Peers on another
+     * version are turned away; bump it whenever a registration or a packet
+     * layout changes.
+     */
+    public static final String VERSION = "2.0.0";
+
     private PacketRegistry() {
     }
 
     /** Registers all packet classes with a KryoNet endpoint (Client or Server). */
     public static void register(com.esotericsoftware.kryonet.EndPoint endPoint) {
-        var kryo = endPoint.getKryo();
+        register(endPoint.getKryo());
+    }
+
+    /**
+     * Registers all packet classes with a Kryo instance. Standalone instances
+     * (see {@link OutboundBatcher}) registered here agree on IDs across peers.
+     */
+    public static void register(Kryo kryo) {
+        // Kryo numbers classes in registration order and peers must agree on
+        // those numbers: only ever append, and bump VERSION when you do.
 
         // ── Java primitive/array types used inside packets ─────────────────
         kryo.register(byte[].class);
@@ -57,7 +86,7 @@ public final class PacketRegistry {
         kryo.register(PacketPlayerInput.class);
         kryo.register(PacketGameState.class);
         kryo.register(PacketChat.class);
-        kryo.register(PacketHandshake.class);
+        kryo.register(PacketHandshake.class, new HandshakeSerializer());
         kryo.register(PacketWorldLoad.class);
 
         // Join Overlay sync
@@ -70,6 +99,24 @@ public final class PacketRegistry {
         kryo.register(PacketSpeedChange.class);
 
         // Resource sync
-        kryo.register(PacketSyncResources.class);
+        kryo.register(PacketSyncResources.class, new ResourceSyncSerializer());
+
+        // ── Added in 2.0.0 ─────────────────────────────────────────────────
+        kryo.register(long[].class);
+        kryo.register(String[].class);
+        kryo.register(PacketGameStateAck.class);
+        kryo.register(PacketWorldChunk.class);
+        kryo.register(PacketWorldChunkAck.class);
+        kryo.register(PacketWorldRequest.class);
+        kryo.register(PacketWorldTransferStart.class);
+        kryo.register(PacketUdpProbe.class);
+        kryo.register(PacketTimeSync.class);
+        kryo.register(PacketHeartbeat.class);
+        kryo.register(PacketPlayerInput[].class);
+        kryo.register(PacketInputFrame.class);
+        kryo.register(PacketInputResult.class);
+        kryo.register(PacketSyncResourcesDelta.class, new ResourceSyncSerializer.Delta());
+        kryo.register(PacketResourceResync.class);
+        kryo.register(PacketBundle.class);
     }
 }
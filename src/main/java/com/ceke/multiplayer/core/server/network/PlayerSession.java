@@ -0,0 +1,118 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PlayerSession.java                                                     */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:08:02 by ceketrum                               */
+/*   Updated: 2026/10/17 22:26:26 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.sync.ClockSync;
+import com.esotericsoftware.kryonet.Connection;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * HOST side state of one connected player: its ID, name, reliable outbound
+ * scheduler, cursor channel, clock estimate and latency histogram.
+ *
+ * Player IDs are the KryoNet connection IDs, which start at 1; the host
+ * itself is {@link #HOST_ID}. The host stamps the sender's ID into every
+ * packet it relays, so clients never have to trust each other.
+ */
+public final class PlayerSession {
+
+    /** Player ID of the host. */
+    public static final int HOST_ID = 0;
+
+    private final int playerId;
+    private final Connection connection;
+    private final OutboundBatcher out;
+    private final UnreliableChannel cursorChannel;
+    private final ClockSync clock = new ClockSync();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile String name = "";
+    private volatile float cursorX = -1f;
+    private volatile float cursorY = -1f;
+
+    PlayerSession(Connection connection, ScheduledExecutorService scheduler, int writeBufferSize) {
+        this.playerId = connection.getID();
+        this.connection = connection;
+        this.out = new OutboundBatcher(connection, scheduler, writeBufferSize);
+        this.cursorChannel = new UnreliableChannel(connection, out::queue);
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /** Reliable, priority-scheduled path to this player. */
+    public OutboundBatcher out() {
+        return out;
+    }
+
+    /** Unreliable-sequenced path to this player (cursors). */
+    public UnreliableChannel cursorChannel() {
+        return cursorChannel;
+    }
+
+    /** The player's clock relative to ours, as it last reported (see {@link ClockSync}). */
+    public ClockSync clock() {
+        return clock;
+    }
+
+    /** Round trips of the host's heartbeats to this player. */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /** Name from the player's handshake; empty until it arrived. */
+    public String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        this.name = (name != null) ? name : "";
+    }
+
+    /** Last cursor position received from this player (world pixels), or -1. */
+    public float getCursorX() {
+        return cursorX;
+    }
+
+    public float getCursorY() {
+        return cursorY;
+    }
+
+    void setCursor(float x, float y) {
+        cursorX = x;
+        cursorY = y;
+    }
+
+    /** Drops everything still queued for the player. */
+    void close() {
+        out.discard();
+    }
+
+    @Override
+    public String toString() {
+        return "player #" + playerId + (name.isEmpty() ? "" : " '" + name + "'");
+    }
+}
@@ -0,0 +1,213 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ResourceSyncSerializer.java                                            */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:11:43 by ceketrum                               */
+/*   Updated: 2026/10/17 22:37:38 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Compact Kryo encoding of {@link PacketSyncResources}.
+ *
+ * <h3>Layout</h3>
+ * The version (varlong), then the nine arrays in field order. Each starts with its length
+ * + 1 (varint, 0 = null). A non-empty array then has a mode byte and its
+ * values as alternating runs: the number of zeros (varint), the number of
+ * non-zero values that follow (varint), then those values as zig-zag
+ * varints.
+ * <ul>
+ * <li>{@link #PLAIN}: the values themselves.</li>
+ * <li>{@link #XOR_PREVIOUS}: the values XORed with the previous array of
+ * the packet (same length required). Amounts and their reservations, or
+ * hauler space and reserved space, are mostly identical, so this turns
+ * them into zero runs.</li>
+ * </ul>
+ * The writer encodes both ways and keeps the shorter one. A tally where
+ * most resources are absent costs a few bytes instead of one to five per
+ * slot.
+ *
+ * {@link Delta} encodes {@link PacketSyncResourcesDelta}: the two versions,
+ * the slot count, then each slot as the gap to the previous index and its
+ * value (zig-zag varint).
+ */
+public final class ResourceSyncSerializer extends Serializer<PacketSyncResources> {
+
+    static final int PLAIN = 0;
+    static final int XOR_PREVIOUS = 1;
+
+    /** Refuse arrays larger than this when reading (a few hundred resources at most). */
+    private static final int MAX_LENGTH = 1 << 16;
+
+    @Override
+    public void write(Kryo kryo, Output out, PacketSyncResources pkt) {
+        out.writeVarLong(pkt.version, true);
+        int[] previous = null;
+        for (int[] values : pkt.toArrays()) {
+            writeArray(out, values, previous);
+            if (values != null)
+                previous = values;
+        }
+    }
+
+    @Override
+    public PacketSyncResources read(Kryo kryo, Input in, Class<PacketSyncResources> type) {
+        long version = in.readVarLong(true);
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        int[] previous = null;
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = readArray(in, previous);
+            if (arrays[i] != null)
+                previous = arrays[i];
+        }
+        return new PacketSyncResources(version, arrays);
+    }
+
+    // -----------------------------------------------------------------------
+    // Delta
+    // -----------------------------------------------------------------------
+
+    /** Encoding of {@link PacketSyncResourcesDelta}. */
+    public static final class Delta extends Serializer<PacketSyncResourcesDelta> {
+
+        @Override
+        public void write(Kryo kryo, Output out, PacketSyncResourcesDelta pkt) {
+            int count = pkt.indices == null ? 0 : pkt.indices.length;
+            out.writeVarLong(pkt.version, true);
+            out.writeVarLong(pkt.baseVersion, true);
+            out.writeVarInt(count, true);
+            int prev = -1;
+            for (int n = 0; n < count; n++) {
+                out.writeVarInt(pkt.indices[n] - prev - 1, true);
+                out.writeVarInt(pkt.values[n], false); // zig-zag
+                prev = pkt.indices[n];
+            }
+        }
+
+        @Override
+        public PacketSyncResourcesDelta read(Kryo kryo, Input in, Class<PacketSyncResourcesDelta> type) {
+            long version = in.readVarLong(true);
+            long baseVersion = in.readVarLong(true);
+            int count = in.readVarInt(true);
+            if (count < 0 || count > MAX_LENGTH * PacketSyncResources.ARRAYS)
+                throw new KryoException("Resource delta too long: " + count);
+            int[] indices = new int[count];
+            int[] values = new int[count];
+            int index = -1;
+            for (int n = 0; n < count; n++) {
+                index += in.readVarInt(true) + 1;
+                indices[n] = index;
+                values[n] = in.readVarInt(false);
+            }
+            return new PacketSyncResourcesDelta(version, baseVersion, indices, values);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Arrays
+    // -----------------------------------------------------------------------
+
+    private static void writeArray(Output out, int[] values, int[] previous) {
+        if (values == null) {
+            out.writeVarInt(0, true);
+            return;
+        }
+        out.writeVarInt(values.length + 1, true);
+        if (values.length == 0)
+            return;
+
+        if (previous == null || previous.length != values.length) {
+            out.writeByte(PLAIN);
+            writeRuns(out, values, null);
+            return;
+        }
+
+        // Both candidates are tiny, and full packets only go out on join or resync
+        // (deltas otherwise, see ResourceReplicator), serialized once for all clients:
+        // no shared scratch (KryoNet may serialize for several connections at once)
+        Output plain = new Output(64, -1);
+        Output xor = new Output(64, -1);
+        writeRuns(plain, values, null);
+        writeRuns(xor, values, previous);
+        Output best = xor.position() < plain.position() ? xor : plain;
+        out.writeByte(best == xor ? XOR_PREVIOUS : PLAIN);
+        out.writeBytes(best.getBuffer(), 0, best.position());
+    }
+
+    private static int[] readArray(Input in, int[] previous) {
+        int length = in.readVarInt(true) - 1;
+        if (length < 0)
+            return null;
+        if (length > MAX_LENGTH)
+            throw new KryoException("Resource array too long: " + length);
+        int[] values = new int[length];
+        if (length == 0)
+            return values;
+
+        int mode = in.readByte();
+        if (mode == XOR_PREVIOUS && (previous == null || previous.length != length))
+            throw new KryoException("XOR-encoded resource array without a matching previous array");
+        if (mode != PLAIN && mode != XOR_PREVIOUS)
+            throw new KryoException("Unknown resource array mode: " + mode);
+
+        int i = 0;
+        while (i < length) {
+            int zeros = in.readVarInt(true);
+            int literals = in.readVarInt(true);
+            if (zeros < 0 || literals < 0 || zeros > length - i || literals > length - i - zeros)
+                throw new KryoException("Resource array run out of range");
+            i += zeros;
+            for (int end = i + literals; i < end; i++)
+                values[i] = in.readVarInt(false);
+        }
+
+        if (mode == XOR_PREVIOUS) {
+            for (int n = 0; n < length; n++)
+                values[n] ^= previous[n];
+        }
+        return values;
+    }
+
+    /** Writes {@code values} (XORed with {@code base} if given) as zero / literal runs. */
+    private static void writeRuns(Output out, int[] values, int[] base) {
+        int length = values.length;
+        int i = 0;
+        while (i < length) {
+            int start = i;
+            while (i < length && value(values, base, i) == 0)
+                i++;
+            int zeros = i - start;
+            int literalStart = i;
+            while (i < length && value(values, base, i) != 0)
+                i++;
+            out.writeVarInt(zeros, true);
+            out.writeVarInt(i - literalStart, true);
+            for (int n = literalStart; n < i; n++)
+                out.writeVarInt(value(values, base, n), false); // zig-zag
+        }
+    }
+
+    private static int value(int[] values, int[] base, int i) {
+        return base == null ? values[i] : values[i] ^ base[i];
+    }
+}
@@ -0,0 +1,268 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SavePreparer.java                                                      */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:52:25 by ceketrum                               */
+/*   Updated: 2026/10/17 23:06:06 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldRequest;
+import com.ceke.multiplayer.core.server.sync.SaveDelta;
+import com.ceke.multiplayer.core.server.sync.SaveSyncManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HOST: prepares save files for transfer on a background executor so the
+ * KryoNet update thread never blocks on disk I/O or deflate.
+ *
+ * Jobs are single-flight. Every request for the same key shares one
+ * {@link CompletableFuture}, so several clients joining at once cost one
+ * compression. Keys include the save's path, modification time, size and the
+ * compression level (plus the client's basis for deltas), so once the game
+ * writes the save again the next request starts a fresh job. Completed results
+ * stay cached until {@link #MAX_PREPARED} (hashes: {@link #MAX_HASHES}) newer
+ * ones push them out. An evicted file is only deleted once every transfer
+ * reading it has {@linkplain PreparedSave#release() released} it.
+ */
+public final class SavePreparer {
+
+    private static final Logger LOG = Logger.getLogger(SavePreparer.class.getName());
+
+    /** Compressed saves and deltas kept on disk for reuse. */
+    private static final int MAX_PREPARED = 4;
+
+    /** Save hashes kept for reuse (one per save version). */
+    private static final int MAX_HASHES = 16;
+
+    /** A compressed save (or delta) ready to be streamed. */
+    public static final class PreparedSave {
+        public final Path file;
+        public final long totalBytes;
+        public final int[] chunkCrcs;
+
+        /** Hash of the client save a delta applies to, or null for a full save. */
+        public final String deltaBasis;
+
+        private int readers = 0;
+        private boolean evicted = false;
+        private boolean deleted = false;
+
+        PreparedSave(Path file, long totalBytes, int[] chunkCrcs, String deltaBasis) {
+            this.file = file;
+            this.totalBytes = totalBytes;
+            this.chunkCrcs = chunkCrcs;
+            this.deltaBasis = deltaBasis;
+        }
+
+        /**
+         * Registers one more reader of {@link #file}, which must call
+         * {@link #release()} once it no longer opens or reads it.
+         *
+         * @return false if the file was evicted and is already gone
+         */
+        public synchronized boolean retain() {
+            if (deleted)
+                return false;
+            readers++;
+            return true;
+        }
+
+        /** Ends one {@link #retain()}; the last reader of an evicted file deletes it. */
+        public void release() {
+            synchronized (this) {
+                if (readers == 0)
+                    return;
+                readers--;
+                if (!evicted || readers > 0)
+                    return;
+                deleted = true;
+            }
+            delete(file);
+        }
+
+        /** Dropped from the cache: deletes the file now, or when its last reader is done. */
+        void evict() {
+            synchronized (this) {
+                evicted = true;
+                if (readers > 0 || deleted)
+                    return;
+                deleted = true;
+            }
+            delete(file);
+        }
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "ceke-multiplayer-save-prep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Map<String, CompletableFuture<String>> hashes = new ConcurrentHashMap<>();
+    private static final Deque<String> hashOrder = new ConcurrentLinkedDeque<>();
+    private static final Map<String, CompletableFuture<PreparedSave>> prepared = new ConcurrentHashMap<>();
+    private static final Deque<String> preparedOrder = new ConcurrentLinkedDeque<>();
+
+    private SavePreparer() {
+    }
+
+    /** SHA-256 of {@code save}, computed at most once per save version. */
+    public static CompletableFuture<String> hash(Path save) {
+        String key;
+        try {
+            key = keyOf(save, null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return singleFlight(hashes, hashOrder, MAX_HASHES, key, io(() -> SaveSyncManager.hashSaveFile(save)),
+                job -> {
+                });
+    }
+
+    /**
+     * The compressed save — or, for a delta request, the compressed delta
+     * against the client's basis — ready for a {@link SaveTransferSender}.
+     */
+    public static CompletableFuture<PreparedSave> prepare(Path save, PacketWorldRequest request) {
+        boolean delta = request != null && request.isDelta();
+        String key;
+        try {
+            key = keyOf(save, delta ? request.basisHash + "/" + request.blockSize : null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return singleFlight(prepared, preparedOrder, MAX_PREPARED, key, io(() -> {
+            long start = System.currentTimeMillis();
+            Path out = Files.createTempFile("ceke-mp-save-", ".cekz");
+            try {
+                if (delta) {
+                    SaveSyncManager.compressSaveDelta(save, new SaveDelta.Signatures(request.blockSize,
+                            request.basisLength, request.weak, request.strong), out);
+                } else {
+                    SaveSyncManager.compressSaveFile(save, out);
+                }
+                int[] crcs = SaveSyncManager.chunkChecksums(out, SaveTransferSender.CHUNK_SIZE);
+                LOG.info("[SavePreparer] Prepared " + (delta ? "delta against " + request.basisHash : "save")
+                        + " (" + Files.size(out) + " bytes) in " + (System.currentTimeMillis() - start) + " ms.");
+                return new PreparedSave(out, Files.size(out), crcs, delta ? request.basisHash : null);
+            } catch (IOException e) {
+                Files.deleteIfExists(out);
+                throw e;
+            }
+        }), SavePreparer::discard);
+    }
+
+    /** Drops every cached result; prepared files go once no transfer reads them. */
+    public static void clear() {
+        hashOrder.clear();
+        hashes.clear();
+        String key;
+        while ((key = preparedOrder.poll()) != null)
+            discard(prepared.remove(key));
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private static <T> Supplier<T> io(IoSupplier<T> body) {
+        return () -> {
+            try {
+                return body.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns the in-flight or cached job for {@code key}, starting one if
+     * there is none. Failed jobs are forgotten so the next caller retries.
+     * Beyond {@code limit} jobs, the oldest is removed and handed to
+     * {@code evict}.
+     */
+    private static <T> CompletableFuture<T> singleFlight(Map<String, CompletableFuture<T>> map, Deque<String> order,
+            int limit, String key, Supplier<T> job, Consumer<CompletableFuture<T>> evict) {
+        CompletableFuture<T> existing = map.get(key);
+        if (existing != null)
+            return existing;
+
+        CompletableFuture<T> created = new CompletableFuture<>();
+        existing = map.putIfAbsent(key, created);
+        if (existing != null)
+            return existing;
+
+        CompletableFuture.supplyAsync(job, EXECUTOR).whenComplete((value, error) -> {
+            if (error != null) {
+                if (map.remove(key, created))
+                    order.removeFirstOccurrence(key);
+                Throwable cause = (error instanceof CompletionException && error.getCause() != null)
+                        ? error.getCause()
+                        : error;
+                created.completeExceptionally(cause instanceof UncheckedIOException u ? u.getCause() : cause);
+            } else {
+                created.complete(value);
+            }
+        });
+        order.add(key);
+        while (order.size() > limit) {
+            String oldest = order.poll();
+            if (oldest != null)
+                evict.accept(map.remove(oldest));
+        }
+        return created;
+    }
+
+    /** Evicts a prepared file once its job is done. */
+    private static void discard(CompletableFuture<PreparedSave> job) {
+        if (job != null)
+            job.thenAccept(PreparedSave::evict);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "[SavePreparer] Could not delete " + file + ", deleting on exit", e);
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private static String keyOf(Path save, String variant) throws IOException {
+        return save.toAbsolutePath() + "|" + Files.getLastModifiedTime(save).toMillis() + "|" + Files.size(save)
+                + "|" + SaveSyncManager.getCompressionLevel() + (variant != null ? "|" + variant : "");
+    }
+}
@@ -0,0 +1,185 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SaveTransferReceiver.java                                              */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:40:15 by ceketrum                               */
+/*   Updated: 2026/10/17 22:36:09 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunk;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunkAck;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldLoad;
+import com.esotericsoftware.kryonet.Connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * CLIENT side of a streamed world transfer.
+ *
+ * Every {@link PacketWorldChunk} is checked against the header's CRC, written
+ * straight to its offset in a {@code .part} file and acknowledged, so heap use
+ * stays flat regardless of the save size. The part file is never truncated
+ * up front: chunks verified by {@link #verifyExisting} survive a reconnect and
+ * are not downloaded again.
+ */
+public final class SaveTransferReceiver {
+
+    private final Connection connection;
+    private final PacketWorldLoad header;
+    private final Path partFile;
+    private final FileChannel channel;
+    private final BitSet have;
+    private final CRC32 crc = new CRC32();
+
+    private volatile boolean closed = false;
+
+    /** Chunks received in this session — what the host's window counts. */
+    private int received = 0;
+
+    /**
+     * @param have chunks already present in {@code partFile} (see
+     *             {@link #verifyExisting}); not modified
+     */
+    public SaveTransferReceiver(Connection connection, PacketWorldLoad header, Path partFile, BitSet have)
+            throws IOException {
+        this.connection = connection;
+        this.header = header;
+        this.partFile = partFile;
+        Files.createDirectories(partFile.getParent());
+        this.channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.have = (BitSet) have.clone();
+    }
+
+    /**
+     * Returns the chunks of {@code partFile} whose CRC matches the header.
+     * Reads the whole file — call from a background thread.
+     */
+    public static BitSet verifyExisting(Path partFile, PacketWorldLoad header) {
+        BitSet have = new BitSet(header.chunkCount);
+        if (header.chunkCrcs == null || !Files.isRegularFile(partFile))
+            return have;
+        ByteBuffer buf = BufferPool.acquire(header.chunkSize);
+        try (FileChannel ch = FileChannel.open(partFile, StandardOpenOption.READ)) {
+            long size = ch.size();
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < header.chunkCount; i++) {
+                long position = (long) i * header.chunkSize;
+                int length = (int) Math.min(header.chunkSize, header.totalBytes - position);
+                if (position + length > size)
+                    break;
+                buf.clear().limit(length);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, position + buf.position()) < 0)
+                        break;
+                }
+                buf.flip();
+                crc.reset();
+                crc.update(buf);
+                if ((int) crc.getValue() == header.chunkCrcs[i])
+                    have.set(i);
+            }
+        } catch (IOException e) {
+            have.clear();
+        } finally {
+            BufferPool.release(buf);
+        }
+        return have;
+    }
+
+    /**
+     * Writes one chunk to disk and acknowledges it.
+     *
+     * @return true once every chunk has been written (the file is then closed)
+     * @throws IOException if the chunk fails its CRC check or cannot be written
+     */
+    public boolean onChunk(PacketWorldChunk chunk) throws IOException {
+        if (chunk.transferId != header.transferId || chunk.index < 0 || chunk.index >= header.chunkCount
+                || have.get(chunk.index))
+            return isComplete();
+
+        if (header.chunkCrcs != null) {
+            crc.reset();
+            crc.update(chunk.data);
+            if ((int) crc.getValue() != header.chunkCrcs[chunk.index])
+                throw new IOException("Chunk " + chunk.index + " of transfer #" + header.transferId
+                        + " failed its CRC check");
+        }
+
+        if (chunk.data.length > header.chunkSize)
+            throw new IOException("Chunk " + chunk.index + " of transfer #" + header.transferId + " is oversized");
+        if (closed)
+            throw new IOException("Transfer #" + header.transferId + " is closed");
+        ByteBuffer buf = ByteBuffer.wrap(chunk.data);
+        long position = (long) chunk.index * header.chunkSize;
+        while (buf.hasRemaining())
+            channel.write(buf, position + buf.position());
+
+        have.set(chunk.index);
+        received++;
+        connection.sendTCP(new PacketWorldChunkAck(header.transferId, received));
+
+        if (isComplete()) {
+            channel.truncate(header.totalBytes);
+            closeChannel();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isComplete() {
+        return have.cardinality() >= header.chunkCount;
+    }
+
+    /** Download progress in [0, 1], counting chunks kept from earlier attempts. */
+    public float progress() {
+        return header.chunkCount == 0 ? 1f : have.cardinality() / (float) header.chunkCount;
+    }
+
+    public int getTransferId() {
+        return header.transferId;
+    }
+
+    public PacketWorldLoad getHeader() {
+        return header;
+    }
+
+    public Path getPartFile() {
+        return partFile;
+    }
+
+    /**
+     * Abandons the transfer and releases the file handle. The part file is
+     * kept so a later attempt can resume from it.
+     */
+    public void abort() {
+        try {
+            closeChannel();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private synchronized void closeChannel() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
@@ -0,0 +1,220 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SaveTransferSender.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:40:15 by ceketrum                               */
+/*   Updated: 2026/10/17 23:06:06 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldChunk;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldLoad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HOST side of a streamed world transfer to one client.
+ *
+ * The header carries a CRC32 per chunk. The client checks which chunks it
+ * already holds from an interrupted download and answers with
+ * {@link com.ceke.multiplayer.core.server.network.packets.PacketWorldTransferStart};
+ * only the missing chunks are then sent, at most {@link #WINDOW} ahead of the
+ * client's last
+ * {@link com.ceke.multiplayer.core.server.network.packets.PacketWorldChunkAck}.
+ * Neither endpoint ever holds the whole save in memory, and the KryoNet
+ * buffers only need to fit one window. Chunks go out in the
+ * {@link OutboundBatcher.Priority#BULK} class, behind all other traffic.
+ *
+ * When the bulk channel is offered, a client that can reach it fetches the
+ * missing chunks there instead; a successful bulk fetch simply closes the
+ * sender.
+ */
+public final class SaveTransferSender {
+
+    private static final Logger LOG = Logger.getLogger(SaveTransferSender.class.getName());
+
+    /** Bytes per chunk (64 KB). Also the resume granularity. */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Chunks allowed in flight before waiting for an ack (512 KB). */
+    public static final int WINDOW = 8;
+
+    private final OutboundBatcher out;
+    private final int transferId;
+    private final SavePreparer.PreparedSave save;
+    private final Path zipFile;
+    private final FileChannel channel;
+    private final long totalBytes;
+    private final int chunkCount;
+    private final int[] chunkCrcs;
+    private final String deltaBasis;
+
+    private long bulkToken = 0L;
+
+    /** Chunk indices the client is missing, in send order. */
+    private int[] queue = new int[0];
+    private int sent = 0;
+    private int acked = 0;
+    private boolean streaming = false;
+    private boolean closed = false;
+
+    /**
+     * @param save compressed save (or delta) from {@link SavePreparer}; the
+     *             file is owned by the preparer, which keeps it until
+     *             {@link #close()}
+     * @throws IOException if the preparer already deleted the file
+     */
+    public SaveTransferSender(OutboundBatcher out, int transferId, SavePreparer.PreparedSave save)
+            throws IOException {
+        this.out = out;
+        this.transferId = transferId;
+        this.save = save;
+        this.zipFile = save.file;
+        this.deltaBasis = save.deltaBasis;
+        if (!save.retain())
+            throw new IOException("Prepared save " + zipFile + " was already evicted");
+        try {
+            this.channel = FileChannel.open(zipFile, StandardOpenOption.READ);
+        } catch (IOException e) {
+            save.release();
+            throw e;
+        }
+        this.totalBytes = save.totalBytes;
+        this.chunkCount = (int) ((totalBytes + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        this.chunkCrcs = save.chunkCrcs;
+    }
+
+    /** Sends the transfer header without a bulk offer. */
+    public synchronized void start() throws IOException {
+        start(0, 0L);
+    }
+
+    /**
+     * Sends the transfer header. Nothing else is sent until the client reports
+     * which chunks it already has.
+     */
+    public synchronized void start(int bulkPort, long bulkToken) throws IOException {
+        this.bulkToken = bulkToken;
+        PacketWorldLoad header = new PacketWorldLoad(transferId, totalBytes, CHUNK_SIZE, chunkCount);
+        header.chunkCrcs = chunkCrcs;
+        header.deltaBasis = deltaBasis;
+        header.bulkPort = bulkPort;
+        header.bulkToken = bulkToken;
+        out.queue(header, OutboundBatcher.Priority.CONTROL);
+        LOG.info("[SaveTransferSender] Offering " + totalBytes + " bytes in " + chunkCount
+                + " chunks (transfer #" + transferId + (bulkPort > 0 ? ", bulk port " + bulkPort : "") + ").");
+    }
+
+    /**
+     * Starts pushing every chunk not set in {@code haveChunks}.
+     *
+     * @return true if the client already has the whole file (the sender is
+     *         then closed)
+     */
+    public synchronized boolean beginStreaming(int transferId, long[] haveChunks) throws IOException {
+        if (closed || transferId != this.transferId)
+            return false;
+
+        BitSet have = BitSet.valueOf(haveChunks != null ? haveChunks : new long[0]);
+        have.clear(chunkCount, Math.max(chunkCount, have.length()));
+        int[] missing = new int[chunkCount - have.cardinality()];
+        int n = 0;
+        for (int i = have.nextClearBit(0); i < chunkCount; i = have.nextClearBit(i + 1))
+            missing[n++] = i;
+
+        queue = missing;
+        sent = 0;
+        acked = 0;
+        streaming = true;
+        LOG.info("[SaveTransferSender] Transfer #" + transferId + ": client has " + (chunkCount - missing.length)
+                + "/" + chunkCount + " chunks, sending " + missing.length + ".");
+        if (missing.length == 0) {
+            close();
+            return true;
+        }
+        pump();
+        return false;
+    }
+
+    /**
+     * Handles a flow-control ack and refills the window.
+     *
+     * @return true once the client has acknowledged every missing chunk
+     */
+    public synchronized boolean onAck(int transferId, int received) throws IOException {
+        if (closed || !streaming || transferId != this.transferId)
+            return false;
+        acked = Math.max(acked, Math.min(received, queue.length));
+        if (acked >= queue.length) {
+            LOG.info("[SaveTransferSender] Transfer #" + transferId + " complete.");
+            close();
+            return true;
+        }
+        pump();
+        return false;
+    }
+
+    /** Releases the file handle and the preparer's file. Idempotent. */
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "[SaveTransferSender] Cleanup failed for " + zipFile, e);
+        }
+        save.release();
+    }
+
+    public int getTransferId() {
+        return transferId;
+    }
+
+    public Path getZipFile() {
+        return zipFile;
+    }
+
+    /** Token of the bulk offer made in {@link #start(int, long)}, or 0. */
+    public long getBulkToken() {
+        return bulkToken;
+    }
+
+    private void pump() throws IOException {
+        while (!closed && sent < queue.length && sent - acked < WINDOW) {
+            int index = queue[sent++];
+            out.queue(new PacketWorldChunk(transferId, index, readChunk(index)), OutboundBatcher.Priority.BULK);
+        }
+    }
+
+    private byte[] readChunk(int index) throws IOException {
+        long position = (long) index * CHUNK_SIZE;
+        int length = (int) Math.min(CHUNK_SIZE, totalBytes - position);
+        byte[] data = new byte[length]; // owned by the packet until KryoNet serializes it
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0)
+                throw new IOException("Unexpected end of " + zipFile);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,117 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   TimedSocket.java                                                       */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:52:10 by ceketrum                               */
+/*   Updated: 2026/10/17 22:52:10 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Bulk save channel socket with a deadline on every step.
+ *
+ * Blocking {@link SocketChannel} I/O (and {@link FileChannel#transferTo} /
+ * {@code transferFrom} on it) ignores {@code SO_TIMEOUT}, and closing the
+ * channel from another thread does not reliably wake a blocked sendfile, so
+ * a peer that stalls would hold the transfer thread forever. Here the socket
+ * is non-blocking and every wait for it goes through a {@link Selector} with
+ * a timeout: when the peer neither sends nor accepts a byte for
+ * {@code timeoutMs}, the step throws a {@link SocketTimeoutException}.
+ */
+final class TimedSocket implements AutoCloseable {
+
+    private final SocketChannel socket;
+    private final Selector selector;
+    private final long timeoutMs;
+
+    /** Takes over {@code socket} (connected), which is switched to non-blocking mode. */
+    TimedSocket(SocketChannel socket, long timeoutMs) throws IOException {
+        this.socket = socket;
+        this.timeoutMs = timeoutMs;
+        this.selector = Selector.open();
+        socket.configureBlocking(false);
+    }
+
+    /** Reads exactly {@code n} bytes. */
+    ByteBuffer readFully(int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(n);
+        while (buf.hasRemaining()) {
+            int read = socket.read(buf);
+            if (read < 0)
+                throw new EOFException("Peer closed the bulk channel");
+            if (read == 0)
+                await(SelectionKey.OP_READ);
+        }
+        return buf.flip();
+    }
+
+    void writeFully(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (socket.write(buf) == 0)
+                await(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /** Sends {@code count} bytes of {@code file} from {@code position}. */
+    void sendFile(FileChannel file, long position, long count) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long n = file.transferTo(position, end - position, socket);
+            if (n == 0)
+                await(SelectionKey.OP_WRITE);
+            position += n;
+        }
+    }
+
+    /**
+     * Receives up to {@code count} bytes into {@code file} at
+     * {@code position}; returns at least one byte.
+     *
+     * @throws EOFException if the peer closes the channel first
+     */
+    long receiveFile(FileChannel file, long position, long count) throws IOException {
+        long n = file.transferFrom(socket, position, count);
+        if (n > 0)
+            return n;
+        // transferFrom returns 0 both when nothing is buffered and at end of stream
+        await(SelectionKey.OP_READ);
+        n = file.transferFrom(socket, position, count);
+        if (n <= 0)
+            throw new EOFException("Peer closed the bulk channel");
+        return n;
+    }
+
+    /** Closes the selector; the socket itself stays with its owner. */
+    @Override
+    public void close() throws IOException {
+        selector.close();
+    }
+
+    private void await(int op) throws IOException {
+        socket.register(selector, op);
+        if (selector.select(timeoutMs) == 0)
+            throw new SocketTimeoutException("No progress on the bulk channel for " + timeoutMs + " ms");
+        selector.selectedKeys().clear();
+    }
+}
@@ -0,0 +1,163 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   UnreliableChannel.java                                                 */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:54:06 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketUdpProbe;
+import com.ceke.multiplayer.core.server.network.packets.SequencedPacket;
+import com.esotericsoftware.kryonet.Connection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Unreliable-sequenced path for ephemeral data (cursor positions) over one
+ * connection.
+ *
+ * Packets go over UDP while {@link PacketUdpProbe} echoes keep arriving, and
+ * over TCP otherwise — before the first echo, when UDP is blocked, or when
+ * the connection was opened TCP-only. Either way the receiver calls
+ * {@link #accept} and drops anything not newer than what it already has, so
+ * a late or reordered datagram can never move the cursor backwards.
+ */
+public final class UnreliableChannel {
+
+    private static final Logger LOG = Logger.getLogger(UnreliableChannel.class.getName());
+
+    /** How often a probe is sent. */
+    private static final long PROBE_INTERVAL_MS = 2000;
+
+    /** UDP is considered down once no echo arrived for this long. */
+    private static final long PROBE_TIMEOUT_MS = 5000;
+
+    /** Process-wide sequence: one stamped packet can go to every connection. */
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final Connection connection;
+    private final Consumer<Object> tcp;
+
+    private volatile boolean udpAbsent = false;
+    private volatile long lastEchoMs = 0;
+    private volatile boolean udpUp = false;
+    private long lastProbeMs = 0;
+    private volatile int probeNonce = 0;
+
+    /** Newest sequence accepted per stream (see {@link SequencedPacket#getStream()}). */
+    private final Map<Integer, Integer> lastSeq = new HashMap<>();
+
+    public UnreliableChannel(Connection connection) {
+        this(connection, connection::sendTCP);
+    }
+
+    /**
+     * @param tcp where packets go while UDP is not available (e.g. an
+     *            {@link OutboundBatcher})
+     */
+    public UnreliableChannel(Connection connection, Consumer<Object> tcp) {
+        this.connection = connection;
+        this.tcp = tcp;
+    }
+
+    /** Stamps {@code packet} with the next sequence number. */
+    public static <T extends SequencedPacket> T stamp(T packet) {
+        packet.setSeq(SEQUENCE.incrementAndGet());
+        return packet;
+    }
+
+    /** Sends a stamped packet over UDP if it is known to work, else TCP. */
+    public void send(SequencedPacket packet) {
+        if (isUdpUp()) {
+            try {
+                connection.sendUDP(packet);
+                return;
+            } catch (IllegalStateException e) {
+                markUdpAbsent();
+            }
+        }
+        tcp.accept(packet);
+    }
+
+    /**
+     * Receiver-side sequence filter.
+     *
+     * @return false if the packet is stale and must be ignored
+     */
+    public synchronized boolean accept(SequencedPacket packet) {
+        int seq = packet.getSeq();
+        Integer last = lastSeq.get(packet.getStream());
+        if (last != null && seq - last <= 0)
+            return false;
+        lastSeq.put(packet.getStream(), seq);
+        return true;
+    }
+
+    /** Sends a probe when one is due. Call periodically (e.g. every tick). */
+    public void tick(long nowMs) {
+        if (udpAbsent)
+            return;
+        if (udpUp && nowMs - lastEchoMs > PROBE_TIMEOUT_MS) {
+            udpUp = false;
+            LOG.info("[UnreliableChannel] UDP to connection " + connection.getID() + " lost, using TCP.");
+        }
+        if (nowMs - lastProbeMs < PROBE_INTERVAL_MS)
+            return;
+        lastProbeMs = nowMs;
+        probeNonce = ThreadLocalRandom.current().nextInt();
+        try {
+            connection.sendUDP(new PacketUdpProbe(probeNonce, false));
+        } catch (IllegalStateException e) {
+            markUdpAbsent();
+        }
+    }
+
+    /** Handles a probe from the peer (echoes it) or an echo of ours. */
+    public void onProbe(PacketUdpProbe probe) {
+        if (!probe.echo) {
+            try {
+                connection.sendUDP(new PacketUdpProbe(probe.nonce, true));
+            } catch (IllegalStateException e) {
+                markUdpAbsent();
+            }
+            return;
+        }
+        if (probe.nonce != probeNonce)
+            return;
+        lastEchoMs = System.currentTimeMillis();
+        if (!udpUp) {
+            udpUp = true;
+            LOG.info("[UnreliableChannel] UDP to connection " + connection.getID() + " confirmed.");
+        }
+    }
+
+    public boolean isUdpUp() {
+        return udpUp && !udpAbsent;
+    }
+
+    private void markUdpAbsent() {
+        if (!udpAbsent) {
+            udpAbsent = true;
+            udpUp = false;
+            LOG.info("[UnreliableChannel] Connection " + connection.getID() + " has no UDP, using TCP.");
+        }
+    }
+}
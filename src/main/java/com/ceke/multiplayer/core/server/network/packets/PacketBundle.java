@@ -0,0 +1,39 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketBundle.java                                                      */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:58:04 by ceketrum                               */
+/*   Updated: 2026/10/17 21:58:04 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Several reliable packets coalesced into one TCP write by
+ * {@code OutboundBatcher}. {@code frames} holds, for each packet, its
+ * serialized length (varint) followed by the Kryo class and object.
+ */
+public class PacketBundle {
+    public int count;
+    public byte[] frames;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketBundle() {
+    }
+
+    public PacketBundle(int count, byte[] frames) {
+        this.count = count;
+        this.frames = frames;
+    }
+}
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -26,6 +26,9 @@ public class PacketChat {
     public String senderName;
     public String message;
 
+    /** Sender; set by the host when relaying (0 = host). */
+    public int playerId;
+
     public PacketChat() {
     }
 
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 21:38:55 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -24,22 +24,26 @@ package com.ceke.multiplayer.core.server.network.packets;
  * Contains a compressed snapshot of the world state that clients need to
  * reconcile with.
  *
- * NOTE: Initially this is a stub. Full delta-compression of the game state is
- * complex
- * and will be built incrementally. Start with tick number and future fields.
+ * {@code data} is either a keyframe ({@code baseTick == KEYFRAME}) or a delta
+ * against the snapshot of {@code baseTick}, which the client acknowledged
+ * earlier via {@link PacketGameStateAck}. See
+ * {@link com.ceke.multiplayer.core.server.sync.SnapshotDeltaCodec}.
  */
 public class PacketGameState {
 
+    /** {@link #baseTick} value marking a full keyframe. */
+    public static final long KEYFRAME = -1L;
+
     /**
      * Monotonically increasing tick counter. Clients use this to detect missed
      * ticks.
      */
     public long tick;
 
-    /**
-     * Serialized game state delta.
-     * For now left as a byte array placeholder; the sync system will fill this.
-     */
+    /** Tick of the snapshot {@link #data} is relative to, or {@link #KEYFRAME}. */
+    public long baseTick = KEYFRAME;
+
+    /** Serialized game state delta (or keyframe). */
     public byte[] data;
 
     public PacketGameState() {
@@ -49,4 +53,10 @@ public class PacketGameState {
         this.tick = tick;
         this.data = data;
     }
+
+    public PacketGameState(long tick, long baseTick, byte[] data) {
+        this.tick = tick;
+        this.baseTick = baseTick;
+        this.data = data;
+    }
 }
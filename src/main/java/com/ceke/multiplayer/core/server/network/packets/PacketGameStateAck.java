@@ -0,0 +1,36 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketGameStateAck.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:38:55 by ceketrum                               */
+/*   Updated: 2026/10/17 21:38:55 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Sent by the client after applying a {@link PacketGameState}.
+ * The host diffs the next snapshots against the acknowledged tick.
+ * A tick of {@code -1} asks the host for a full keyframe.
+ */
+public class PacketGameStateAck {
+    public long tick;
+
+    public PacketGameStateAck() {
+    }
+
+    public PacketGameStateAck(long tick) {
+        this.tick = tick;
+    }
+}
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:33:13 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -22,12 +22,31 @@ package com.ceke.multiplayer.core.server.network.packets;
 /**
  * Handshake packet — first thing sent by the client upon connecting.
  * The host validates it; mismatches (e.g. wrong mod version) cause rejection.
+ *
+ * The client lists the saves it has cached in {@link #cachedSaves}; the host's
+ * reply names its save in {@link #saveHash}. When the client already holds that
+ * save, the host skips {@link PacketWorldLoad} entirely.
  */
 public class PacketHandshake {
     public String playerName;
     public String modVersion;
     public String activeMod;
 
+    /** Host reply: SHA-256 of the host's save, or null for a new game. */
+    public String saveHash;
+
+    /** Client: hashes of the saves in its local cache (may be empty). */
+    public String[] cachedSaves;
+
+    /** Host reply: the ID assigned to this client for the session (host is 0). */
+    public int playerId;
+
+    /** Host reply: the session runs in lockstep (inputs instead of world state). */
+    public boolean lockstep;
+
+    /** Host reply: turns between receiving an input and applying it, in lockstep. */
+    public int inputDelay;
+
     public PacketHandshake() {
     }
 
@@ -0,0 +1,40 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketHeartbeat.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:25:04 by ceketrum                               */
+/*   Updated: 2026/10/17 22:26:26 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Latency heartbeat. Each side sends one over TCP every
+ * {@code LatencyHistogram.HEARTBEAT_INTERVAL_MS}; the peer returns it at once
+ * with {@link #echo} set, and the sender records the round trip.
+ */
+public class PacketHeartbeat {
+
+    /** Sender's {@code CursorSyncManager.nowMs()} when it left. */
+    public long sentMs;
+    public boolean echo;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketHeartbeat() {
+    }
+
+    public PacketHeartbeat(long sentMs) {
+        this.sentMs = sentMs;
+    }
+}
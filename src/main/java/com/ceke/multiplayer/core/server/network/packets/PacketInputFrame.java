@@ -0,0 +1,39 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketInputFrame.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:17:11 by ceketrum                               */
+/*   Updated: 2026/10/17 22:17:11 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Lockstep: every input of every player to apply on {@link #turn}, in the
+ * order to apply them. The host sends one per turn, empty or not, so a
+ * client knows how far the host has got.
+ */
+public class PacketInputFrame {
+    public long turn;
+    public PacketPlayerInput[] inputs;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketInputFrame() {
+    }
+
+    public PacketInputFrame(long turn, PacketPlayerInput[] inputs) {
+        this.turn = turn;
+        this.inputs = inputs;
+    }
+}
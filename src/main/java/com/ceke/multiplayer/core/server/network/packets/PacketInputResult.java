@@ -0,0 +1,61 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketInputResult.java                                                 */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:18:39 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Host answer to a batch of {@link PacketPlayerInput}s of one client: for
+ * each input sequence number, whether it was applied and if not, why.
+ */
+public class PacketInputResult {
+
+    /** Applied. */
+    public static final byte ACCEPTED = 0;
+    /** Merged into an identical input of the same batch, which was applied. */
+    public static final byte COALESCED = 1;
+    /** Unknown input type. */
+    public static final byte REJECTED_TYPE = 2;
+    /** Failed validation against the host's game state. */
+    public static final byte REJECTED_INVALID = 3;
+    /** Too many inputs waiting for this player. */
+    public static final byte REJECTED_RATE = 4;
+    /** Validated, but applying it failed on the host. */
+    public static final byte REJECTED_FAILED = 5;
+    /** The host's mod does not apply this kind of input (or none at all). */
+    public static final byte REJECTED_UNSUPPORTED = 6;
+
+    /** Sequence numbers of the answered inputs, in the order they were sent. */
+    public int[] seqs;
+
+    /** One of the codes above for each entry of {@link #seqs}. */
+    public byte[] codes;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketInputResult() {
+    }
+
+    public PacketInputResult(int[] seqs, byte[] codes) {
+        this.seqs = seqs;
+        this.codes = codes;
+    }
+
+    public static boolean isAccepted(byte code) {
+        return code == ACCEPTED || code == COALESCED;
+    }
+}
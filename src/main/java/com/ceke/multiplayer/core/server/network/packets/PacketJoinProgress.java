@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -27,6 +27,9 @@ public class PacketJoinProgress {
     public String statusText;
     public float progressPercent; // 0.0 to 1.0
 
+    /** Joining player the progress belongs to; set by the host when relaying. */
+    public int playerId;
+
     public PacketJoinProgress() {
     }
 
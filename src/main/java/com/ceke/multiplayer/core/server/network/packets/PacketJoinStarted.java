@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -27,10 +27,18 @@ package com.ceke.multiplayer.core.server.network.packets;
 public class PacketJoinStarted {
     public String joiningPlayerName;
 
+    /** ID the host assigned to the joining player. */
+    public int playerId;
+
     public PacketJoinStarted() {
     }
 
     public PacketJoinStarted(String playerName) {
         this.joiningPlayerName = playerName;
     }
+
+    public PacketJoinStarted(int playerId, String playerName) {
+        this.playerId = playerId;
+        this.joiningPlayerName = playerName;
+    }
 }
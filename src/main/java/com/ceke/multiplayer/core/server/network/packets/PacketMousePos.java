@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:23:39 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -22,10 +22,25 @@ package com.ceke.multiplayer.core.server.network.packets;
 /**
  * Sent by both host and client to share the mouse cursor position.
  * Coordinates are precise WORLD PIXELS (not screen pixels, nor world tiles).
+ * Travels unreliable-sequenced over UDP when available (see
+ * {@link com.ceke.multiplayer.core.server.network.UnreliableChannel}).
  */
-public class PacketMousePos {
+public class PacketMousePos implements SequencedPacket {
     public float x;
     public float y;
+    public int seq;
+
+    /**
+     * Monotonic time (ms) the position was sampled: on the sender's clock when
+     * sent to the host, on the host's clock when relayed (0 if unknown).
+     */
+    public long time;
+
+    /** False for a rest or keep-alive sample: the receiver must not extrapolate past it. */
+    public boolean moving;
+
+    /** Player the cursor belongs to; set by the host (0 for its own cursor). */
+    public int playerId;
 
     public PacketMousePos() {
     }
@@ -34,4 +49,20 @@ public class PacketMousePos {
         this.x = x;
         this.y = y;
     }
+
+    @Override
+    public int getSeq() {
+        return seq;
+    }
+
+    @Override
+    public void setSeq(int seq) {
+        this.seq = seq;
+    }
+
+    /** Relayed cursors keep their sender's sequence: one stream per player. */
+    @Override
+    public int getStream() {
+        return playerId;
+    }
 }
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -24,6 +24,7 @@ package com.ceke.multiplayer.core.server.network.packets;
  *
  * The server is authoritative: it receives these inputs, validates them,
  * applies them to the game state, and broadcasts the result to all clients.
+ * Each input is answered with a {@link PacketInputResult} entry.
  */
 public class PacketPlayerInput {
 
@@ -37,6 +38,25 @@ public class PacketPlayerInput {
     /** Extra integer payload (e.g. building ID, unit ID). */
     public int payload;
 
+    /** Per-client sequence number, echoed in {@link PacketInputResult}. */
+    public int seq;
+
+    /** Player who issued the input; set by the host. */
+    public int playerId;
+
+    /**
+     * Host tick the input was made at, as the client's
+     * {@link com.ceke.multiplayer.core.server.sync.ClockSync} estimates it
+     * (-1 if unknown); set by {@code GameClient.sendInput}.
+     */
+    public long hostTick = -1;
+
+    /**
+     * Lockstep only: turn on which every machine applies this input; set by
+     * the host (see {@link com.ceke.multiplayer.core.server.sync.LockstepScheduler}).
+     */
+    public long executeTurn;
+
     // --- Input types ---
     /** Left-click on a tile. */
     public static final byte TYPE_CLICK_TILE = 1;
@@ -44,6 +64,8 @@ public class PacketPlayerInput {
     public static final byte TYPE_RIGHT_CLICK = 2;
     /** Key press — payload holds the key code. */
     public static final byte TYPE_KEY_PRESS = 3;
+    /** Game speed change — payload holds the target speed. */
+    public static final byte TYPE_SET_SPEED = 4;
 
     public PacketPlayerInput() {
     }
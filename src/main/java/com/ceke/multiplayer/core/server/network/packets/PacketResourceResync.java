@@ -0,0 +1,39 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketResourceResync.java                                              */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:12:54 by ceketrum                               */
+/*   Updated: 2026/10/17 22:12:54 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Sent by the client when a {@link PacketSyncResourcesDelta} does not apply
+ * to the resource version it holds. The host answers with a full
+ * {@link PacketSyncResources} on its next sync.
+ */
+public class PacketResourceResync {
+
+    /** Resource version the client holds, or -1 for none. */
+    public long version;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketResourceResync() {
+    }
+
+    public PacketResourceResync(long version) {
+        this.version = version;
+    }
+}
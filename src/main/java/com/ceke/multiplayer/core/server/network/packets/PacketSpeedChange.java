@@ -13,19 +13,19 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 19:08:26 by ceketrum                               */
-/*   Updated: 2026/02/28 19:08:26 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.server.network.packets;
 
 /**
- * Sent by any player when they change the game speed.
+ * Sent by the host to every client when the game speed changes.
  *
  * Flow:
- * CLIENT changes speed → sends this to HOST
- * HOST validates → applies locally → re-broadcasts to all OTHER clients
- * HOST changes speed → broadcasts directly to all clients
+ * HOST changes speed → broadcasts this to all clients
+ * CLIENT changes speed → sends a {@link PacketPlayerInput#TYPE_SET_SPEED}
+ * input; the HOST validates and applies it, then broadcasts this
  *
  * {@code speed} maps to {@code game.GAME.SPEED.speedTarget()} values:
  * 0 = paused, 1 = normal, 2 = fast, 3 = fastest
@@ -35,6 +35,12 @@ public class PacketSpeedChange {
     /** Target game speed (0–3). */
     public int speed;
 
+    /** Player who changed it (0 = host). */
+    public int playerId;
+
+    /** Host tick the change was applied at. */
+    public long hostTick = -1;
+
     /** KryoNet requires a no-arg constructor. */
     public PacketSpeedChange() {
     }
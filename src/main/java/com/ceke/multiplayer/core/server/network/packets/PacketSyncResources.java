@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 22:14:14 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -23,8 +23,18 @@ package com.ceke.multiplayer.core.server.network.packets;
  * Sent by the host to synchronize the exact resource quantities to clients.
  * This covers the internal arrays for the stockpiles, haulers, exports, and
  * imports.
+ *
+ * This is the full form; once a client holds a version it usually gets a
+ * {@link PacketSyncResourcesDelta} instead.
  */
 public class PacketSyncResources {
+
+    /** Number of tally arrays, see {@link #toArrays()}. */
+    public static final int ARRAYS = 9;
+
+    /** Host resource version of these values. */
+    public long version;
+
     public int[] stockpileAms;
     public int[] stockpileReservedAms;
     public int[] haulerAms;
@@ -37,4 +47,28 @@ public class PacketSyncResources {
 
     public PacketSyncResources() {
     }
+
+    /** Builds a packet from arrays in {@link #toArrays()} order. */
+    public PacketSyncResources(long version, int[][] arrays) {
+        this.version = version;
+        stockpileAms = arrays[0];
+        stockpileReservedAms = arrays[1];
+        haulerAms = arrays[2];
+        haulerReservedAms = arrays[3];
+        haulerSpace = arrays[4];
+        haulerSpaceReserved = arrays[5];
+        exportAms = arrays[6];
+        exportPromised = arrays[7];
+        importAms = arrays[8];
+    }
+
+    /** All tally arrays in field order (entries may be null). */
+    public int[][] toArrays() {
+        return new int[][] {
+                stockpileAms, stockpileReservedAms,
+                haulerAms, haulerReservedAms,
+                haulerSpace, haulerSpaceReserved,
+                exportAms, exportPromised,
+                importAms };
+    }
 }
@@ -0,0 +1,52 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketSyncResourcesDelta.java                                          */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:12:54 by ceketrum                               */
+/*   Updated: 2026/10/17 22:12:54 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Sent by the host instead of a full {@link PacketSyncResources} when the
+ * client already holds version {@link #baseVersion}: only the tally slots
+ * that changed since then.
+ *
+ * Slots are addressed by their flat index over the non-null arrays of the
+ * full packet, in field order. A client whose version is not
+ * {@code baseVersion} drops the delta and sends a
+ * {@link PacketResourceResync}.
+ */
+public class PacketSyncResourcesDelta {
+    public long version;
+    public long baseVersion;
+
+    /** Flat slot indices, ascending. */
+    public int[] indices;
+
+    /** New value of each slot in {@link #indices}. */
+    public int[] values;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketSyncResourcesDelta() {
+    }
+
+    public PacketSyncResourcesDelta(long version, long baseVersion, int[] indices, int[] values) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.indices = indices;
+        this.values = values;
+    }
+}
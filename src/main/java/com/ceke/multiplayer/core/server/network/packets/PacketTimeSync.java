@@ -0,0 +1,54 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketTimeSync.java                                                    */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:20:58 by ceketrum                               */
+/*   Updated: 2026/10/17 22:23:39 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * One NTP-style clock exchange (see
+ * {@link com.ceke.multiplayer.core.server.sync.ClockSync}).
+ *
+ * The client sends it with {@link #clientSendMs} and its current estimate
+ * of the host clock; the host fills in its receive / send times and its
+ * tick reference and sends it straight back. Times are each side's
+ * {@code CursorSyncManager.nowMs()}.
+ */
+public class PacketTimeSync {
+
+    /** Client: time the request left. */
+    public long clientSendMs;
+
+    /** Host: time the request arrived / the reply left. */
+    public long hostReceiveMs;
+    public long hostSendMs;
+
+    /** Host: its current tick, when that tick started, and the tick period. */
+    public long hostTick;
+    public long hostTickMs;
+    public int tickPeriodMs;
+
+    /** Client: its current estimate (host clock minus client clock, one-way delay, jitter). */
+    public long offsetMs;
+    public long delayMs;
+    public long jitterMs;
+    public boolean synced;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketTimeSync() {
+    }
+}
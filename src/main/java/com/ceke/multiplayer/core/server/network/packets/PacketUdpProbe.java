@@ -0,0 +1,39 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketUdpProbe.java                                                    */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:53:55 by ceketrum                               */
+/*   Updated: 2026/10/17 21:53:55 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * UDP reachability probe. Each side sends one over UDP every few seconds; the
+ * peer returns it over UDP with {@link #echo} set. Ephemeral traffic only goes
+ * over UDP while echoes keep coming back.
+ */
+public class PacketUdpProbe {
+    public int nonce;
+    public boolean echo;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketUdpProbe() {
+    }
+
+    public PacketUdpProbe(int nonce, boolean echo) {
+        this.nonce = nonce;
+        this.echo = echo;
+    }
+}
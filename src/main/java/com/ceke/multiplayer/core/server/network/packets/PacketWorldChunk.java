@@ -0,0 +1,40 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketWorldChunk.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:39:51 by ceketrum                               */
+/*   Updated: 2026/10/17 21:39:51 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * One fixed-size slice of a streamed world save (host → client).
+ * The last chunk of a transfer may be shorter than the announced chunk size.
+ */
+public class PacketWorldChunk {
+    public int transferId;
+    public int index;
+    public byte[] data;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketWorldChunk() {
+    }
+
+    public PacketWorldChunk(int transferId, int index, byte[] data) {
+        this.transferId = transferId;
+        this.index = index;
+        this.data = data;
+    }
+}
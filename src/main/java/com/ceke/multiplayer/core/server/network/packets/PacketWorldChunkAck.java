@@ -0,0 +1,39 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketWorldChunkAck.java                                               */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:39:52 by ceketrum                               */
+/*   Updated: 2026/10/17 21:39:52 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Flow-control acknowledgement for a streamed world save (client → host).
+ * {@code received} is the number of chunks the client has written so far;
+ * the host keeps at most a fixed window of chunks in flight beyond it.
+ */
+public class PacketWorldChunkAck {
+    public int transferId;
+    public int received;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketWorldChunkAck() {
+    }
+
+    public PacketWorldChunkAck(int transferId, int received) {
+        this.transferId = transferId;
+        this.received = received;
+    }
+}
@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:20 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -21,14 +21,54 @@ package com.ceke.multiplayer.core.server.network.packets;
 
 /**
  * Sent by the host to the client immediately after a valid handshake.
- * Contains the compressed (zip) byte array of the host's current save folder.
  * This guarantees the client starts with the exact same world state.
+ *
+ * Two modes:
+ * <ul>
+ * <li><b>New game</b>: {@link #saveZipBytes} is an empty array; there is no
+ * save to transfer.</li>
+ * <li><b>Streamed</b>: {@link #saveZipBytes} is null and the zip follows as
+ * {@link #chunkCount} {@link PacketWorldChunk}s of {@link #chunkSize} bytes,
+ * flow-controlled by {@link PacketWorldChunkAck}.</li>
+ * </ul>
+ * After the header the host waits. The client checks {@link #chunkCrcs}
+ * against whatever is left of an interrupted download, then either fetches the
+ * missing chunks over the bulk channel ({@link #bulkPort} &gt; 0) or sends
+ * {@link PacketWorldTransferStart} to have them streamed.
  */
 public class PacketWorldLoad {
 
-    /** The zipped contents of the host's save directory. */
+    /** Empty for a new game, null for a streamed transfer. */
     public byte[] saveZipBytes;
 
+    /** Streamed mode: identifies the chunks belonging to this transfer. */
+    public int transferId;
+
+    /** Streamed mode: total zip size in bytes. */
+    public long totalBytes;
+
+    /** Streamed mode: size of every chunk but the last. */
+    public int chunkSize;
+
+    /** Streamed mode: number of chunks to expect. */
+    public int chunkCount;
+
+    /** Streamed mode: CRC32 of every chunk, used to resume a download. */
+    public int[] chunkCrcs;
+
+    /**
+     * Streamed mode: when non-null the zip holds a
+     * {@link com.ceke.multiplayer.core.server.sync.SaveDelta} against the
+     * client's cached save with this hash, not the save itself.
+     */
+    public String deltaBasis;
+
+    /** Host port of the zero-copy bulk channel, or 0 when not offered. */
+    public int bulkPort;
+
+    /** Token to present on the bulk channel. */
+    public long bulkToken;
+
     /** KryoNet requires a no-arg constructor. */
     public PacketWorldLoad() {
     }
@@ -36,4 +76,16 @@ public class PacketWorldLoad {
     public PacketWorldLoad(byte[] saveZipBytes) {
         this.saveZipBytes = saveZipBytes;
     }
+
+    /** Header of a streamed transfer. */
+    public PacketWorldLoad(int transferId, long totalBytes, int chunkSize, int chunkCount) {
+        this.transferId = transferId;
+        this.totalBytes = totalBytes;
+        this.chunkSize = chunkSize;
+        this.chunkCount = chunkCount;
+    }
+
+    public boolean isStreamed() {
+        return saveZipBytes == null;
+    }
 }
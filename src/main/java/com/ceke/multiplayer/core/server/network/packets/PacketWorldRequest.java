@@ -0,0 +1,57 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketWorldRequest.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:48:53 by ceketrum                               */
+/*   Updated: 2026/10/17 21:48:53 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Client → host, after a handshake reply whose save is not in the client's
+ * cache: asks for the host's world save.
+ *
+ * When the client holds an older cached save ({@link #basisHash} non-null) it
+ * sends that file's block signatures, and the host answers with an rsync-style
+ * delta against it instead of the full save (see
+ * {@link com.ceke.multiplayer.core.server.sync.SaveDelta}).
+ */
+public class PacketWorldRequest {
+
+    /** SHA-256 of the client's basis save, or null to request the full save. */
+    public String basisHash;
+
+    public int blockSize;
+    public long basisLength;
+
+    /** Rolling checksum of every full basis block. */
+    public int[] weak;
+
+    /** Truncated MD5 of every full basis block. */
+    public long[] strong;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketWorldRequest() {
+    }
+
+    /** Request for the full save. */
+    public PacketWorldRequest(String basisHash) {
+        this.basisHash = basisHash;
+    }
+
+    public boolean isDelta() {
+        return basisHash != null && weak != null && strong != null && weak.length == strong.length;
+    }
+}
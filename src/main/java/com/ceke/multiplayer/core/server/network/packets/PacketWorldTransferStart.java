@@ -0,0 +1,41 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketWorldTransferStart.java                                          */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:41:52 by ceketrum                               */
+/*   Updated: 2026/10/17 21:45:59 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Sent by the client once it knows which chunks of a streamed world save it
+ * already holds (from an interrupted download). The host then streams the
+ * missing ones as {@link PacketWorldChunk}s and withdraws its bulk offer.
+ */
+public class PacketWorldTransferStart {
+    public int transferId;
+
+    /** Bitset ({@link java.util.BitSet#toLongArray()}) of verified chunks. */
+    public long[] haveChunks;
+
+    /** KryoNet requires a no-arg constructor. */
+    public PacketWorldTransferStart() {
+    }
+
+    public PacketWorldTransferStart(int transferId, long[] haveChunks) {
+        this.transferId = transferId;
+        this.haveChunks = haveChunks;
+    }
+}
@@ -0,0 +1,41 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SequencedPacket.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:53:55 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network.packets;
+
+/**
+ * Ephemeral packet sent through
+ * {@link com.ceke.multiplayer.core.server.network.UnreliableChannel}: only the
+ * newest one matters, so the receiver drops anything with an older sequence.
+ */
+public interface SequencedPacket {
+
+    int getSeq();
+
+    void setSeq(int seq);
+
+    /**
+     * Independent sequence space within one channel (e.g. the player a
+     * relayed packet originates from). Sequences are only compared within a
+     * stream.
+     */
+    default int getStream() {
+        return 0;
+    }
+}
@@ -0,0 +1,201 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ClockSync.java                                                         */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:20:58 by ceketrum                               */
+/*   Updated: 2026/10/17 22:23:39 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketTimeSync;
+
+/**
+ * NTP-style estimate of a peer's clock.
+ *
+ * <h3>Exchange</h3>
+ * The client stamps a {@link PacketTimeSync} when it leaves (t0), the host
+ * when it arrives (t1) and leaves again (t2), the client when it comes back
+ * (t3). Then
+ * <pre>
+ *   offset = ((t1 - t0) + (t2 - t3)) / 2    host clock minus client clock
+ *   rtt    = (t3 - t0) - (t2 - t1)          network round trip
+ * </pre>
+ * Queueing only ever adds delay, so the sample with the smallest round trip
+ * among the last {@link #WINDOW} is taken as the estimate; jitter is the
+ * RMS spread of the other samples' offsets around it.
+ *
+ * <h3>Schedule</h3>
+ * A burst of {@link #BURST} exchanges {@link #BURST_INTERVAL_MS} apart on
+ * connect, then one every {@link #INTERVAL_MS} to follow drift
+ * ({@link #isDue}).
+ *
+ * {@link #host()} is the client's estimate of the host clock; the host
+ * keeps one per client from the estimates clients report back
+ * ({@link #setReported}).
+ */
+public final class ClockSync {
+
+    public static final int WINDOW = 8;
+    public static final int BURST = 5;
+    public static final long BURST_INTERVAL_MS = 100;
+    public static final long INTERVAL_MS = 2000;
+
+    /** Samples needed before the estimate is used. */
+    private static final int MIN_SAMPLES = 3;
+
+    private static final ClockSync HOST = new ClockSync();
+
+    private final long[] offsets = new long[WINDOW];
+    private final long[] rtts = new long[WINDOW];
+    private int count = 0;
+    private int head = 0;
+    private long lastSentMs = Long.MIN_VALUE / 2;
+    private int sent = 0;
+
+    private volatile long offsetMs = 0;
+    private volatile long delayMs = 0;
+    private volatile long jitterMs = 0;
+    private volatile boolean synced = false;
+
+    /** Host tick reference from the last reply. */
+    private volatile long refTick = -1;
+    private volatile long refTickMs = 0;
+    private volatile int tickPeriodMs = 50;
+
+    /** Client: the estimate of the host clock. */
+    public static ClockSync host() {
+        return HOST;
+    }
+
+    // -----------------------------------------------------------------------
+    // Exchanges (client)
+    // -----------------------------------------------------------------------
+
+    /** True if the next exchange should be sent now; marks it sent if so. */
+    public synchronized boolean isDue(long nowMs) {
+        long interval = sent < BURST ? BURST_INTERVAL_MS : INTERVAL_MS;
+        if (nowMs - lastSentMs < interval)
+            return false;
+        lastSentMs = nowMs;
+        sent++;
+        return true;
+    }
+
+    /** Builds a request stamped with {@code nowMs} and the current estimate. */
+    public PacketTimeSync request(long nowMs) {
+        PacketTimeSync pkt = new PacketTimeSync();
+        pkt.clientSendMs = nowMs;
+        pkt.offsetMs = offsetMs;
+        pkt.delayMs = delayMs;
+        pkt.jitterMs = jitterMs;
+        pkt.synced = synced;
+        return pkt;
+    }
+
+    /** Adds the sample of a reply that arrived at {@code nowMs}. */
+    public synchronized void onReply(PacketTimeSync reply, long nowMs) {
+        long rtt = (nowMs - reply.clientSendMs) - (reply.hostSendMs - reply.hostReceiveMs);
+        if (rtt < 0)
+            return; // clock stepped; not a usable sample
+        offsets[head] = ((reply.hostReceiveMs - reply.clientSendMs) + (reply.hostSendMs - nowMs)) / 2;
+        rtts[head] = rtt;
+        head = (head + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (rtts[i] < rtts[best])
+                best = i;
+        }
+        long offset = offsets[best];
+        double spread = 0;
+        for (int i = 0; i < count; i++)
+            spread += (double) (offsets[i] - offset) * (offsets[i] - offset);
+
+        offsetMs = offset;
+        delayMs = rtts[best] / 2;
+        jitterMs = Math.round(Math.sqrt(spread / count));
+        synced = count >= MIN_SAMPLES;
+
+        refTick = reply.hostTick;
+        refTickMs = reply.hostTickMs;
+        if (reply.tickPeriodMs > 0)
+            tickPeriodMs = reply.tickPeriodMs;
+    }
+
+    /** Host: takes over the estimate a client reported (negated: client clock minus host clock). */
+    public void setReported(PacketTimeSync report) {
+        offsetMs = -report.offsetMs;
+        delayMs = report.delayMs;
+        jitterMs = report.jitterMs;
+        synced = report.synced;
+    }
+
+    /** Forgets every sample. Call on (re)connect. */
+    public synchronized void reset() {
+        count = 0;
+        head = 0;
+        sent = 0;
+        lastSentMs = Long.MIN_VALUE / 2;
+        offsetMs = 0;
+        delayMs = 0;
+        jitterMs = 0;
+        synced = false;
+        refTick = -1;
+    }
+
+    // -----------------------------------------------------------------------
+    // Estimate
+    // -----------------------------------------------------------------------
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /** Peer clock minus local clock (ms). */
+    public long getOffsetMs() {
+        return offsetMs;
+    }
+
+    /** One-way network delay of the fastest recent exchange (ms). */
+    public long getDelayMs() {
+        return delayMs;
+    }
+
+    public long getJitterMs() {
+        return jitterMs;
+    }
+
+    /** Local time (ms) as the peer's clock reads it. */
+    public long toPeerTime(long localMs) {
+        return localMs + offsetMs;
+    }
+
+    /** Peer time (ms) on the local clock. */
+    public long toLocalTime(long peerMs) {
+        return peerMs - offsetMs;
+    }
+
+    /**
+     * Client: the host tick the host is at right now, or -1 before the first
+     * reply.
+     */
+    public long estimatedHostTick(long nowMs) {
+        long tick = refTick;
+        if (tick < 0)
+            return -1;
+        return tick + Math.floorDiv(toPeerTime(nowMs) - refTickMs, (long) tickPeriodMs);
+    }
+}
@@ -0,0 +1,166 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   CursorPublisher.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:55:54 by ceketrum                               */
+/*   Updated: 2026/10/17 21:55:54 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
+
+/**
+ * Decides when the local cursor is worth sending.
+ *
+ * Polled at a high rate ({@link #POLL_INTERVAL_MS}), it only emits a packet
+ * when the cursor left the dead-band around the last sent position — every
+ * {@link #getFastIntervalMs() fast interval} while it moves quickly, every
+ * {@link #getNormalIntervalMs() normal interval} otherwise. Once the cursor
+ * stops, one final "rest" sample is sent (so the receiver stops
+ * extrapolating), then only a keep-alive every
+ * {@link #getKeepAliveMs() keep-alive interval}. Each packet carries the
+ * sample time so the receiver can play samples back at their real spacing.
+ *
+ * One instance per sending side; not thread-safe (poll from one thread).
+ */
+public final class CursorPublisher {
+
+    /** How often the sending side should call {@link #poll} (~60 Hz). */
+    public static final int POLL_INTERVAL_MS = 16;
+
+    private float deadBandPx = 2f;
+    private float fastSpeedPxPerSec = 800f;
+    private long fastIntervalMs = POLL_INTERVAL_MS;
+    private long normalIntervalMs = 50;
+    private long keepAliveMs = 1000;
+
+    private boolean sentAny = false;
+    private float sentX, sentY;
+    private long sentMs;
+    private boolean moving = false;
+
+    private float polledX, polledY;
+    private long polledMs;
+    private long lastMoveMs;
+
+    /**
+     * Feeds the current local cursor.
+     *
+     * @param nowMs monotonic time ({@link CursorSyncManager#nowMs()})
+     * @return the packet to send now, or null to stay quiet
+     */
+    public PacketMousePos poll(long nowMs, float x, float y) {
+        float speed = 0f;
+        if (polledMs != 0 && nowMs > polledMs) {
+            float step = distance(x, y, polledX, polledY);
+            speed = step * 1000f / (nowMs - polledMs);
+            if (step > 0f)
+                lastMoveMs = nowMs;
+        }
+        polledX = x;
+        polledY = y;
+        polledMs = nowMs;
+
+        if (!sentAny)
+            return send(nowMs, x, y, false);
+
+        long sinceSend = nowMs - sentMs;
+        if (distance(x, y, sentX, sentY) > deadBandPx) {
+            long interval = speed >= fastSpeedPxPerSec ? fastIntervalMs : normalIntervalMs;
+            return sinceSend >= interval ? send(nowMs, x, y, true) : null;
+        }
+        if (moving && nowMs - lastMoveMs >= normalIntervalMs)
+            return send(nowMs, x, y, false); // came to rest inside the dead-band
+        if (sinceSend >= keepAliveMs)
+            return send(nowMs, x, y, moving);
+        return null;
+    }
+
+    /** Forces the next {@link #poll} to send (e.g. after a reconnect). */
+    public void reset() {
+        sentAny = false;
+        moving = false;
+        polledMs = 0;
+    }
+
+    // -----------------------------------------------------------------------
+    // Tuning
+    // -----------------------------------------------------------------------
+
+    public float getDeadBandPx() {
+        return deadBandPx;
+    }
+
+    /** Movements smaller than this (world pixels) are not sent. */
+    public void setDeadBandPx(float deadBandPx) {
+        this.deadBandPx = Math.max(0f, deadBandPx);
+    }
+
+    public float getFastSpeedPxPerSec() {
+        return fastSpeedPxPerSec;
+    }
+
+    /** Cursor speed above which the fast interval is used. */
+    public void setFastSpeedPxPerSec(float fastSpeedPxPerSec) {
+        this.fastSpeedPxPerSec = fastSpeedPxPerSec;
+    }
+
+    public long getFastIntervalMs() {
+        return fastIntervalMs;
+    }
+
+    public void setFastIntervalMs(long fastIntervalMs) {
+        this.fastIntervalMs = Math.max(POLL_INTERVAL_MS, fastIntervalMs);
+    }
+
+    public long getNormalIntervalMs() {
+        return normalIntervalMs;
+    }
+
+    public void setNormalIntervalMs(long normalIntervalMs) {
+        this.normalIntervalMs = Math.max(POLL_INTERVAL_MS, normalIntervalMs);
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    /** Interval of the position refresh sent while the cursor is idle. */
+    public void setKeepAliveMs(long keepAliveMs) {
+        this.keepAliveMs = Math.max(normalIntervalMs, keepAliveMs);
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private PacketMousePos send(long nowMs, float x, float y, boolean moving) {
+        sentAny = true;
+        sentX = x;
+        sentY = y;
+        sentMs = nowMs;
+        this.moving = moving;
+        PacketMousePos p = new PacketMousePos(x, y);
+        p.time = nowMs;
+        p.moving = moving;
+        return p;
+    }
+
+    private static float distance(float x1, float y1, float x2, float y2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
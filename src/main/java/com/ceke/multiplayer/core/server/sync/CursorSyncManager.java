@@ -13,7 +13,7 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:52 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
@@ -21,6 +21,9 @@ package com.ceke.multiplayer.core.server.sync;
 
 import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Manages cursor positions in precise WORLD PIXEL coordinates (sub-tile
  * accuracy).
@@ -29,22 +32,43 @@ import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
  * localX/Y = exact pixel coordinates of OUR cursor in the world (from
  * gw.mouse().x()/y())
  * <p>
- * remoteX/Y = exact pixel coordinates of the OTHER player's cursor (received
- * from network)
+ * Remote cursors = exact pixel coordinates of every OTHER player's cursor,
+ * keyed by player ID (received from network)
+ *
+ * <p>
+ * Each remote cursor keeps a small timestamped buffer. Rendering calls
+ * {@link #sampleRemote(int, float[])} which plays the cursor back
+ * {@link #getPlayoutDelayMs() playout delay} behind real time, interpolating
+ * between received samples and briefly extrapolating when the next one is
+ * late — so a 20 Hz stream draws smoothly at any frame rate. A cursor that
+ * sent nothing (not even a keep-alive) for {@link #REMOTE_TIMEOUT_MS} is
+ * dropped, which also covers players who left.
  *
  * <p>
- * All fields are volatile for thread-safety.
+ * Local fields are volatile for thread-safety; each sample buffer is guarded
+ * by its own lock.
  */
 public final class CursorSyncManager {
 
     private CursorSyncManager() {
     }
 
+    /** Samples kept for playback (1.6 s at 20 Hz). */
+    private static final int BUFFER = 32;
+
+    /** Furthest the cursor is projected past the newest sample. */
+    private static final long MAX_EXTRAPOLATION_MS = 150;
+
+    /** A remote cursor is forgotten after this long without a packet. */
+    public static final long REMOTE_TIMEOUT_MS = 5000;
+
+    private static volatile long playoutDelayMs = 100;
+
+    private static final Map<Integer, RemoteCursor> remotes = new ConcurrentHashMap<>();
+
     // World pixel coordinates (precise float values)
     private static volatile float localX = -1f;
     private static volatile float localY = -1f;
-    private static volatile float remoteX = -1f;
-    private static volatile float remoteY = -1f;
 
     // -----------------------------------------------------------------------
     // Local cursor — updated each frame from hover()
@@ -66,36 +90,86 @@ public final class CursorSyncManager {
         /* no-op */ }
 
     // -----------------------------------------------------------------------
-    // Packet helpers
+    // Remote cursors — set from the network thread
     // -----------------------------------------------------------------------
 
-    /** Returns a packet with the current local world pixel position. */
-    public static PacketMousePos getLocalCursorPacket() {
-        return new PacketMousePos(localX, localY);
+    /**
+     * Called when a remote cursor packet arrives. Samples are placed at the
+     * peer's sampling times (mapped onto the local clock through
+     * {@link ClockSync} once it is synced), so network jitter does not
+     * distort the playback. Safe to call from any thread.
+     */
+    public static void onRemoteCursor(PacketMousePos mp) {
+        RemoteCursor cursor = remote(mp.playerId);
+        if (mp.time == 0)
+            cursor.push(nowMs(), mp.x, mp.y, true);
+        else
+            cursor.pushTimed(mp);
     }
 
-    // -----------------------------------------------------------------------
-    // Remote cursor — set from the network thread
-    // -----------------------------------------------------------------------
+    /** Forgets every remote cursor (session ended); nothing is drawn until the next packet. */
+    public static void resetRemoteCursor() {
+        remotes.clear();
+    }
+
+    /** Forgets one player's cursor (that player left). */
+    public static void resetRemoteCursor(int playerId) {
+        remotes.remove(playerId);
+    }
 
-    /** Called when a remote cursor packet arrives. Safe to call from any thread. */
-    public static void setRemoteCursor(float worldX, float worldY) {
-        remoteX = worldX;
-        remoteY = worldY;
+    /** IDs of the players whose cursor is currently known. */
+    public static int[] remotePlayerIds() {
+        long now = nowMs();
+        remotes.entrySet().removeIf(e -> e.getValue().isStale(now));
+        return remotes.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
     }
 
     // -----------------------------------------------------------------------
-    // Accessors
+    // Playback
     // -----------------------------------------------------------------------
 
-    public static float getRemoteX() {
-        return remoteX;
+    /**
+     * Writes the position to show now of {@code playerId}'s cursor into
+     * {@code out[0..1]}.
+     *
+     * @return false if that player's position is not known
+     */
+    public static boolean sampleRemote(int playerId, float[] out) {
+        return sampleRemote(playerId, nowMs() - playoutDelayMs, out);
+    }
+
+    /** Playback at an explicit time on the {@link #nowMs()} clock. */
+    static boolean sampleRemote(int playerId, long renderTime, float[] out) {
+        RemoteCursor cursor = remotes.get(playerId);
+        return cursor != null && cursor.sample(renderTime, out);
+    }
+
+    public static long getPlayoutDelayMs() {
+        return playoutDelayMs;
     }
 
-    public static float getRemoteY() {
-        return remoteY;
+    /**
+     * How far behind real time remote cursors are drawn. About two send
+     * intervals hides one late or lost packet; 0 draws the newest sample
+     * (extrapolated) with no added latency.
+     */
+    public static void setPlayoutDelayMs(long delayMs) {
+        playoutDelayMs = Math.max(0, delayMs);
     }
 
+    /** Monotonic milliseconds used for sample timestamps. */
+    public static long nowMs() {
+        return System.nanoTime() / 1_000_000L;
+    }
+
+    private static RemoteCursor remote(int playerId) {
+        return remotes.computeIfAbsent(playerId, id -> new RemoteCursor());
+    }
+
+    // -----------------------------------------------------------------------
+    // Accessors
+    // -----------------------------------------------------------------------
+
     public static float getLocalX() {
         return localX;
     }
@@ -103,4 +177,110 @@ public final class CursorSyncManager {
     public static float getLocalY() {
         return localY;
     }
+
+    // -----------------------------------------------------------------------
+    // Per-player sample buffer
+    // -----------------------------------------------------------------------
+
+    private static final class RemoteCursor {
+        final long[] sampleTime = new long[BUFFER];
+        final float[] sampleX = new float[BUFFER];
+        final float[] sampleY = new float[BUFFER];
+        final boolean[] sampleMoving = new boolean[BUFFER];
+        int sampleHead = 0; // index of the next write
+        int sampleCount = 0;
+
+        /**
+         * Local clock minus the peer's sample clock, tracked as the smallest
+         * value seen (the least-delayed packet) and allowed to creep up slowly
+         * for drift.
+         */
+        long clockOffset = 0;
+        boolean clockOffsetKnown = false;
+
+        volatile long lastReceivedMs = nowMs();
+
+        synchronized void pushTimed(PacketMousePos mp) {
+            long now = nowMs();
+            ClockSync clock = ClockSync.host();
+            if (clock.isSynced()) {
+                // Client: times are on the host clock, which we already track
+                push(Math.min(now, clock.toLocalTime(mp.time) + clock.getDelayMs()), mp.x, mp.y, mp.moving);
+                return;
+            }
+            long offset = now - mp.time;
+            if (!clockOffsetKnown || offset < clockOffset) {
+                clockOffset = offset;
+                clockOffsetKnown = true;
+            } else {
+                clockOffset += (offset - clockOffset) / 64; // follow clock drift slowly
+            }
+            push(Math.min(now, mp.time + clockOffset), mp.x, mp.y, mp.moving);
+        }
+
+        synchronized void push(long time, float x, float y, boolean moving) {
+            if (sampleCount > 0)
+                time = Math.max(time, sampleTime[(sampleHead - 1 + BUFFER) % BUFFER]);
+            sampleTime[sampleHead] = time;
+            sampleMoving[sampleHead] = moving;
+            sampleX[sampleHead] = x;
+            sampleY[sampleHead] = y;
+            sampleHead = (sampleHead + 1) % BUFFER;
+            if (sampleCount < BUFFER)
+                sampleCount++;
+            lastReceivedMs = nowMs();
+        }
+
+        boolean isStale(long now) {
+            return now - lastReceivedMs > REMOTE_TIMEOUT_MS;
+        }
+
+        synchronized boolean sample(long renderTime, float[] out) {
+            if (sampleCount == 0)
+                return false;
+
+            int newest = (sampleHead - 1 + BUFFER) % BUFFER;
+            int oldest = (sampleHead - sampleCount + BUFFER) % BUFFER;
+
+            if (renderTime <= sampleTime[oldest]) {
+                out[0] = sampleX[oldest];
+                out[1] = sampleY[oldest];
+                return true;
+            }
+
+            if (renderTime >= sampleTime[newest]) {
+                // Late: keep moving along the last velocity for a short while, then hold.
+                // A rest / keep-alive sample is held as is.
+                out[0] = sampleX[newest];
+                out[1] = sampleY[newest];
+                if (sampleMoving[newest] && sampleCount >= 2) {
+                    int prev = (newest - 1 + BUFFER) % BUFFER;
+                    long dt = sampleTime[newest] - sampleTime[prev];
+                    if (dt > 0) {
+                        float ahead = Math.min(renderTime - sampleTime[newest], MAX_EXTRAPOLATION_MS);
+                        out[0] += (sampleX[newest] - sampleX[prev]) * ahead / dt;
+                        out[1] += (sampleY[newest] - sampleY[prev]) * ahead / dt;
+                    }
+                }
+                return true;
+            }
+
+            // Walk back from the newest sample to the pair surrounding renderTime
+            int b = newest;
+            for (int n = 1; n < sampleCount; n++) {
+                int a = (b - 1 + BUFFER) % BUFFER;
+                if (sampleTime[a] <= renderTime) {
+                    long span = sampleTime[b] - sampleTime[a];
+                    float t = span > 0 ? (renderTime - sampleTime[a]) / (float) span : 1f;
+                    out[0] = sampleX[a] + (sampleX[b] - sampleX[a]) * t;
+                    out[1] = sampleY[a] + (sampleY[b] - sampleY[a]) * t;
+                    return true;
+                }
+                b = a;
+            }
+            out[0] = sampleX[oldest];
+            out[1] = sampleY[oldest];
+            return true;
+        }
+    }
 }
@@ -0,0 +1,50 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   InputApplier.java                                                      */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:17:11 by ceketrum                               */
+/*   Updated: 2026/10/17 22:19:44 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketInputResult;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+
+/**
+ * Turns a player input into a game action. Provided by the active mod (see
+ * {@link com.ceke.multiplayer.core.server.GameMod#getInputApplier()}) and
+ * called on the game thread.
+ *
+ * In lockstep ({@link LockstepScheduler}) it runs on every machine, in the
+ * same order: implementations must only depend on the input and on state
+ * every machine shares; anything local (camera, selection, UI) breaks
+ * lockstep. Otherwise only the host runs it ({@link InputPipeline}), after
+ * {@link #validate}.
+ */
+public interface InputApplier {
+
+    /** Applies {@code input}, scheduled for {@code turn}. */
+    void apply(long turn, PacketPlayerInput input);
+
+    /**
+     * Host, authoritative mode: checks {@code input} against the current
+     * game state before it is applied. Called on the game thread.
+     *
+     * @return {@link PacketInputResult#ACCEPTED} or a rejection code
+     */
+    default byte validate(PacketPlayerInput input) {
+        return PacketInputResult.ACCEPTED;
+    }
+}
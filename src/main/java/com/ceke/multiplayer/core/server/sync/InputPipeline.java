@@ -0,0 +1,187 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   InputPipeline.java                                                     */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:18:55 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:57 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.GameMod;
+import com.ceke.multiplayer.core.server.ModLoader;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputResult;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Host-authoritative handling of {@link PacketPlayerInput} (when not in
+ * lockstep).
+ *
+ * Network threads {@link #submit} inputs into one bounded queue per player.
+ * Once per host tick, the game thread takes everything queued in a single
+ * pass ({@link #applyPending}), player by player in ID order:
+ * <ol>
+ * <li>inputs of an unknown type, off-map tile inputs, or any input while the
+ * mod has no {@link InputApplier}, are rejected;</li>
+ * <li>an input identical to one already applied in this pass (same player,
+ * type, tile and payload — a double click, a repeated build order) is
+ * coalesced into it;</li>
+ * <li>the rest go through the mod's {@link InputApplier#validate} and, if
+ * accepted, {@link InputApplier#apply}.</li>
+ * </ol>
+ * Every input gets a result code, returned per player as one
+ * {@link PacketInputResult} to send back.
+ */
+public final class InputPipeline {
+
+    private static final Logger LOG = Logger.getLogger(InputPipeline.class.getName());
+
+    /** Inputs a player may have waiting; more are rejected until the next pass. */
+    public static final int MAX_PENDING = 256;
+
+    private static final class PlayerQueue {
+        final ConcurrentLinkedQueue<PacketPlayerInput> inputs = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    /** Queues by player ID; sorted so each pass handles players in the same order. */
+    private static final Map<Integer, PlayerQueue> queues = new ConcurrentSkipListMap<>();
+
+    private InputPipeline() {
+    }
+
+    /**
+     * Queues an input of {@code playerId}. Safe to call from any thread.
+     *
+     * @return false if the player already has {@link #MAX_PENDING} inputs
+     *         waiting; the caller rejects it with
+     *         {@link PacketInputResult#REJECTED_RATE}
+     */
+    public static boolean submit(int playerId, PacketPlayerInput input) {
+        PlayerQueue q = queues.computeIfAbsent(playerId, id -> new PlayerQueue());
+        if (q.size.incrementAndGet() > MAX_PENDING) {
+            q.size.decrementAndGet();
+            return false;
+        }
+        input.playerId = playerId;
+        q.inputs.add(input);
+        return true;
+    }
+
+    /** True if any input waits for {@link #applyPending}. Read from the queues, so never out of step. */
+    public static boolean hasPending() {
+        for (PlayerQueue q : queues.values()) {
+            if (!q.inputs.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Validates, coalesces and applies every queued input. Call on the game
+     * thread, once per host tick.
+     *
+     * @param tick host tick passed to {@link InputApplier#apply}
+     * @return results to send, by player ID (players without inputs absent)
+     */
+    public static Map<Integer, PacketInputResult> applyPending(long tick) {
+        Map<Integer, PacketInputResult> results = new HashMap<>();
+        if (!hasPending())
+            return results;
+
+        GameMod mod = ModLoader.getActiveMod();
+        InputApplier applier = mod != null ? mod.getInputApplier() : null;
+
+        List<PacketPlayerInput> batch = new ArrayList<>();
+        List<PacketPlayerInput> taken = new ArrayList<>();
+        for (Map.Entry<Integer, PlayerQueue> e : queues.entrySet()) {
+            PlayerQueue q = e.getValue();
+            batch.clear();
+            for (PacketPlayerInput in; (in = q.inputs.poll()) != null;) {
+                q.size.decrementAndGet();
+                batch.add(in);
+            }
+            if (batch.isEmpty())
+                continue;
+
+            int[] seqs = new int[batch.size()];
+            byte[] codes = new byte[batch.size()];
+            taken.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                PacketPlayerInput in = batch.get(i);
+                seqs[i] = in.seq;
+                codes[i] = process(tick, in, applier, taken);
+            }
+            results.put(e.getKey(), new PacketInputResult(seqs, codes));
+        }
+        return results;
+    }
+
+    /** Drops the queue of a disconnected player. */
+    public static void forget(int playerId) {
+        queues.remove(playerId);
+    }
+
+    /** Drops everything. Call when a host session starts or stops. */
+    public static void reset() {
+        queues.clear();
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static byte process(long tick, PacketPlayerInput in, InputApplier applier, List<PacketPlayerInput> taken) {
+        if (in.type < PacketPlayerInput.TYPE_CLICK_TILE || in.type > PacketPlayerInput.TYPE_SET_SPEED)
+            return PacketInputResult.REJECTED_TYPE;
+        boolean onTile = in.type == PacketPlayerInput.TYPE_CLICK_TILE || in.type == PacketPlayerInput.TYPE_RIGHT_CLICK;
+        if (onTile && (in.tileX < 0 || in.tileY < 0))
+            return PacketInputResult.REJECTED_INVALID;
+        if (applier == null) {
+            LOG.fine("[InputPipeline] No input applier, rejecting input type=" + in.type
+                    + " of player " + in.playerId + ".");
+            return PacketInputResult.REJECTED_UNSUPPORTED;
+        }
+        // Only applied inputs absorb duplicates: a copy of a rejected one is judged on its own
+        for (PacketPlayerInput t : taken) {
+            if (sameAction(t, in))
+                return PacketInputResult.COALESCED;
+        }
+        try {
+            byte verdict = applier.validate(in);
+            if (verdict != PacketInputResult.ACCEPTED)
+                return verdict;
+            applier.apply(tick, in);
+            taken.add(in);
+            return PacketInputResult.ACCEPTED;
+        } catch (Exception e) {
+            LOG.warning("[InputPipeline] Input type=" + in.type + " of player " + in.playerId + " failed: " + e);
+            return PacketInputResult.REJECTED_FAILED;
+        }
+    }
+
+    /** Same action for coalescing: type, tile and payload (batches are small). */
+    private static boolean sameAction(PacketPlayerInput a, PacketPlayerInput b) {
+        return a.type == b.type && a.tileX == b.tileX && a.tileY == b.tileY && a.payload == b.payload;
+    }
+}
@@ -0,0 +1,256 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   LockstepScheduler.java                                                 */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:17:31 by ceketrum                               */
+/*   Updated: 2026/10/17 22:33:13 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.GameMod;
+import com.ceke.multiplayer.core.server.ModLoader;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputFrame;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Optional lockstep mode: instead of replicating world state, the host
+ * ships player inputs and every machine applies them itself.
+ *
+ * <h3>Turns</h3>
+ * A turn is one host tick. Inputs received during a turn are stamped with
+ * an execution turn {@link #getInputDelay()} turns ahead and closed into a
+ * {@link PacketInputFrame} ({@link #closeTurn}), which the host keeps and
+ * sends to every client. Inputs of a frame are ordered by player ID, then
+ * by arrival, so every machine applies them in the same order.
+ *
+ * <h3>Execution</h3>
+ * Frames are applied on the game thread ({@link #executeDue()}, called by
+ * {@link ModLoader#update}) once their turn is due: on the host when its
+ * tick reaches the turn, on a client when the frame it just received shows
+ * the host got there. A client whose {@link ClockSync} is synced instead runs
+ * a received frame as soon as its estimate of the host tick reaches the
+ * turn, i.e. at the same moment as the host rather than one trip later. The
+ * delay leaves that much time for a frame to reach the clients before it is
+ * due.
+ *
+ * Applying an input is up to the mod's {@link InputApplier}; the game's
+ * own simulation keeps running on each machine, so lockstep only stays in
+ * step for what the applier drives.
+ */
+public final class LockstepScheduler {
+
+    private static final Logger LOG = Logger.getLogger(LockstepScheduler.class.getName());
+
+    /** Local settings: what this machine hosts with. Set with {@code -Dceke.mp.lockstep} / {@link #setEnabled}. */
+    private static volatile boolean localEnabled = Boolean.getBoolean("ceke.mp.lockstep");
+
+    /** Turns between receiving an input and applying it. Override with {@code -Dceke.mp.inputDelayTurns}. */
+    private static volatile int localInputDelay = Math.max(1, Integer.getInteger("ceke.mp.inputDelayTurns", 3));
+
+    /** Settings of the running session: the local ones, or the host's while a client. */
+    private static volatile boolean enabled = localEnabled;
+    private static volatile int inputDelay = localInputDelay;
+
+    /** Host: inputs received since the last closed turn. */
+    private static final ConcurrentLinkedQueue<PacketPlayerInput> pending = new ConcurrentLinkedQueue<>();
+
+    /** Frames not applied yet, in turn order. Guarded by itself. */
+    private static final ArrayDeque<PacketInputFrame> frames = new ArrayDeque<>();
+
+    /** Highest turn that may be applied now. */
+    private static volatile long dueTurn = Long.MIN_VALUE;
+
+    /** Client: turn of the newest frame received. */
+    private static volatile long receivedTurn = Long.MIN_VALUE;
+
+    /** Last applied turn (game thread only). */
+    private static long executedTurn = Long.MIN_VALUE;
+
+    private static final Comparator<PacketPlayerInput> BY_PLAYER = Comparator.comparingInt(in -> in.playerId);
+
+    private LockstepScheduler() {
+    }
+
+    // -----------------------------------------------------------------------
+    // Host
+    // -----------------------------------------------------------------------
+
+    /** Queues an input of {@code playerId} for the next frame. Safe to call from any thread. */
+    public static void submit(int playerId, PacketPlayerInput input) {
+        input.playerId = playerId;
+        pending.add(input);
+    }
+
+    /**
+     * Closes the host's turn {@code tick}: every pending input goes into the
+     * frame of turn {@code tick + inputDelay}, which is kept for local
+     * execution and returned for broadcast. Call on the tick thread.
+     */
+    public static PacketInputFrame closeTurn(long tick) {
+        long turn = tick + inputDelay;
+        List<PacketPlayerInput> inputs = new ArrayList<>();
+        for (PacketPlayerInput in; (in = pending.poll()) != null;) {
+            in.executeTurn = turn;
+            inputs.add(in);
+        }
+        inputs.sort(BY_PLAYER); // stable: arrival order within a player
+        PacketInputFrame frame = new PacketInputFrame(turn, inputs.toArray(new PacketPlayerInput[0]));
+        schedule(frame);
+        dueTurn = tick;
+        return frame;
+    }
+
+    // -----------------------------------------------------------------------
+    // Client
+    // -----------------------------------------------------------------------
+
+    /** Stores a frame received from the host; frames up to the host's turn become due. */
+    public static void onFrame(PacketInputFrame frame) {
+        schedule(frame);
+        receivedTurn = frame.turn;
+        dueTurn = frame.turn - inputDelay;
+    }
+
+    // -----------------------------------------------------------------------
+    // Both
+    // -----------------------------------------------------------------------
+
+    /** Applies every frame whose turn is due, in order. Call on the game thread. */
+    public static void executeDue() {
+        if (!enabled)
+            return;
+        long due = dueTurn;
+        ClockSync clock = ClockSync.host();
+        if (receivedTurn != Long.MIN_VALUE && clock.isSynced())
+            due = Math.max(due, Math.min(receivedTurn, clock.estimatedHostTick(CursorSyncManager.nowMs())));
+        while (true) {
+            PacketInputFrame frame;
+            synchronized (frames) {
+                frame = frames.peek();
+                if (frame == null || frame.turn > due)
+                    return;
+                frames.poll();
+            }
+            if (frame.turn <= executedTurn) {
+                LOG.warning("[LockstepScheduler] Frame for turn " + frame.turn + " arrived after turn "
+                        + executedTurn + " ran; dropped.");
+                continue;
+            }
+            execute(frame);
+            executedTurn = frame.turn;
+        }
+    }
+
+    /** Drops all frames and pending inputs. Call when a session starts or stops. */
+    public static void reset() {
+        pending.clear();
+        synchronized (frames) {
+            frames.clear();
+        }
+        dueTurn = Long.MIN_VALUE;
+        receivedTurn = Long.MIN_VALUE;
+        executedTurn = Long.MIN_VALUE;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Host: call before the session starts (see {@link #useLocalSettings()}). */
+    public static void setEnabled(boolean on) {
+        localEnabled = on;
+    }
+
+    public static int getInputDelay() {
+        return inputDelay;
+    }
+
+    /** Host: call before the session starts (see {@link #useLocalSettings()}). */
+    public static void setInputDelay(int turns) {
+        localInputDelay = Math.max(1, turns);
+    }
+
+    /**
+     * Host session start, or a client leaving: goes back to the local
+     * settings. Lockstep is refused when the active mod has no
+     * {@link InputApplier}, since every input would be dropped while state
+     * sync is off.
+     */
+    public static void useLocalSettings() {
+        boolean on = localEnabled;
+        if (on && applier() == null) {
+            LOG.warning("[LockstepScheduler] Lockstep requested but the active mod has no input applier;"
+                    + " replicating world state instead.");
+            on = false;
+        }
+        enabled = on;
+        inputDelay = localInputDelay;
+    }
+
+    /** Client: takes over the mode and input delay of the host's handshake. */
+    public static void followHost(boolean on, int turns) {
+        if (on && applier() == null)
+            LOG.warning("[LockstepScheduler] Host runs lockstep but the active mod has no input applier;"
+                    + " inputs will not be applied.");
+        enabled = on;
+        inputDelay = Math.max(1, turns);
+    }
+
+    /** Last turn applied on this machine. */
+    public static long getExecutedTurn() {
+        return executedTurn;
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static void schedule(PacketInputFrame frame) {
+        synchronized (frames) {
+            frames.add(frame);
+        }
+    }
+
+    private static InputApplier applier() {
+        GameMod mod = ModLoader.getActiveMod();
+        return mod != null ? mod.getInputApplier() : null;
+    }
+
+    private static void execute(PacketInputFrame frame) {
+        if (frame.inputs == null || frame.inputs.length == 0)
+            return;
+        InputApplier applier = applier();
+        for (PacketPlayerInput in : frame.inputs) {
+            if (applier == null) {
+                LOG.fine("[LockstepScheduler] No input applier, skipping input type=" + in.type
+                        + " of player " + in.playerId + " on turn " + frame.turn);
+                continue;
+            }
+            try {
+                applier.apply(frame.turn, in);
+            } catch (Exception e) {
+                LOG.warning("[LockstepScheduler] Input type=" + in.type + " of player " + in.playerId
+                        + " failed on turn " + frame.turn + ": " + e);
+            }
+        }
+    }
+}
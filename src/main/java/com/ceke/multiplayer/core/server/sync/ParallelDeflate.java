@@ -0,0 +1,225 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ParallelDeflate.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:50:33 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:20 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Multi-core compression for save files.
+ *
+ * The input is cut into independent {@link #BLOCK_SIZE} blocks, each raw-
+ * deflated on its own worker, so compression time scales with the core count
+ * instead of running on one thread. The output is deterministic for a given
+ * input and level (resumed downloads rely on that).
+ *
+ * <h3>Layout</h3>
+ * {@code MAGIC}, raw length (long), block size (int), then for every block its
+ * compressed length (int) and the deflated bytes.
+ */
+public final class ParallelDeflate {
+
+    private static final int MAGIC = 0x43454B5A; // "CEKZ"
+
+    /** Uncompressed bytes per block (1 MB). */
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /** Blocks in flight at once — bounds memory to a few MB per core. */
+    private static final int IN_FLIGHT = THREADS * 2;
+
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread t = new Thread(r, "ceke-multiplayer-deflate");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ParallelDeflate() {
+    }
+
+    /**
+     * Compresses {@code source} into {@code target}.
+     *
+     * @param level {@link Deflater} level, 0-9 or
+     *              {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public static void compress(Path source, Path target, int level) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            long length = in.size();
+            long blocks = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            out.writeInt(MAGIC);
+            out.writeLong(length);
+            out.writeInt(BLOCK_SIZE);
+
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            for (long i = 0; i < blocks; i++) {
+                byte[] raw = read(in, i * BLOCK_SIZE, (int) Math.min(BLOCK_SIZE, length - i * BLOCK_SIZE));
+                pending.add(POOL.submit(() -> deflate(raw, level)));
+                if (pending.size() >= IN_FLIGHT)
+                    writeBlock(out, await(pending.poll()));
+            }
+            while (!pending.isEmpty())
+                writeBlock(out, await(pending.poll()));
+        }
+    }
+
+    /** Restores a file written by {@link #compress}, inflating blocks in parallel. */
+    public static void decompress(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 1 << 16));
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a compressed save: " + source);
+            long length = in.readLong();
+            int blockSize = in.readInt();
+            // Every block is allocated as read: a forged header must not size them
+            if (length < 0 || blockSize <= 0 || blockSize > BLOCK_SIZE)
+                throw new IOException("Corrupt compressed save header: " + source);
+            long blocks = (length + blockSize - 1) / blockSize;
+
+            List<Future<?>> pending = new ArrayList<>();
+            for (long i = 0; i < blocks; i++) {
+                long position = i * blockSize;
+                int rawLength = (int) Math.min(blockSize, length - position);
+                int compressedLength = in.readInt();
+                if (compressedLength < 0 || compressedLength > maxCompressed(rawLength))
+                    throw new IOException("Corrupt block " + i + " in " + source);
+                byte[] compressed = new byte[compressedLength];
+                in.readFully(compressed);
+                pending.add(POOL.submit(() -> {
+                    write(out, position, inflate(compressed, rawLength));
+                    return null;
+                }));
+                if (pending.size() >= IN_FLIGHT)
+                    await(pending.remove(0));
+            }
+            for (Future<?> f : pending)
+                await(f);
+        } catch (EOFException e) {
+            throw new IOException("Truncated compressed save: " + source, e);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static byte[] deflate(byte[] raw, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buf = new byte[raw.length + raw.length / 1000 + 64];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == buf.length)
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                n += deflater.deflate(buf, n, buf.length - n);
+            }
+            return Arrays.copyOf(buf, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Upper bound of a deflated block: zlib's deflateBound() plus some slack. */
+    static int maxCompressed(int rawLength) {
+        return rawLength + (rawLength >> 12) + (rawLength >> 14) + (rawLength >> 25) + 64;
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength) {
+                int r = inflater.inflate(raw, n, rawLength - n);
+                if (r == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IOException("Compressed block ended after " + n + "/" + rawLength + " bytes");
+                n += r;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] read(FileChannel in, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (in.read(buf, position + buf.position()) < 0)
+                throw new EOFException("Unexpected end of input at " + (position + buf.position()));
+        }
+        return buf.array();
+    }
+
+    private static void write(FileChannel out, long position, byte[] data) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        while (buf.hasRemaining())
+            out.write(buf, position + buf.position());
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] block) throws IOException {
+        out.writeInt(block.length);
+        out.write(block);
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io)
+                throw io;
+            throw new IOException("Compression worker failed", cause);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ResourceReplicator.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:13:27 by ceketrum                               */
+/*   Updated: 2026/10/17 22:32:37 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Versioned resource tallies behind {@link PacketSyncResources} and
+ * {@link PacketSyncResourcesDelta}.
+ *
+ * <h3>Host</h3>
+ * {@link #publish(int[][])} records the current tallies as a new version
+ * when anything changed. {@link #buildPacket(int)} then gives each client
+ * the slots that changed since the version it was last sent, or a full
+ * packet when it has none, asked for one ({@link #requestFull(int)}), or
+ * its version has left the history. Clients on the same version share one
+ * packet.
+ *
+ * <h3>Client</h3>
+ * {@link #applyFull} and {@link #applyDelta} rebuild the host's arrays; a
+ * delta against another version than the one held returns null so the
+ * client can ask for a full sync.
+ */
+public final class ResourceReplicator {
+
+    private static final Logger LOG = Logger.getLogger(ResourceReplicator.class.getName());
+
+    /** Versions kept on the host to build deltas from. */
+    private static final int HISTORY = 32;
+
+    /** Version value meaning "nothing held / send a full packet". */
+    public static final long NONE = -1L;
+
+    private ResourceReplicator() {
+    }
+
+    /** One published set of tallies. Never mutated once stored. */
+    private static final class Version {
+        final long version;
+        final int[][] arrays;
+
+        Version(long version, int[][] arrays) {
+            this.version = version;
+            this.arrays = arrays;
+        }
+    }
+
+    // ── Host state ───────────────────────────────────────────────────────
+
+    /** Published versions, written by the game thread only. */
+    private static final Version[] hostHistory = new Version[HISTORY];
+    private static volatile Version latest = null;
+
+    /** Version last sent to each client, or {@link #NONE}. */
+    private static final Map<Integer, Long> sent = new ConcurrentHashMap<>();
+
+    /** Packets built for {@link #latest}, keyed by base version (game thread only). */
+    private static final Map<Long, Object> packetCache = new HashMap<>();
+
+    // ── Client state ─────────────────────────────────────────────────────
+
+    private static PacketSyncResources held = null;
+
+    // -----------------------------------------------------------------------
+    // Host
+    // -----------------------------------------------------------------------
+
+    /**
+     * Records the current tallies (arrays in {@link PacketSyncResources#toArrays()}
+     * order, owned by the replicator from now on). Call on the game thread.
+     *
+     * @return true if they differ from the previous version (a new version
+     *         was recorded); clients behind still need {@link #buildPacket}
+     *         either way
+     */
+    public static boolean publish(int[][] arrays) {
+        Version prev = latest;
+        if (prev != null && Arrays.deepEquals(prev.arrays, arrays))
+            return false;
+        Version v = new Version(prev == null ? 0 : prev.version + 1, arrays);
+        hostHistory[slotOf(v.version)] = v;
+        packetCache.clear();
+        latest = v;
+        return true;
+    }
+
+    /**
+     * Builds the packet that brings a client to the latest version: a delta,
+     * a full packet, or null when it is already up to date. Call on the game
+     * thread, after {@link #publish}.
+     */
+    public static Object buildPacket(int playerId) {
+        Version v = latest;
+        if (v == null)
+            return null;
+        Long had = sent.computeIfAbsent(playerId, id -> NONE);
+        if (had == v.version)
+            return null;
+
+        Object pkt = packetCache.computeIfAbsent(had, base -> encode(historyAt(base), v));
+        // Lost to a concurrent requestFull() or forget(): the next sync sorts it out
+        if (!sent.replace(playerId, had, v.version))
+            return null;
+        return pkt;
+    }
+
+    /** Makes the next {@link #buildPacket} for this client a full packet. */
+    public static void requestFull(int playerId) {
+        sent.put(playerId, NONE);
+    }
+
+    /** Drops the state of a disconnected client. */
+    public static void forget(int playerId) {
+        sent.remove(playerId);
+    }
+
+    /** Clears all host-side state. Call when a host session starts or stops. */
+    public static void resetHost() {
+        sent.clear();
+        Arrays.fill(hostHistory, null);
+        packetCache.clear();
+        latest = null;
+    }
+
+    private static Object encode(Version base, Version target) {
+        if (base == null || !sameLayout(base.arrays, target.arrays))
+            return new PacketSyncResources(target.version, target.arrays);
+
+        List<int[]> changes = new ArrayList<>();
+        int flat = 0;
+        for (int a = 0; a < target.arrays.length; a++) {
+            int[] from = base.arrays[a];
+            int[] to = target.arrays[a];
+            if (to == null)
+                continue;
+            for (int i = 0; i < to.length; i++) {
+                if (from[i] != to[i])
+                    changes.add(new int[] { flat + i, to[i] });
+            }
+            flat += to.length;
+        }
+
+        // A delta touching most slots is no smaller than the full form
+        if (changes.size() * 2 > flat)
+            return new PacketSyncResources(target.version, target.arrays);
+
+        int[] indices = new int[changes.size()];
+        int[] values = new int[changes.size()];
+        for (int n = 0; n < indices.length; n++) {
+            indices[n] = changes.get(n)[0];
+            values[n] = changes.get(n)[1];
+        }
+        return new PacketSyncResourcesDelta(target.version, base.version, indices, values);
+    }
+
+    // -----------------------------------------------------------------------
+    // Client
+    // -----------------------------------------------------------------------
+
+    /** Stores a full packet as the held version and returns it. */
+    public static synchronized PacketSyncResources applyFull(PacketSyncResources pkt) {
+        held = pkt;
+        return pkt;
+    }
+
+    /**
+     * Applies a delta to the held version.
+     *
+     * @return the resulting full tallies, or null when the delta does not
+     *         apply to what is held (ask the host for a full sync)
+     */
+    public static synchronized PacketSyncResources applyDelta(PacketSyncResourcesDelta delta) {
+        if (held == null || held.version != delta.baseVersion) {
+            LOG.fine("[ResourceReplicator] Delta on v" + delta.baseVersion + " but holding v"
+                    + heldVersion() + ", requesting full sync.");
+            return null;
+        }
+
+        int[][] arrays = held.toArrays();
+        int[][] copy = new int[arrays.length][];
+        for (int a = 0; a < arrays.length; a++)
+            copy[a] = arrays[a] == null ? null : arrays[a].clone();
+
+        int a = 0;
+        int start = 0;
+        for (int n = 0; n < delta.indices.length; n++) {
+            int index = delta.indices[n];
+            while (a < copy.length && (copy[a] == null || index >= start + copy[a].length)) {
+                if (copy[a] != null)
+                    start += copy[a].length;
+                a++;
+            }
+            if (a == copy.length) {
+                LOG.warning("[ResourceReplicator] Delta slot " + index + " out of range, requesting full sync.");
+                return null;
+            }
+            copy[a][index - start] = delta.values[n];
+        }
+
+        held = new PacketSyncResources(delta.version, copy);
+        return held;
+    }
+
+    /** Version held by this client, or {@link #NONE}. */
+    public static synchronized long heldVersion() {
+        return held == null ? NONE : held.version;
+    }
+
+    /** Clears all client-side state. Call on (re)connect. */
+    public static synchronized void resetClient() {
+        held = null;
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static int slotOf(long version) {
+        return (int) Math.floorMod(version, (long) HISTORY);
+    }
+
+    private static Version historyAt(long version) {
+        if (version == NONE)
+            return null;
+        Version v = hostHistory[slotOf(version)];
+        return (v != null && v.version == version) ? v : null;
+    }
+
+    private static boolean sameLayout(int[][] a, int[][] b) {
+        if (a.length != b.length)
+            return false;
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] == null) != (b[i] == null))
+                return false;
+            if (a[i] != null && a[i].length != b[i].length)
+                return false;
+        }
+        return true;
+    }
+}
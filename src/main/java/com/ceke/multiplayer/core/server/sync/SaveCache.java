@@ -0,0 +1,193 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SaveCache.java                                                         */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:46:29 by ceketrum                               */
+/*   Updated: 2026/10/17 21:50:08 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * CLIENT: content-addressed cache of host saves that were downloaded before.
+ *
+ * Every save is stored as {@code <sha256>.save}. The client lists the hashes
+ * it holds in its {@link com.ceke.multiplayer.core.server.network.packets.PacketHandshake};
+ * when the host's save is one of them the host skips the world transfer and
+ * the client restores the cached copy instead. A file's modification time is
+ * its last use, and the least recently used saves are evicted once the cache
+ * exceeds {@link #MAX_BYTES}.
+ */
+public final class SaveCache {
+
+    private static final Logger LOG = Logger.getLogger(SaveCache.class.getName());
+
+    /** Total size the cache may grow to before evicting (1 GB). */
+    public static final long MAX_BYTES = 1L << 30;
+
+    /** Hashes advertised in the handshake, most recently used first. */
+    public static final int MAX_ADVERTISED = 16;
+
+    private static final String SUFFIX = ".save";
+
+    private SaveCache() {
+    }
+
+    /** Directory holding the cached saves. */
+    public static Path dir() {
+        String appdata = System.getenv("APPDATA");
+        return Paths.get(appdata, "songsofsyx", "ceke-multiplayer", "save-cache");
+    }
+
+    /** Hashes of the most recently used cached saves, newest first. */
+    public static synchronized String[] knownHashes() {
+        List<Path> files = list();
+        int n = Math.min(files.size(), MAX_ADVERTISED);
+        String[] hashes = new String[n];
+        for (int i = 0; i < n; i++) {
+            String name = files.get(i).getFileName().toString();
+            hashes[i] = name.substring(0, name.length() - SUFFIX.length());
+        }
+        return hashes;
+    }
+
+    /** The cached save with {@code hash}, or null if it is not cached. */
+    public static synchronized Path fileOf(String hash) {
+        Path cached = pathOf(hash);
+        return (cached != null && Files.isRegularFile(cached)) ? cached : null;
+    }
+
+    /** Hash of the most recently used cached save, or null if the cache is empty. */
+    public static synchronized String latest() {
+        String[] hashes = knownHashes();
+        return hashes.length > 0 ? hashes[0] : null;
+    }
+
+    /**
+     * Copies the cached save with {@code hash} to {@code target} and marks it
+     * as used.
+     *
+     * @return false if the save is not cached (or could not be copied)
+     */
+    public static synchronized boolean restore(String hash, Path target) {
+        Path cached = pathOf(hash);
+        if (cached == null || !Files.isRegularFile(cached))
+            return false;
+        try {
+            Files.createDirectories(target.getParent());
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[SaveCache] Failed to restore " + hash, e);
+            return false;
+        }
+    }
+
+    /**
+     * Adds {@code saveFile} to the cache under {@code hash}, then evicts the
+     * least recently used saves beyond {@link #MAX_BYTES} (the newest one is
+     * always kept).
+     */
+    public static synchronized void store(String hash, Path saveFile) {
+        Path cached = pathOf(hash);
+        if (cached == null)
+            return;
+        try {
+            Files.createDirectories(cached.getParent());
+            Path tmp = cached.resolveSibling(cached.getFileName() + ".tmp");
+            Files.copy(saveFile, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            LOG.info("[SaveCache] Cached save " + hash);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[SaveCache] Failed to cache " + saveFile, e);
+            return;
+        }
+        evict();
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    /** Rejects anything that is not a plain hex digest (no path tricks). */
+    private static Path pathOf(String hash) {
+        if (hash == null || hash.isEmpty()
+                || !hash.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')))
+            return null;
+        return dir().resolve(hash + SUFFIX);
+    }
+
+    /** Cached saves, most recently used first. */
+    private static List<Path> list() {
+        Path dir = dir();
+        if (!Files.isDirectory(dir))
+            return new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            List<Path> files = new ArrayList<>(s.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList());
+            files.sort(Comparator.comparing(SaveCache::lastUsed).reversed());
+            return files;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "[SaveCache] Failed to list " + dir, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static void evict() {
+        long total = 0;
+        for (Path p : list()) {
+            long size = sizeOf(p);
+            if (total == 0 || total + size <= MAX_BYTES) {
+                total += size;
+                continue;
+            }
+            try {
+                Files.deleteIfExists(p);
+                LOG.info("[SaveCache] Evicted " + p.getFileName());
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "[SaveCache] Failed to evict " + p, e);
+            }
+        }
+    }
+
+    private static FileTime lastUsed(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
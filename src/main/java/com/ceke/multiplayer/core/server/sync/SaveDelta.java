@@ -0,0 +1,334 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SaveDelta.java                                                         */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:48:07 by ceketrum                               */
+/*   Updated: 2026/10/17 21:48:07 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * rsync-style delta encoding of save files.
+ *
+ * <ol>
+ * <li>CLIENT: {@link #signatures(Path)} cuts its cached copy of a save into
+ * fixed blocks and describes each one with a rolling checksum and a truncated
+ * MD5.</li>
+ * <li>HOST: {@link #writeDelta} slides a window over the current save. Where
+ * the rolling checksum (and then the MD5) matches a client block, it emits a
+ * reference to that block; everything else goes out as literal bytes.</li>
+ * <li>CLIENT: {@link #apply} rebuilds the host's save from its cached copy and
+ * the delta.</li>
+ * </ol>
+ * A colony that only changed in places costs the changed blocks plus a few
+ * bytes per reference. The caller verifies the rebuilt file against the
+ * host's SHA-256 and falls back to a full transfer on mismatch.
+ *
+ * <h3>Delta layout</h3>
+ * {@code MAGIC}, new length (long), block size (int), then ops until
+ * {@code OP_END}:
+ * {@code OP_COPY} first block (int) + block count (int), or {@code OP_LITERAL}
+ * length (int) + bytes.
+ */
+public final class SaveDelta {
+
+    private static final int MAGIC = 0x43454B44; // "CEKD"
+
+    private static final byte OP_END = 0;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_LITERAL = 2;
+
+    /** Literal runs are flushed at this size to bound the host's buffer. */
+    private static final int MAX_LITERAL = 64 * 1024;
+
+    /** Block signatures of one file. */
+    public static final class Signatures {
+        public final int blockSize;
+        public final long length;
+        public final int[] weak;
+        public final long[] strong;
+
+        public Signatures(int blockSize, long length, int[] weak, long[] strong) {
+            this.blockSize = blockSize;
+            this.length = length;
+            this.weak = weak;
+            this.strong = strong;
+        }
+    }
+
+    private SaveDelta() {
+    }
+
+    /**
+     * Block size for a file of {@code length} bytes: about twice its square
+     * root, as a power of two in [1 KB, 64 KB]. Keeps the signature list in
+     * the tens of kilobytes for any realistic save.
+     */
+    public static int blockSizeFor(long length) {
+        long target = Math.max(1024, Math.min(64 * 1024, 2 * (long) Math.sqrt(length)));
+        return Integer.highestOneBit((int) target);
+    }
+
+    /** Signs every full block of {@code file}; a trailing partial block is left out. */
+    public static Signatures signatures(Path file) throws IOException {
+        long length = Files.size(file);
+        int blockSize = blockSizeFor(length);
+        int blocks = (int) (length / blockSize);
+        int[] weak = new int[blocks];
+        long[] strong = new long[blocks];
+
+        MessageDigest md5 = md5();
+        byte[] buf = new byte[blockSize];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            for (int i = 0; i < blocks; i++) {
+                int read = in.readNBytes(buf, 0, blockSize);
+                if (read < blockSize)
+                    throw new IOException("Unexpected end of " + file);
+                weak[i] = weakSum(buf, 0, blockSize);
+                strong[i] = strongSum(md5, buf, 0, blockSize);
+            }
+        }
+        return new Signatures(blockSize, length, weak, strong);
+    }
+
+    /**
+     * Writes the delta that turns the signed basis into {@code file}.
+     * The save is read into memory once (it is not memory-mapped: a mapping
+     * would keep the file locked on Windows while the game saves over it).
+     */
+    public static void writeDelta(Path file, Signatures basis, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        byte[] src = Files.readAllBytes(file);
+        int n = src.length;
+
+        data.writeInt(MAGIC);
+        data.writeLong(n);
+        data.writeInt(basis.blockSize);
+
+        int bs = basis.blockSize;
+        int blocks = basis.weak.length;
+        if (blocks == 0 || n < bs) {
+            writeLiteral(data, src, 0, n);
+            data.writeByte(OP_END);
+            data.flush();
+            return;
+        }
+
+        // weak sum -> first block with that sum; collisions chained through next[]
+        Map<Integer, Integer> head = new HashMap<>(blocks * 2);
+        int[] next = new int[blocks];
+        for (int i = blocks - 1; i >= 0; i--) {
+            Integer prev = head.put(basis.weak[i], i);
+            next[i] = prev != null ? prev : -1;
+        }
+
+        MessageDigest md5 = md5();
+        int literalStart = 0;
+        int copyFirst = -1;
+        int copyCount = 0;
+
+        int pos = 0;
+        int a = 0, b = 0;
+        for (int i = 0; i < bs; i++) {
+            int x = src[i] & 0xFF;
+            a += x;
+            b += (bs - i) * x;
+        }
+
+        while (pos + bs <= n) {
+            int weak = (a & 0xFFFF) | (b << 16);
+            int match = -1;
+            Integer candidate = head.get(weak);
+            if (candidate != null) {
+                long strong = strongSum(md5, src, pos, bs);
+                for (int c = candidate; c >= 0; c = next[c]) {
+                    if (basis.weak[c] == weak && basis.strong[c] == strong) {
+                        match = c;
+                        break;
+                    }
+                }
+            }
+
+            if (match >= 0) {
+                if (literalStart < pos) {
+                    copyFirst = flushCopy(data, copyFirst, copyCount);
+                    copyCount = 0;
+                    writeLiteral(data, src, literalStart, pos - literalStart);
+                }
+                if (copyFirst >= 0 && match == copyFirst + copyCount) {
+                    copyCount++;
+                } else {
+                    flushCopy(data, copyFirst, copyCount);
+                    copyFirst = match;
+                    copyCount = 1;
+                }
+                pos += bs;
+                literalStart = pos;
+                if (pos + bs <= n) {
+                    a = 0;
+                    b = 0;
+                    for (int i = 0; i < bs; i++) {
+                        int x = src[pos + i] & 0xFF;
+                        a += x;
+                        b += (bs - i) * x;
+                    }
+                }
+                continue;
+            }
+
+            if (pos - literalStart >= MAX_LITERAL) {
+                copyFirst = flushCopy(data, copyFirst, copyCount);
+                copyCount = 0;
+                writeLiteral(data, src, literalStart, pos - literalStart);
+                literalStart = pos;
+            }
+
+            // Roll the window one byte forward
+            if (pos + bs < n) {
+                int dropped = src[pos] & 0xFF;
+                int added = src[pos + bs] & 0xFF;
+                a += added - dropped;
+                b += a - bs * dropped;
+            }
+            pos++;
+        }
+
+        flushCopy(data, copyFirst, copyCount);
+        if (literalStart < n)
+            writeLiteral(data, src, literalStart, n - literalStart);
+        data.writeByte(OP_END);
+        data.flush();
+    }
+
+    /**
+     * Rebuilds the host's save into {@code target} from the client's
+     * {@code basis} and a delta produced by {@link #writeDelta}.
+     *
+     * @throws IOException if the delta is malformed or references blocks the
+     *                     basis does not have
+     */
+    public static void apply(Path basis, Path delta, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (FileChannel base = FileChannel.open(basis, StandardOpenOption.READ);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(delta), 1 << 16));
+                FileChannel outCh = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a save delta: " + delta);
+            long length = in.readLong();
+            int blockSize = in.readInt();
+            if (blockSize <= 0)
+                throw new IOException("Bad delta block size " + blockSize);
+            long baseBlocks = base.size() / blockSize;
+
+            long written = 0;
+            byte[] literal = new byte[MAX_LITERAL];
+            for (byte op = in.readByte(); op != OP_END; op = in.readByte()) {
+                if (op == OP_COPY) {
+                    int first = in.readInt();
+                    int count = in.readInt();
+                    if (first < 0 || count <= 0 || first + (long) count > baseBlocks)
+                        throw new IOException("Delta references missing blocks " + first + "+" + count);
+                    long position = (long) first * blockSize;
+                    long end = position + (long) count * blockSize;
+                    while (position < end)
+                        position += base.transferTo(position, end - position, outCh);
+                    written += (long) count * blockSize;
+                } else if (op == OP_LITERAL) {
+                    int len = in.readInt();
+                    if (len < 0 || len > MAX_LITERAL)
+                        throw new IOException("Bad literal length " + len);
+                    in.readFully(literal, 0, len);
+                    ByteBuffer buf = ByteBuffer.wrap(literal, 0, len);
+                    while (buf.hasRemaining())
+                        outCh.write(buf);
+                    written += len;
+                } else {
+                    throw new IOException("Unknown delta op " + op);
+                }
+            }
+            if (written != length)
+                throw new IOException("Delta produced " + written + " bytes, expected " + length);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    /** rsync's rolling checksum: two 16-bit sums packed into one int. */
+    private static int weakSum(byte[] buf, int off, int len) {
+        int a = 0, b = 0;
+        for (int i = 0; i < len; i++) {
+            int x = buf[off + i] & 0xFF;
+            a += x;
+            b += (len - i) * x;
+        }
+        return (a & 0xFFFF) | (b << 16);
+    }
+
+    /** First 8 bytes of the block's MD5. */
+    private static long strongSum(MessageDigest md5, byte[] buf, int off, int len) {
+        md5.reset();
+        md5.update(buf, off, len);
+        return ByteBuffer.wrap(md5.digest()).getLong();
+    }
+
+    private static MessageDigest md5() throws IOException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("MD5 unavailable", e);
+        }
+    }
+
+    /** Writes a pending COPY op, if any; returns -1 (no pending copy). */
+    private static int flushCopy(DataOutputStream out, int first, int count) throws IOException {
+        if (first >= 0 && count > 0) {
+            out.writeByte(OP_COPY);
+            out.writeInt(first);
+            out.writeInt(count);
+        }
+        return -1;
+    }
+
+    private static void writeLiteral(DataOutputStream out, byte[] src, int from, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, MAX_LITERAL);
+            out.writeByte(OP_LITERAL);
+            out.writeInt(n);
+            out.write(src, from, n);
+            from += n;
+            len -= n;
+        }
+    }
+}
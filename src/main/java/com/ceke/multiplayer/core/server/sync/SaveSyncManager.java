@@ -13,56 +13,139 @@
 /*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
 /*                                                                            */
 /*   Created: 2026/02/28 15:02:29 by ceketrum                               */
-/*   Updated: 2026/02/28 15:02:29 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:20 by ceketrum                               */
 /*                                                                            */
 /* ************************************************************************** */
 
 package com.ceke.multiplayer.core.server.sync;
 
+import com.ceke.multiplayer.core.server.network.BufferPool;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 /**
- * Utility to zip a save directory into a byte array (for the host to send)
- * and to unzip a byte array back into a save directory (for the client to
- * load).
+ * Save file helpers for the world transfer: compression, chunk checksums,
+ * hashing and deltas.
+ *
+ * Everything streams through disk instead of the heap. Saves are compressed
+ * in the multi-core {@link ParallelDeflate} format; its output only depends
+ * on the input and {@link #getCompressionLevel() level}, so compressing an
+ * unchanged save twice yields the same bytes — which is what lets an
+ * interrupted download resume.
  */
 public final class SaveSyncManager {
 
+    /**
+     * Deflate level for streamed saves. Defaults to the
+     * {@code ceke.mp.compressionLevel} system property, else 6.
+     */
+    private static volatile int compressionLevel = Integer.getInteger("ceke.mp.compressionLevel",
+            Deflater.DEFAULT_COMPRESSION);
+
     private SaveSyncManager() {
     }
 
+    public static int getCompressionLevel() {
+        return compressionLevel;
+    }
+
     /**
-     * Reads the given save file, compresses it into a zip byte array.
+     * Sets the deflate level for streamed saves: 1 (fastest) to 9 (smallest),
+     * 0 (store) or {@link Deflater#DEFAULT_COMPRESSION}.
      */
-    public static byte[] zipSaveFile(Path saveFile) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-            ZipEntry zipEntry = new ZipEntry(saveFile.getFileName().toString());
-            zos.putNextEntry(zipEntry);
-            Files.copy(saveFile, zos);
-            zos.closeEntry();
-        }
-        return baos.toByteArray();
+    public static void setCompressionLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9))
+            throw new IllegalArgumentException("Compression level out of range: " + level);
+        compressionLevel = level;
+    }
+
+    /**
+     * Compresses the given save file on all cores into {@code target}.
+     */
+    public static void compressSaveFile(Path saveFile, Path target) throws IOException {
+        ParallelDeflate.compress(saveFile, target, compressionLevel);
+    }
+
+    /**
+     * Restores a file written by {@link #compressSaveFile} (or
+     * {@link #compressSaveDelta}) to the target path, inflating on all cores.
+     */
+    public static void decompressSaveFile(Path compressed, Path target) throws IOException {
+        ParallelDeflate.decompress(compressed, target);
     }
 
     /**
-     * Unzips the given zip bytes and writes the extracted save file to the target
-     * path.
+     * CRC32 of every {@code chunkSize} block of {@code file}; the last block
+     * may be shorter.
      */
-    public static void unzipSaveFile(byte[] zipBytes, Path targetSaveFile) throws IOException {
-        Files.createDirectories(targetSaveFile.getParent());
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(zipBytes);
-                ZipInputStream zis = new ZipInputStream(bais)) {
+    public static int[] chunkChecksums(Path file, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int[] crcs = new int[(int) ((size + chunkSize - 1) / chunkSize)];
+            ByteBuffer buf = BufferPool.acquire(chunkSize);
+            CRC32 crc = new CRC32();
+            try {
+                for (int i = 0; i < crcs.length; i++) {
+                    buf.clear();
+                    long position = (long) i * chunkSize;
+                    buf.limit((int) Math.min(chunkSize, size - position));
+                    while (buf.hasRemaining()) {
+                        if (channel.read(buf, position + buf.position()) < 0)
+                            throw new EOFException("Unexpected end of " + file);
+                    }
+                    buf.flip();
+                    crc.reset();
+                    crc.update(buf);
+                    crcs[i] = (int) crc.getValue();
+                }
+            } finally {
+                BufferPool.release(buf);
+            }
+            return crcs;
+        }
+    }
 
-            ZipEntry entry = zis.getNextEntry();
-            if (entry != null) {
-                Files.copy(zis, targetSaveFile, StandardCopyOption.REPLACE_EXISTING);
-                zis.closeEntry();
+    /**
+     * Writes the compressed {@link SaveDelta} turning the client's signed basis
+     * into {@code saveFile}.
+     */
+    public static void compressSaveDelta(Path saveFile, SaveDelta.Signatures basis, Path target) throws IOException {
+        Path delta = Files.createTempFile("ceke-mp-delta-", ".bin");
+        try {
+            try (OutputStream os = Files.newOutputStream(delta)) {
+                SaveDelta.writeDelta(saveFile, basis, os);
             }
+            ParallelDeflate.compress(delta, target, compressionLevel);
+        } finally {
+            Files.deleteIfExists(delta);
+        }
+    }
+
+    /**
+     * SHA-256 of a save file as lowercase hex — the key of the client's
+     * {@link SaveCache}.
+     */
+    public static String hashSaveFile(Path saveFile) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 unavailable", e);
+        }
+        try (InputStream is = Files.newInputStream(saveFile)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = is.read(buf)) > 0)
+                digest.update(buf, 0, n);
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 }
@@ -0,0 +1,147 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SnapshotDeltaCodec.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:38:55 by ceketrum                               */
+/*   Updated: 2026/10/17 21:38:55 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Binary encoding of {@link WorldSnapshot}s for {@code PacketGameState.data}.
+ *
+ * <h3>Layout</h3>
+ * Every payload starts with the slot count (varint) so a client with a
+ * different channel layout can reject it instead of misapplying values.
+ * <ul>
+ * <li><b>Keyframe</b> (no base): every slot as a zig-zag varint.</li>
+ * <li><b>Delta</b>: number of changed slots (varint), then for each changed
+ * slot the gap to the previous changed index (varint) and the difference
+ * to the base value (zig-zag varint).</li>
+ * </ul>
+ * An unchanged world therefore costs two bytes per tick.
+ */
+public final class SnapshotDeltaCodec {
+
+    private SnapshotDeltaCodec() {
+    }
+
+    /**
+     * Encodes {@code target}, either as a delta against {@code base} or as a
+     * keyframe when {@code base} is null or has a different layout.
+     */
+    public static byte[] encode(WorldSnapshot base, WorldSnapshot target) {
+        int[] to = target.values;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + to.length);
+        writeVarInt(out, to.length);
+
+        if (base == null || base.values.length != to.length) {
+            for (int v : to)
+                writeVarInt(out, zigZag(v));
+            return out.toByteArray();
+        }
+
+        int[] from = base.values;
+        int changed = 0;
+        for (int i = 0; i < to.length; i++) {
+            if (from[i] != to[i])
+                changed++;
+        }
+        writeVarInt(out, changed);
+
+        int prev = -1;
+        for (int i = 0; i < to.length && changed > 0; i++) {
+            if (from[i] == to[i])
+                continue;
+            writeVarInt(out, i - prev - 1);
+            writeVarInt(out, zigZag(to[i] - from[i]));
+            prev = i;
+            changed--;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a payload produced by {@link #encode}.
+     *
+     * @param base  the snapshot the delta was built against, or null for a
+     *              keyframe
+     * @param slots slot count expected by the local channel layout
+     * @return the reconstructed slot values
+     * @throws IllegalArgumentException on layout mismatch or malformed data
+     */
+    public static int[] decode(WorldSnapshot base, byte[] data, int slots) {
+        int[] pos = { 0 };
+        int count = readVarInt(data, pos);
+        if (count != slots)
+            throw new IllegalArgumentException("Slot count mismatch: remote=" + count + " local=" + slots);
+
+        int[] values = new int[count];
+        if (base == null) {
+            for (int i = 0; i < count; i++)
+                values[i] = unZigZag(readVarInt(data, pos));
+            return values;
+        }
+
+        if (base.values.length != count)
+            throw new IllegalArgumentException("Base snapshot has " + base.values.length + " slots, expected " + count);
+        System.arraycopy(base.values, 0, values, 0, count);
+
+        int changed = readVarInt(data, pos);
+        int index = -1;
+        for (int n = 0; n < changed; n++) {
+            index += readVarInt(data, pos) + 1;
+            if (index >= count)
+                throw new IllegalArgumentException("Slot index out of range: " + index);
+            values[index] += unZigZag(readVarInt(data, pos));
+        }
+        return values;
+    }
+
+    // -----------------------------------------------------------------------
+    // Varint helpers
+    // -----------------------------------------------------------------------
+
+    private static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarInt(byte[] data, int[] pos) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] >= data.length)
+                throw new IllegalArgumentException("Truncated snapshot payload");
+            byte b = data[pos[0]++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new IllegalArgumentException("Malformed varint in snapshot payload");
+    }
+}
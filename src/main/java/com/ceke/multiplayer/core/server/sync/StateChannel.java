@@ -0,0 +1,52 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   StateChannel.java                                                      */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:38:55 by ceketrum                               */
+/*   Updated: 2026/10/17 21:38:55 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+/**
+ * One piece of host-authoritative game state replicated through
+ * {@link WorldStateReplicator}.
+ *
+ * A channel owns a fixed number of integer slots in every world snapshot.
+ * The host fills them on the game thread via {@link #capture}, clients write
+ * them back into their own game via {@link #apply}. Both sides must register
+ * the same channels in the same order (see
+ * {@link com.ceke.multiplayer.core.server.GameMod#getStateChannels()}).
+ */
+public interface StateChannel {
+
+    /** Short name used in logs. */
+    String name();
+
+    /** Number of int slots this channel occupies. Must never change. */
+    int slots();
+
+    /**
+     * HOST: copies the current local value(s) into {@code dst} starting at
+     * {@code offset}. Called on the game thread.
+     */
+    void capture(int[] dst, int offset);
+
+    /**
+     * CLIENT: applies the replicated value(s) found in {@code src} starting at
+     * {@code offset}. Only called when at least one slot of this channel changed
+     * or when a keyframe is received.
+     */
+    void apply(int[] src, int offset);
+}
@@ -0,0 +1,43 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   WorldSnapshot.java                                                     */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:38:55 by ceketrum                               */
+/*   Updated: 2026/10/17 21:38:55 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+/**
+ * Immutable copy of every replicated state slot at a given host tick.
+ * The {@code values} array is never modified once the snapshot is built.
+ */
+public final class WorldSnapshot {
+
+    public final long tick;
+    final int[] values;
+
+    WorldSnapshot(long tick, int[] values) {
+        this.tick = tick;
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int get(int slot) {
+        return values[slot];
+    }
+}
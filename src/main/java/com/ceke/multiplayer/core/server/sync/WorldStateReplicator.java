@@ -0,0 +1,258 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   WorldStateReplicator.java                                              */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 21:38:55 by ceketrum                               */
+/*   Updated: 2026/10/17 22:10:00 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import com.ceke.multiplayer.core.server.GameMod;
+import com.ceke.multiplayer.core.server.ModLoader;
+import com.ceke.multiplayer.core.server.network.packets.PacketGameState;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Snapshot / delta engine behind {@link PacketGameState}.
+ *
+ * <h3>Host</h3>
+ * <ol>
+ * <li>{@link #captureLocal()} copies every {@link StateChannel} of the active
+ * mod into a fresh array (game thread).</li>
+ * <li>{@link #snapshot(long)} freezes the latest capture as the snapshot of a
+ * tick and keeps it in a short history (tick thread).</li>
+ * <li>{@link #buildPacket(int, WorldSnapshot)} diffs that snapshot against
+ * the last one the client acknowledged. Clients without a usable baseline,
+ * or that have not had a keyframe for {@link #KEYFRAME_INTERVAL} ticks, get a
+ * full keyframe instead, so a client that fell behind always recovers.
+ * Clients sharing a baseline share one encoded packet per tick.</li>
+ * </ol>
+ *
+ * <h3>Client</h3>
+ * {@link #applyPacket(PacketGameState)} rebuilds the snapshot from its stored
+ * base, applies the channels whose slots changed, and returns the tick to
+ * acknowledge (or -1 to ask the host for a keyframe).
+ */
+public final class WorldStateReplicator {
+
+    private static final Logger LOG = Logger.getLogger(WorldStateReplicator.class.getName());
+
+    /** Snapshots kept on each side to resolve delta bases (~3 s at 20 Hz). */
+    private static final int HISTORY = 64;
+
+    /** Ticks between forced keyframes for a client (5 s at 20 Hz). */
+    public static final int KEYFRAME_INTERVAL = 100;
+
+    /** Ack value a client sends when it cannot decode and needs a keyframe. */
+    public static final long REQUEST_KEYFRAME = -1L;
+
+    private WorldStateReplicator() {
+    }
+
+    // ── Host state ───────────────────────────────────────────────────────
+
+    /** Latest capture from the game thread. Never mutated once published. */
+    private static volatile int[] latestCapture = new int[0];
+
+    /** Host snapshot history, written by the tick thread only. */
+    private static final WorldSnapshot[] hostHistory = new WorldSnapshot[HISTORY];
+
+    private static final Map<Integer, ClientBaseline> baselines = new ConcurrentHashMap<>();
+
+    /** Packets built for the current tick, keyed by base tick (tick thread only). */
+    private static final Map<Long, PacketGameState> packetCache = new HashMap<>();
+    private static long packetCacheTick = Long.MIN_VALUE;
+
+    private static final class ClientBaseline {
+        volatile long ackedTick = REQUEST_KEYFRAME;
+        volatile long lastKeyframeTick = Long.MIN_VALUE / 2;
+    }
+
+    // ── Client state ─────────────────────────────────────────────────────
+
+    private static final WorldSnapshot[] clientHistory = new WorldSnapshot[HISTORY];
+    private static WorldSnapshot lastApplied = null;
+
+    // -----------------------------------------------------------------------
+    // Host
+    // -----------------------------------------------------------------------
+
+    /** Reads all state channels into a new capture. Call on the game thread. */
+    public static void captureLocal() {
+        List<StateChannel> channels = channels();
+        int[] values = new int[totalSlots(channels)];
+        int offset = 0;
+        for (StateChannel ch : channels) {
+            ch.capture(values, offset);
+            offset += ch.slots();
+        }
+        latestCapture = values;
+    }
+
+    /** Freezes the latest capture as the snapshot for {@code tick}. */
+    public static WorldSnapshot snapshot(long tick) {
+        WorldSnapshot snap = new WorldSnapshot(tick, latestCapture);
+        hostHistory[slotOf(tick)] = snap;
+        return snap;
+    }
+
+    /**
+     * Builds the state packet for one client: a delta against its last
+     * acknowledged snapshot, or a keyframe when none is usable.
+     */
+    public static PacketGameState buildPacket(int connectionId, WorldSnapshot snap) {
+        ClientBaseline b = baselines.computeIfAbsent(connectionId, id -> new ClientBaseline());
+
+        WorldSnapshot base = null;
+        long acked = b.ackedTick;
+        if (acked >= 0 && snap.tick - b.lastKeyframeTick < KEYFRAME_INTERVAL) {
+            base = historyAt(hostHistory, acked);
+        }
+
+        if (base == null)
+            b.lastKeyframeTick = snap.tick;
+        return cachedPacket(snap, base);
+    }
+
+    /** Encodes {@code snap} against {@code base} once per tick, however many clients use that base. */
+    private static PacketGameState cachedPacket(WorldSnapshot snap, WorldSnapshot base) {
+        if (packetCacheTick != snap.tick) {
+            packetCache.clear();
+            packetCacheTick = snap.tick;
+        }
+        long baseTick = base == null ? PacketGameState.KEYFRAME : base.tick;
+        return packetCache.computeIfAbsent(baseTick,
+                t -> new PacketGameState(snap.tick, t, SnapshotDeltaCodec.encode(base, snap)));
+    }
+
+    /** Records a client's acknowledgement (or keyframe request). */
+    public static void acknowledge(int connectionId, long tick) {
+        ClientBaseline b = baselines.computeIfAbsent(connectionId, id -> new ClientBaseline());
+        if (tick == REQUEST_KEYFRAME || tick > b.ackedTick)
+            b.ackedTick = tick;
+    }
+
+    /** Drops the baseline of a disconnected client. */
+    public static void forget(int connectionId) {
+        baselines.remove(connectionId);
+    }
+
+    /** Clears all host-side state. Call when a host session starts or stops. */
+    public static void resetHost() {
+        baselines.clear();
+        Arrays.fill(hostHistory, null);
+        packetCache.clear();
+        packetCacheTick = Long.MIN_VALUE;
+        latestCapture = new int[0];
+    }
+
+    // -----------------------------------------------------------------------
+    // Client
+    // -----------------------------------------------------------------------
+
+    /**
+     * Applies a received state packet.
+     *
+     * @return the tick to acknowledge, or {@link #REQUEST_KEYFRAME} when the
+     *         packet could not be decoded
+     */
+    public static synchronized long applyPacket(PacketGameState pkt) {
+        List<StateChannel> channels = channels();
+
+        WorldSnapshot base = null;
+        if (pkt.baseTick != PacketGameState.KEYFRAME) {
+            base = historyAt(clientHistory, pkt.baseTick);
+            if (base == null) {
+                LOG.fine("[WorldStateReplicator] Missing base tick #" + pkt.baseTick + ", requesting keyframe.");
+                return REQUEST_KEYFRAME;
+            }
+        }
+
+        int[] values;
+        try {
+            values = SnapshotDeltaCodec.decode(base, pkt.data, totalSlots(channels));
+        } catch (IllegalArgumentException e) {
+            LOG.warning("[WorldStateReplicator] Dropping state tick #" + pkt.tick + ": " + e.getMessage());
+            return REQUEST_KEYFRAME;
+        }
+
+        WorldSnapshot snap = new WorldSnapshot(pkt.tick, values);
+        WorldSnapshot previous = (base == null) ? null : lastApplied;
+
+        int offset = 0;
+        for (StateChannel ch : channels) {
+            if (previous == null || changed(previous, snap, offset, ch.slots())) {
+                try {
+                    ch.apply(values, offset);
+                } catch (Exception e) {
+                    LOG.warning("[WorldStateReplicator] Channel '" + ch.name() + "' failed to apply: " + e);
+                }
+            }
+            offset += ch.slots();
+        }
+
+        clientHistory[slotOf(pkt.tick)] = snap;
+        lastApplied = snap;
+        return pkt.tick;
+    }
+
+    /** Clears all client-side state. Call on (re)connect. */
+    public static synchronized void resetClient() {
+        Arrays.fill(clientHistory, null);
+        lastApplied = null;
+    }
+
+    // -----------------------------------------------------------------------
+    // Internal
+    // -----------------------------------------------------------------------
+
+    private static List<StateChannel> channels() {
+        GameMod mod = ModLoader.getActiveMod();
+        return mod != null ? mod.getStateChannels() : Collections.emptyList();
+    }
+
+    private static int totalSlots(List<StateChannel> channels) {
+        int n = 0;
+        for (StateChannel ch : channels)
+            n += ch.slots();
+        return n;
+    }
+
+    private static int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) HISTORY);
+    }
+
+    private static WorldSnapshot historyAt(WorldSnapshot[] history, long tick) {
+        WorldSnapshot s = history[slotOf(tick)];
+        return (s != null && s.tick == tick) ? s : null;
+    }
+
+    private static boolean changed(WorldSnapshot a, WorldSnapshot b, int offset, int count) {
+        if (a.values.length != b.values.length)
+            return true;
+        for (int i = offset; i < offset + count; i++) {
+            if (a.values[i] != b.values[i])
+                return true;
+        }
+        return false;
+    }
+}
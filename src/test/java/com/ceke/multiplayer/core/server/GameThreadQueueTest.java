@@ -0,0 +1,153 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   GameThreadQueueTest.java                                               */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:02:43 by ceketrum                               */
+/*   Updated: 2026/10/17 23:04:24 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GameThreadQueueTest {
+
+    @BeforeEach
+    void setUp() {
+        GameThreadQueue.clear();
+    }
+
+    @Test
+    void runsTasksInPostingOrder() {
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int n = i;
+            assertTrue(GameThreadQueue.post(() -> ran.add(n)));
+        }
+        assertEquals(10, GameThreadQueue.size());
+        assertEquals(10, GameThreadQueue.drain(Long.MAX_VALUE));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), ran);
+        assertEquals(0, GameThreadQueue.size());
+    }
+
+    @Test
+    void keepsOrderAcrossManyWrapArounds() {
+        List<Integer> ran = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 5; round++) {
+            // Uneven batches so the head and tail cross the ring end at different slots
+            int batch = GameThreadQueue.CAPACITY - 1 - round * 7;
+            for (int i = 0; i < batch; i++) {
+                int n = next++;
+                assertTrue(GameThreadQueue.post(() -> ran.add(n)));
+            }
+            GameThreadQueue.drain(Long.MAX_VALUE);
+        }
+        assertEquals(next, ran.size());
+        for (int i = 0; i < ran.size(); i++)
+            assertEquals(i, ran.get(i));
+    }
+
+    @Test
+    void fullRingDropsUntilASlotFrees() {
+        for (int i = 0; i < GameThreadQueue.CAPACITY; i++)
+            assertTrue(GameThreadQueue.post(() -> {
+            }));
+        long dropped = GameThreadQueue.getDropped();
+
+        assertFalse(GameThreadQueue.post(() -> {
+        }));
+        assertEquals(dropped + 1, GameThreadQueue.getDropped());
+
+        assertEquals(1, GameThreadQueue.drain(0)); // at least one task always runs
+        assertTrue(GameThreadQueue.post(() -> {
+        }));
+        assertEquals(GameThreadQueue.CAPACITY, GameThreadQueue.size());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheDrain() {
+        int[] ran = { 0 };
+        GameThreadQueue.post(() -> {
+            throw new IllegalStateException("boom");
+        });
+        GameThreadQueue.post(() -> ran[0]++);
+        assertEquals(2, GameThreadQueue.drain(Long.MAX_VALUE));
+        assertEquals(1, ran[0]);
+    }
+
+    @Test
+    void clearDiscardsQueuedTasks() {
+        int[] ran = { 0 };
+        GameThreadQueue.post(() -> ran[0]++);
+        GameThreadQueue.clear();
+        assertEquals(0, GameThreadQueue.drain(Long.MAX_VALUE));
+        assertEquals(0, ran[0]);
+    }
+
+    @Test
+    void latestAppliesOnlyTheNewestValue() {
+        List<Integer> applied = new ArrayList<>();
+        GameThreadQueue.Latest<Integer> box = new GameThreadQueue.Latest<>(applied::add);
+        box.offer(1);
+        box.offer(2);
+        box.offer(3);
+        assertEquals(1, GameThreadQueue.size());
+
+        GameThreadQueue.drain(Long.MAX_VALUE);
+        assertEquals(List.of(3), applied);
+
+        box.offer(4); // queued again once applied
+        GameThreadQueue.drain(Long.MAX_VALUE);
+        assertEquals(List.of(3, 4), applied);
+    }
+
+    @Test
+    void latestSurvivesAFullRing() {
+        for (int i = 0; i < GameThreadQueue.CAPACITY; i++)
+            GameThreadQueue.post(() -> {
+            });
+        long dropped = GameThreadQueue.getDropped();
+        List<String> applied = new ArrayList<>();
+        GameThreadQueue.Latest<String> box = new GameThreadQueue.Latest<>(applied::add);
+        box.offer("a");
+        box.offer("b");
+
+        assertEquals(dropped, GameThreadQueue.getDropped());
+        GameThreadQueue.drain(0); // the waiting mailbox runs first, whatever the budget
+        assertEquals(List.of("b"), applied);
+    }
+
+    @Test
+    void clearReleasesQueuedMailboxes() {
+        List<Integer> applied = new ArrayList<>();
+        GameThreadQueue.Latest<Integer> box = new GameThreadQueue.Latest<>(applied::add);
+        box.offer(1);
+        GameThreadQueue.clear();
+        GameThreadQueue.drain(Long.MAX_VALUE);
+        assertTrue(applied.isEmpty());
+
+        box.offer(2);
+        GameThreadQueue.drain(Long.MAX_VALUE);
+        assertEquals(List.of(2), applied);
+    }
+}
@@ -0,0 +1,124 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   HandshakeSerializerTest.java                                           */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:00:33 by ceketrum                               */
+/*   Updated: 2026/10/17 23:00:33 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketHandshake;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HandshakeSerializerTest {
+
+    /** The handshake as 1.0.0 peers declare it, written by Kryo's default field serializer. */
+    public static class LegacyHandshake {
+        public String playerName;
+        public String modVersion;
+        public String activeMod;
+    }
+
+    private Kryo kryo;
+
+    @BeforeEach
+    void setUp() {
+        kryo = new Kryo();
+        kryo.setReferences(false); // as KryoNet configures it
+        PacketRegistry.register(kryo);
+    }
+
+    @Test
+    void currentVersionRoundTrip() {
+        PacketHandshake hs = new PacketHandshake("Alice", PacketRegistry.VERSION, "Co-op");
+        hs.saveHash = "abc";
+        hs.cachedSaves = new String[] { "abc", "def" };
+        hs.playerId = 3;
+        hs.lockstep = true;
+        hs.inputDelay = 2;
+
+        Input in = new Input(write(hs));
+        PacketHandshake back = kryo.readObject(in, PacketHandshake.class);
+
+        assertTrue(in.eof());
+        assertEquals("Alice", back.playerName);
+        assertEquals("Co-op", back.activeMod);
+        assertEquals("abc", back.saveHash);
+        assertArrayEquals(hs.cachedSaves, back.cachedSaves);
+        assertEquals(3, back.playerId);
+        assertTrue(back.lockstep);
+        assertEquals(2, back.inputDelay);
+    }
+
+    @Test
+    void nullCachedSavesStayNull() {
+        PacketHandshake hs = new PacketHandshake("Bob", PacketRegistry.VERSION, null);
+        PacketHandshake back = kryo.readObject(new Input(write(hs)), PacketHandshake.class);
+        assertNull(back.cachedSaves);
+        assertNull(back.activeMod);
+    }
+
+    @Test
+    void legacyHandshakeIsReadAndFullyConsumed() {
+        Kryo legacy = new Kryo();
+        legacy.setReferences(false);
+        legacy.register(LegacyHandshake.class);
+        LegacyHandshake old = new LegacyHandshake();
+        old.playerName = "Carol";
+        old.modVersion = "1.0.0";
+        old.activeMod = "";
+        Output out = new Output(256);
+        legacy.writeObject(out, old);
+
+        Input in = new Input(out.toBytes());
+        PacketHandshake back = kryo.readObject(in, PacketHandshake.class);
+
+        assertTrue(in.eof());
+        assertEquals("Carol", back.playerName);
+        assertEquals("1.0.0", back.modVersion);
+        assertNull(back.cachedSaves);
+    }
+
+    @Test
+    void otherVersionSkipsFieldsItCannotTrust() {
+        PacketHandshake hs = new PacketHandshake("Dave", "9.9.9", "Co-op");
+        hs.cachedSaves = new String[] { "abc" };
+        hs.playerId = 7;
+
+        Input in = new Input(write(hs));
+        PacketHandshake back = kryo.readObject(in, PacketHandshake.class);
+
+        assertTrue(in.eof());
+        assertEquals("9.9.9", back.modVersion);
+        assertNull(back.cachedSaves);
+        assertEquals(0, back.playerId);
+    }
+
+    private byte[] write(PacketHandshake hs) {
+        Output out = new Output(256);
+        kryo.writeObject(out, hs);
+        return out.toBytes();
+    }
+}
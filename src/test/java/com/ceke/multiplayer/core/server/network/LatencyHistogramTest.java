@@ -0,0 +1,131 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   LatencyHistogramTest.java                                              */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:40:39 by ceketrum                               */
+/*   Updated: 2026/10/17 22:40:39 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    private static final int LAST_BUCKET = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+
+    @Test
+    void bucketsAreOneMillisecondUpTo32() {
+        for (int v = 0; v < 32; v++) {
+            assertEquals(v, LatencyHistogram.bucketOf(v));
+            assertEquals(v, LatencyHistogram.upperBound(v));
+        }
+    }
+
+    @Test
+    void bucketsTileTheRangeWithoutGaps() {
+        for (int b = 0; b < LAST_BUCKET; b++) {
+            long top = LatencyHistogram.upperBound(b);
+            assertEquals(b, LatencyHistogram.bucketOf(top), "top of bucket " + b);
+            assertEquals(b + 1, LatencyHistogram.bucketOf(top + 1), "past bucket " + b);
+        }
+    }
+
+    @Test
+    void everyValueFitsUnderItsBucketTop() {
+        for (long v = 0; v < 70_000; v++) {
+            int b = LatencyHistogram.bucketOf(v);
+            if (b == LAST_BUCKET)
+                continue;
+            long top = LatencyHistogram.upperBound(b);
+            assertTrue(v <= top, v + " above " + top);
+            // about 6% wide above the linear range
+            assertTrue(top - v <= Math.max(0, v / 16), v + " reported as " + top);
+        }
+    }
+
+    @Test
+    void hugeValuesLandInTheLastBucket() {
+        // the top bucket (up to 65 s) also takes everything above
+        assertEquals(65_535, LatencyHistogram.upperBound(LAST_BUCKET));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf(65_535));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf(65_536));
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf(1L << 40));
+    }
+
+    @Test
+    void percentilesNeverUnderstate() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+            h.record(i * 10, 0);
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(100, s.count);
+        assertEquals(1000, s.max);
+        assertTrue(s.p50 >= 500 && s.p50 <= 500 * 17 / 16, "p50 " + s.p50);
+        assertTrue(s.p95 >= 950 && s.p95 <= 950 * 17 / 16, "p95 " + s.p95);
+        assertTrue(s.p99 >= 990 && s.p99 <= 1000, "p99 " + s.p99);
+    }
+
+    @Test
+    void percentilesAreCappedAtTheMaximum() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(40, 0); // bucket 40..41
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(40, s.p50);
+        assertEquals(40, s.p99);
+    }
+
+    @Test
+    void oldWindowsAgeOut() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(900, 0);
+        h.record(20, LatencyHistogram.WINDOW_MS);
+        assertEquals(900, h.snapshot().max);
+
+        h.record(20, 2 * LatencyHistogram.WINDOW_MS);
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(2, s.count);
+        assertEquals(20, s.max);
+    }
+
+    @Test
+    void jitterFollowsSampleToSampleChanges() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 200; i++)
+            h.record(50, i);
+        assertEquals(0, h.snapshot().jitter);
+
+        for (int i = 0; i < 200; i++)
+            h.record(i % 2 == 0 ? 40 : 60, i);
+        long jitter = h.snapshot().jitter;
+        assertTrue(jitter >= 18 && jitter <= 20, "jitter " + jitter);
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(30, 0);
+        h.reset();
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(0, s.count);
+        assertEquals(-1, s.last);
+        assertEquals(-1, h.lastMs());
+    }
+}
@@ -0,0 +1,253 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   OutboundBatcherTest.java                                               */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:07:07 by ceketrum                               */
+/*   Updated: 2026/10/17 23:08:58 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketBundle;
+import com.ceke.multiplayer.core.server.network.packets.PacketChat;
+import com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryonet.Connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OutboundBatcherTest {
+
+    /** KryoNet write buffer of the fake connection: 16 KB headroom + 12 KB budget per flush. */
+    private static final int WRITE_BUFFER = 28 * 1024;
+
+    /** Records what the batcher sends instead of writing to a socket. */
+    static final class FakeConnection extends Connection {
+        final List<Object> sent = new ArrayList<>();
+        int writeBuffered = 0;
+        boolean open = true;
+
+        @Override
+        public boolean isConnected() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public int getID() {
+            return 1;
+        }
+
+        @Override
+        public int sendTCP(Object packet) {
+            sent.add(packet);
+            return 0;
+        }
+
+        @Override
+        public int getTcpWriteBufferSize() {
+            return writeBuffered;
+        }
+
+        @Override
+        public void setIdleThreshold(float threshold) {
+        }
+    }
+
+    private final FakeConnection connection = new FakeConnection();
+    private ScheduledExecutorService scheduler;
+    private long savedDeadline;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        savedDeadline = OutboundBatcher.getFlushDeadlineMs();
+        OutboundBatcher.setFlushDeadlineMs(60_000L); // only explicit flushes
+    }
+
+    @AfterEach
+    void tearDown() {
+        OutboundBatcher.setFlushDeadlineMs(savedDeadline);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void queuedPacketsLeaveAsOneBundleInOrder() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        out.queue(new PacketChat("a", "first"));
+        out.queue(new PacketSpeedChange(3));
+        out.queue(new PacketChat("b", "third"));
+        assertTrue(connection.sent.isEmpty());
+
+        out.flush();
+
+        assertEquals(1, connection.sent.size());
+        PacketBundle bundle = assertInstanceOf(PacketBundle.class, connection.sent.get(0));
+        List<Object> unpacked = unpack(bundle);
+        assertEquals(3, unpacked.size());
+        assertEquals("first", ((PacketChat) unpacked.get(0)).message);
+        assertEquals(3, ((PacketSpeedChange) unpacked.get(1)).speed);
+        assertEquals("third", ((PacketChat) unpacked.get(2)).message);
+    }
+
+    @Test
+    void singlePacketIsSentUnwrapped() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        PacketChat chat = new PacketChat("a", "alone");
+        out.queue(chat);
+        out.flush();
+        assertEquals(List.of(chat), connection.sent);
+
+        out.flush(); // nothing left
+        assertEquals(1, connection.sent.size());
+    }
+
+    @Test
+    void realtimeIsSentAsSoonAsItIsQueued() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        out.queue(new PacketChat("s", "state"), OutboundBatcher.Priority.STATE);
+        out.queue(new PacketChat("r", "cursor"), OutboundBatcher.Priority.REALTIME);
+
+        assertEquals(List.of("r", "s"), senders()); // the realtime flush takes the state packet along, after it
+    }
+
+    @Test
+    void competingClassesShareTheBufferByWeight() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        String body = "x".repeat(200);
+        for (int i = 0; i < 40; i++) {
+            out.queue(new PacketChat("c", body), OutboundBatcher.Priority.CONTROL);
+            out.queue(new PacketChat("s", body), OutboundBatcher.Priority.STATE);
+        }
+
+        out.flush(); // 12 KB of room for 16 KB queued
+
+        List<String> senders = senders();
+        long state = senders.stream().filter("s"::equals).count();
+        long control = senders.stream().filter("c"::equals).count();
+        assertTrue(state < 40 && control < 40, "budget should cut the flush short: " + state + "/" + control);
+        double ratio = (double) state / control;
+        assertTrue(ratio > 1.5 && ratio < 2.5, "STATE:CONTROL should be about 4:2, was " + state + ":" + control);
+        assertFalse(out.isEmpty());
+
+        // A drained write buffer lets the rest out, still in order within each class
+        connection.sent.clear();
+        out.flush();
+        assertEquals(80 - state - control, senders().size());
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    void fullWriteBufferHoldsEverythingBack() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        connection.writeBuffered = WRITE_BUFFER;
+        out.queue(new PacketChat("c", "waiting"));
+        out.flush();
+        assertTrue(connection.sent.isEmpty());
+
+        connection.writeBuffered = 0;
+        out.flush();
+        assertEquals(List.of("c"), senders());
+    }
+
+    @Test
+    void clientThatStopsReadingIsCutOff() {
+        OutboundBatcher out = new OutboundBatcher(connection, scheduler, WRITE_BUFFER);
+        connection.writeBuffered = WRITE_BUFFER; // never drains
+        String body = "x".repeat(16 * 1024);
+        int packets = OutboundBatcher.MAX_BACKLOG_BYTES / body.length();
+        for (int i = 0; i < packets - 1; i++)
+            out.queue(new PacketChat("c", body));
+        assertTrue(connection.isConnected());
+
+        out.queue(new PacketChat("c", body));
+        out.queue(new PacketChat("c", body));
+
+        assertFalse(connection.isConnected());
+        assertTrue(out.isEmpty());
+        assertTrue(connection.sent.isEmpty());
+    }
+
+    @Test
+    void undecodableFrameIsSkipped() {
+        Output frames = new Output(256, -1);
+        writeFrame(frames, new PacketChat("a", "before"));
+        frames.writeVarInt(3, true);
+        frames.writeBytes(new byte[] { (byte) 0x7f, 1, 2 }); // unregistered class ID
+        writeFrame(frames, new PacketChat("b", "after"));
+
+        List<Object> unpacked = unpack(new PacketBundle(3, frames.toBytes()));
+
+        assertEquals(2, unpacked.size());
+        assertEquals("before", ((PacketChat) unpacked.get(0)).message);
+        assertEquals("after", ((PacketChat) unpacked.get(1)).message);
+    }
+
+    @Test
+    void truncatedBundleKeepsTheCompleteFrames() {
+        Output frames = new Output(256, -1);
+        writeFrame(frames, new PacketChat("a", "complete"));
+        frames.writeVarInt(100, true); // claims more bytes than follow
+        frames.writeBytes(new byte[] { 1, 2, 3 });
+
+        List<Object> unpacked = unpack(new PacketBundle(2, frames.toBytes()));
+
+        assertEquals(1, unpacked.size());
+        assertEquals("complete", ((PacketChat) unpacked.get(0)).message);
+    }
+
+    /** Sender names of every chat packet sent so far, bundles unpacked. */
+    private List<String> senders() {
+        List<String> names = new ArrayList<>();
+        for (Object packet : connection.sent) {
+            List<Object> packets = packet instanceof PacketBundle ? unpack((PacketBundle) packet) : List.of(packet);
+            for (Object p : packets)
+                names.add(((PacketChat) p).senderName);
+        }
+        return names;
+    }
+
+    static List<Object> unpack(PacketBundle bundle) {
+        List<Object> packets = new ArrayList<>();
+        OutboundBatcher.unpack(bundle, packets::add);
+        return packets;
+    }
+
+    private static void writeFrame(Output frames, Object packet) {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        PacketRegistry.register(kryo);
+        Output frame = new Output(256, -1);
+        kryo.writeClassAndObject(frame, packet);
+        frames.writeVarInt(frame.position(), true);
+        frames.writeBytes(frame.toBytes());
+    }
+}
@@ -0,0 +1,63 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   PacketRegistryTest.java                                                */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:00:33 by ceketrum                               */
+/*   Updated: 2026/10/17 23:00:33 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketChat;
+import com.ceke.multiplayer.core.server.network.packets.PacketGameState;
+import com.ceke.multiplayer.core.server.network.packets.PacketHandshake;
+import com.ceke.multiplayer.core.server.network.packets.PacketJoinFinished;
+import com.ceke.multiplayer.core.server.network.packets.PacketJoinProgress;
+import com.ceke.multiplayer.core.server.network.packets.PacketJoinStarted;
+import com.ceke.multiplayer.core.server.network.packets.PacketMousePos;
+import com.ceke.multiplayer.core.server.network.packets.PacketOverlayClear;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+import com.ceke.multiplayer.core.server.network.packets.PacketSpeedChange;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketWorldLoad;
+import com.esotericsoftware.kryo.Kryo;
+
+import org.junit.jupiter.api.Test;
+
+class PacketRegistryTest {
+
+    /** Registration order of 1.0.0; these IDs must never move. */
+    private static final Class<?>[] V1 = {
+            byte[].class, int[].class, float[].class, java.util.ArrayList.class,
+            PacketMousePos.class, PacketPlayerInput.class, PacketGameState.class, PacketChat.class,
+            PacketHandshake.class, PacketWorldLoad.class,
+            PacketJoinStarted.class, PacketJoinProgress.class, PacketJoinFinished.class,
+            PacketOverlayClear.class, PacketSpeedChange.class, PacketSyncResources.class,
+    };
+
+    @Test
+    void firstReleaseKeepsItsIds() {
+        Kryo v1 = new Kryo();
+        for (Class<?> type : V1)
+            v1.register(type);
+        Kryo current = new Kryo();
+        PacketRegistry.register(current);
+
+        for (Class<?> type : V1)
+            assertEquals(v1.getRegistration(type).getId(), current.getRegistration(type).getId(),
+                    type.getSimpleName());
+    }
+}
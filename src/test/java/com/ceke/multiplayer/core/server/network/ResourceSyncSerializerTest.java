@@ -0,0 +1,157 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ResourceSyncSerializerTest.java                                        */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:40:10 by ceketrum                               */
+/*   Updated: 2026/10/17 22:40:10 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResourceSyncSerializerTest {
+
+    private Kryo kryo;
+
+    @BeforeEach
+    void setUp() {
+        kryo = new Kryo();
+        PacketRegistry.register(kryo);
+    }
+
+    @Test
+    void fullPacketRoundTrip() {
+        Random rnd = new Random(3);
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = new int[120];
+            for (int j = 0; j < arrays[i].length; j++)
+                arrays[i][j] = rnd.nextInt(4) == 0 ? rnd.nextInt() : 0;
+        }
+        arrays[1] = arrays[0].clone();
+        arrays[1][5] = -17;
+
+        assertSame(arrays, roundTrip(new PacketSyncResources(1234567890123L, arrays)));
+    }
+
+    @Test
+    void nullEmptyAndExtremeArraysRoundTrip() {
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        arrays[1] = new int[0];
+        arrays[2] = new int[] { Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 1 };
+        arrays[3] = new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1, 1 };
+        arrays[5] = new int[] { 7, 7, 7 }; // different length from its predecessor
+        arrays[8] = new int[1000];
+
+        assertSame(arrays, roundTrip(new PacketSyncResources(0, arrays)));
+    }
+
+    @Test
+    void sparseTallyIsSmall() {
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        for (int i = 0; i < arrays.length; i++)
+            arrays[i] = new int[300];
+        arrays[0][10] = 500;
+        arrays[0][250] = -3;
+
+        byte[] data = write(new PacketSyncResources(5, arrays));
+        assertTrue(data.length < 80, "encoded " + data.length + " bytes");
+        assertSame(arrays, read(data));
+    }
+
+    @Test
+    void reservationsMatchingAmountsUseXorRuns() {
+        Random rnd = new Random(9);
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        int[] amounts = new int[300];
+        for (int j = 0; j < amounts.length; j++)
+            amounts[j] = 1000 + rnd.nextInt(100_000);
+        for (int i = 0; i < arrays.length; i++)
+            arrays[i] = i % 2 == 0 ? amounts : amounts.clone();
+
+        int[][] single = new int[PacketSyncResources.ARRAYS][];
+        single[0] = amounts;
+        int once = write(new PacketSyncResources(5, single)).length;
+        byte[] data = write(new PacketSyncResources(5, arrays));
+
+        // every array after the first collapses to a single zero run
+        assertTrue(data.length < once + 8 * 8, "encoded " + data.length + " bytes, one array " + once);
+        assertSame(arrays, read(data));
+    }
+
+    @Test
+    void deltaRoundTrip() {
+        int[] indices = { 0, 1, 7, 300, 2699 };
+        int[] values = { -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 42 };
+
+        PacketSyncResourcesDelta copy = roundTrip(new PacketSyncResourcesDelta(11, 9, indices, values));
+
+        assertEquals(11, copy.version);
+        assertEquals(9, copy.baseVersion);
+        assertArrayEquals(indices, copy.indices);
+        assertArrayEquals(values, copy.values);
+    }
+
+    @Test
+    void emptyDeltaRoundTrip() {
+        PacketSyncResourcesDelta copy = roundTrip(new PacketSyncResourcesDelta(3, 2, null, null));
+
+        assertEquals(0, copy.indices.length);
+        assertEquals(0, copy.values.length);
+    }
+
+    // -----------------------------------------------------------------------
+
+    private static void assertSame(int[][] expected, PacketSyncResources actual) {
+        int[][] got = actual.toArrays();
+        for (int i = 0; i < expected.length; i++)
+            assertArrayEquals(expected[i], got[i], "array " + i);
+    }
+
+    private PacketSyncResources roundTrip(PacketSyncResources pkt) {
+        PacketSyncResources copy = read(write(pkt));
+        assertEquals(pkt.version, copy.version);
+        return copy;
+    }
+
+    private PacketSyncResourcesDelta roundTrip(PacketSyncResourcesDelta pkt) {
+        Output out = new Output(256, -1);
+        kryo.writeObject(out, pkt);
+        return kryo.readObject(new Input(out.toBytes()), PacketSyncResourcesDelta.class);
+    }
+
+    private byte[] write(PacketSyncResources pkt) {
+        Output out = new Output(256, -1);
+        kryo.writeObject(out, pkt);
+        return out.toBytes();
+    }
+
+    private PacketSyncResources read(byte[] data) {
+        return kryo.readObject(new Input(data), PacketSyncResources.class);
+    }
+}
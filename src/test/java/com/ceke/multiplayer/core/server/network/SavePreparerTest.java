@@ -0,0 +1,75 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SavePreparerTest.java                                                  */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:05:54 by ceketrum                               */
+/*   Updated: 2026/10/17 23:05:54 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SavePreparerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictedFileStaysUntilTheLastReaderReleasesIt() throws IOException {
+        SavePreparer.PreparedSave save = prepared("a.cekz");
+        assertTrue(save.retain());
+        assertTrue(save.retain());
+
+        save.evict();
+        assertTrue(Files.exists(save.file));
+        save.release();
+        assertTrue(Files.exists(save.file));
+        save.release();
+        assertFalse(Files.exists(save.file));
+
+        assertFalse(save.retain()); // gone: a new transfer must prepare again
+    }
+
+    @Test
+    void unusedFileIsDeletedOnEviction() throws IOException {
+        SavePreparer.PreparedSave save = prepared("b.cekz");
+        save.evict();
+        assertFalse(Files.exists(save.file));
+        assertFalse(save.retain());
+    }
+
+    @Test
+    void releasingACachedFileKeepsIt() throws IOException {
+        SavePreparer.PreparedSave save = prepared("c.cekz");
+        assertTrue(save.retain());
+        save.release();
+        save.release(); // unbalanced release is ignored
+        assertTrue(Files.exists(save.file));
+        assertTrue(save.retain());
+    }
+
+    private SavePreparer.PreparedSave prepared(String name) throws IOException {
+        Path file = Files.write(dir.resolve(name), new byte[] { 1, 2, 3 });
+        return new SavePreparer.PreparedSave(file, 3, new int[] { 0 }, null);
+    }
+}
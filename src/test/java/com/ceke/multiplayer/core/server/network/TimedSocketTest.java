@@ -0,0 +1,135 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   TimedSocketTest.java                                                   */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:52:38 by ceketrum                               */
+/*   Updated: 2026/10/17 22:52:38 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.network;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TimedSocketTest {
+
+    private static final long TIMEOUT_MS = 300;
+
+    @TempDir
+    Path dir;
+
+    private ServerSocketChannel server;
+    private SocketChannel local;
+    private SocketChannel peer;
+
+    @BeforeEach
+    void connect() throws IOException {
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        local = SocketChannel.open(server.getLocalAddress());
+        peer = server.accept();
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        local.close();
+        peer.close();
+        server.close();
+    }
+
+    @Test
+    void silentPeerTimesOutARead() throws IOException {
+        try (TimedSocket socket = new TimedSocket(local, TIMEOUT_MS)) {
+            assertThrows(SocketTimeoutException.class, () -> socket.readFully(4));
+        }
+    }
+
+    @Test
+    void silentPeerTimesOutAFileReceive() throws IOException {
+        try (TimedSocket socket = new TimedSocket(local, TIMEOUT_MS);
+                FileChannel file = FileChannel.open(dir.resolve("in"), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE)) {
+            assertThrows(SocketTimeoutException.class, () -> socket.receiveFile(file, 0, 1000));
+        }
+    }
+
+    @Test
+    void peerThatStopsReadingTimesOutAFileSend() throws IOException {
+        Path big = Files.write(dir.resolve("big"), new byte[64 << 20]);
+        try (TimedSocket socket = new TimedSocket(local, TIMEOUT_MS);
+                FileChannel file = FileChannel.open(big, StandardOpenOption.READ)) {
+            assertThrows(SocketTimeoutException.class, () -> socket.sendFile(file, 0, file.size()));
+        }
+    }
+
+    @Test
+    void closedPeerEndsAFileReceive() throws IOException {
+        peer.close();
+        try (TimedSocket socket = new TimedSocket(local, TIMEOUT_MS);
+                FileChannel file = FileChannel.open(dir.resolve("in"), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE)) {
+            assertThrows(EOFException.class, () -> socket.receiveFile(file, 0, 1000));
+        }
+    }
+
+    @Test
+    void fileRoundTrip() throws Exception {
+        byte[] content = new byte[3_000_000];
+        new Random(1).nextBytes(content);
+        Path source = Files.write(dir.resolve("source"), content);
+        Path target = dir.resolve("target");
+
+        Thread sender = new Thread(() -> {
+            try (TimedSocket socket = new TimedSocket(peer, TIMEOUT_MS);
+                    FileChannel file = FileChannel.open(source, StandardOpenOption.READ)) {
+                socket.writeFully(ByteBuffer.allocate(Integer.BYTES).putInt(content.length).flip());
+                socket.sendFile(file, 0, content.length);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        sender.start();
+
+        try (TimedSocket socket = new TimedSocket(local, TIMEOUT_MS);
+                FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            int length = socket.readFully(Integer.BYTES).getInt();
+            assertEquals(content.length, length);
+            long position = 0;
+            while (position < length)
+                position += socket.receiveFile(file, position, length - position);
+        }
+        sender.join();
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+}
@@ -0,0 +1,164 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ClockSyncTest.java                                                     */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:42:03 by ceketrum                               */
+/*   Updated: 2026/10/17 22:42:03 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketTimeSync;
+
+import org.junit.jupiter.api.Test;
+
+class ClockSyncTest {
+
+    /** Host clock minus client clock in every exchange below. */
+    private static final long OFFSET = 5_000;
+
+    private final ClockSync clock = new ClockSync();
+
+    @Test
+    void symmetricExchangeGivesExactOffset() {
+        exchange(1_000, 40, 40, 2);
+
+        assertEquals(OFFSET, clock.getOffsetMs());
+        assertEquals(40, clock.getDelayMs());
+        assertEquals(0, clock.getJitterMs());
+    }
+
+    @Test
+    void fastestExchangeWins() {
+        exchange(1_000, 200, 20, 0); // queued on the way out: offset off by 90
+        exchange(2_000, 10, 10, 0);
+        exchange(3_000, 20, 200, 0); // queued on the way back: off by -90
+
+        assertEquals(OFFSET, clock.getOffsetMs());
+        assertEquals(10, clock.getDelayMs());
+        assertEquals(Math.round(Math.sqrt((90 * 90 * 2) / 3.0)), clock.getJitterMs());
+    }
+
+    @Test
+    void syncedAfterThreeSamples() {
+        exchange(1_000, 10, 10, 0);
+        exchange(1_100, 10, 10, 0);
+        assertFalse(clock.isSynced());
+
+        exchange(1_200, 10, 10, 0);
+        assertTrue(clock.isSynced());
+    }
+
+    @Test
+    void oldSamplesLeaveTheWindow() {
+        exchange(0, 1, 1, 0);
+        for (int i = 1; i <= ClockSync.WINDOW; i++)
+            exchange(i * 1_000, 30, 30, 0);
+
+        assertEquals(30, clock.getDelayMs());
+    }
+
+    @Test
+    void negativeRoundTripIsIgnored() {
+        PacketTimeSync reply = new PacketTimeSync();
+        reply.clientSendMs = 1_000;
+        reply.hostReceiveMs = 6_000;
+        reply.hostSendMs = 7_000; // host held it longer than the whole round trip
+        clock.onReply(reply, 1_100);
+
+        assertEquals(0, clock.getOffsetMs());
+        assertFalse(clock.isSynced());
+    }
+
+    @Test
+    void timeConversionsAreInverse() {
+        exchange(1_000, 10, 10, 0);
+
+        assertEquals(1_234 + OFFSET, clock.toPeerTime(1_234));
+        assertEquals(1_234, clock.toLocalTime(clock.toPeerTime(1_234)));
+    }
+
+    @Test
+    void estimatedHostTickAdvancesWithTheHostClock() {
+        assertEquals(-1, clock.estimatedHostTick(0));
+
+        PacketTimeSync reply = reply(1_000, 10, 0);
+        reply.hostTick = 100;
+        reply.hostTickMs = 1_000 + OFFSET + 10; // when the host received the request
+        reply.tickPeriodMs = 50;
+        clock.onReply(reply, 1_020);
+
+        assertEquals(100, clock.estimatedHostTick(1_010));
+        assertEquals(100, clock.estimatedHostTick(1_059));
+        assertEquals(101, clock.estimatedHostTick(1_060));
+        assertEquals(120, clock.estimatedHostTick(2_010));
+    }
+
+    @Test
+    void hostNegatesTheReportedEstimate() {
+        exchange(1_000, 10, 10, 0);
+        exchange(1_100, 10, 10, 0);
+        exchange(1_200, 10, 10, 0);
+
+        ClockSync onHost = new ClockSync();
+        onHost.setReported(clock.request(2_000));
+
+        assertEquals(-OFFSET, onHost.getOffsetMs());
+        assertEquals(10, onHost.getDelayMs());
+        assertTrue(onHost.isSynced());
+    }
+
+    @Test
+    void burstThenSteadyInterval() {
+        long now = 0;
+        for (int i = 0; i < ClockSync.BURST; i++) {
+            assertTrue(clock.isDue(now));
+            assertFalse(clock.isDue(now + ClockSync.BURST_INTERVAL_MS - 1));
+            now += ClockSync.BURST_INTERVAL_MS;
+        }
+        long last = now - ClockSync.BURST_INTERVAL_MS;
+        assertFalse(clock.isDue(last + ClockSync.INTERVAL_MS - 1));
+        assertTrue(clock.isDue(last + ClockSync.INTERVAL_MS));
+    }
+
+    @Test
+    void resetForgetsTheEstimate() {
+        for (int i = 0; i < 3; i++)
+            exchange(i * 100, 10, 10, 0);
+        clock.reset();
+
+        assertFalse(clock.isSynced());
+        assertEquals(0, clock.getOffsetMs());
+        assertTrue(clock.isDue(0));
+    }
+
+    // -----------------------------------------------------------------------
+
+    /** One exchange leaving the client at {@code t0} (client clock). */
+    private void exchange(long t0, long up, long down, long hold) {
+        clock.onReply(reply(t0, up, hold), t0 + up + hold + down);
+    }
+
+    private static PacketTimeSync reply(long t0, long up, long hold) {
+        PacketTimeSync reply = new PacketTimeSync();
+        reply.clientSendMs = t0;
+        reply.hostReceiveMs = t0 + up + OFFSET;
+        reply.hostSendMs = reply.hostReceiveMs + hold;
+        return reply;
+    }
+}
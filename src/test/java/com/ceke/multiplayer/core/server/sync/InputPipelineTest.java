@@ -0,0 +1,170 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   InputPipelineTest.java                                                 */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:56:42 by ceketrum                               */
+/*   Updated: 2026/10/17 22:56:42 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.ceke.multiplayer.core.server.GameMod;
+import com.ceke.multiplayer.core.server.ModLoader;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputResult;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InputPipelineTest {
+
+    /** "player:payload" of every applied input, in order. */
+    private final List<String> applied = new ArrayList<>();
+
+    private final GameMod mod = new GameMod() {
+        {
+            inputApplier = new InputApplier() {
+                @Override
+                public void apply(long turn, PacketPlayerInput in) {
+                    if (in.payload == 13)
+                        throw new IllegalStateException("unlucky");
+                    applied.add(in.playerId + ":" + in.payload);
+                }
+
+                @Override
+                public byte validate(PacketPlayerInput in) {
+                    return in.payload < 0 ? PacketInputResult.REJECTED_INVALID : PacketInputResult.ACCEPTED;
+                }
+            };
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public int getMaxPlayers() {
+            return 4;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        ModLoader.setActiveMod(mod);
+        InputPipeline.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        InputPipeline.reset();
+        ModLoader.setActiveMod(null);
+    }
+
+    @Test
+    void appliesPlayersInIdOrderAndAnswersEveryInput() {
+        InputPipeline.submit(3, speed(1, 30));
+        InputPipeline.submit(1, speed(1, 10));
+        InputPipeline.submit(1, speed(2, 11));
+        assertTrue(InputPipeline.hasPending());
+
+        Map<Integer, PacketInputResult> results = InputPipeline.applyPending(5);
+
+        assertEquals(List.of("1:10", "1:11", "3:30"), applied);
+        assertArrayEquals(new int[] { 1, 2 }, results.get(1).seqs);
+        assertArrayEquals(new byte[] { PacketInputResult.ACCEPTED, PacketInputResult.ACCEPTED }, results.get(1).codes);
+        assertEquals(1, results.get(3).seqs.length);
+        assertFalse(InputPipeline.hasPending());
+    }
+
+    @Test
+    void coalescesOnlyDuplicatesOfAppliedInputs() {
+        InputPipeline.submit(1, speed(1, -1)); // rejected
+        InputPipeline.submit(1, speed(2, -1)); // judged on its own, rejected again
+        InputPipeline.submit(1, speed(3, 2));
+        InputPipeline.submit(1, speed(4, 2)); // same action as #3
+
+        byte[] codes = InputPipeline.applyPending(1).get(1).codes;
+
+        assertArrayEquals(new byte[] { PacketInputResult.REJECTED_INVALID, PacketInputResult.REJECTED_INVALID,
+                PacketInputResult.ACCEPTED, PacketInputResult.COALESCED }, codes);
+        assertEquals(List.of("1:2"), applied);
+    }
+
+    @Test
+    void rejectsUnknownTypesAndOffMapTiles() {
+        PacketPlayerInput unknown = new PacketPlayerInput((byte) 99, 0, 0, 0);
+        PacketPlayerInput offMap = new PacketPlayerInput(PacketPlayerInput.TYPE_CLICK_TILE, -1, 4, 0);
+        unknown.seq = 1;
+        offMap.seq = 2;
+        InputPipeline.submit(1, unknown);
+        InputPipeline.submit(1, offMap);
+
+        assertArrayEquals(new byte[] { PacketInputResult.REJECTED_TYPE, PacketInputResult.REJECTED_INVALID },
+                InputPipeline.applyPending(1).get(1).codes);
+    }
+
+    @Test
+    void failedApplyIsReported() {
+        InputPipeline.submit(1, speed(1, 13));
+
+        assertArrayEquals(new byte[] { PacketInputResult.REJECTED_FAILED },
+                InputPipeline.applyPending(1).get(1).codes);
+    }
+
+    @Test
+    void withoutAnApplierEverythingIsUnsupported() {
+        ModLoader.setActiveMod(null);
+        InputPipeline.submit(1, speed(1, 2));
+
+        assertArrayEquals(new byte[] { PacketInputResult.REJECTED_UNSUPPORTED },
+                InputPipeline.applyPending(1).get(1).codes);
+    }
+
+    @Test
+    void queueIsBoundedPerPlayer() {
+        for (int i = 0; i < InputPipeline.MAX_PENDING; i++)
+            assertTrue(InputPipeline.submit(1, speed(i, i)));
+        assertFalse(InputPipeline.submit(1, speed(-1, 0)));
+        assertTrue(InputPipeline.submit(2, speed(0, 0)));
+
+        InputPipeline.applyPending(1);
+        assertTrue(InputPipeline.submit(1, speed(0, 0)));
+    }
+
+    @Test
+    void forgetDropsAPlayersInputs() {
+        InputPipeline.submit(1, speed(1, 2));
+        InputPipeline.forget(1);
+
+        assertFalse(InputPipeline.hasPending());
+        assertTrue(InputPipeline.applyPending(1).isEmpty());
+    }
+
+    private static PacketPlayerInput speed(int seq, int speed) {
+        PacketPlayerInput in = new PacketPlayerInput(PacketPlayerInput.TYPE_SET_SPEED, 0, 0, speed);
+        in.seq = seq;
+        return in;
+    }
+}
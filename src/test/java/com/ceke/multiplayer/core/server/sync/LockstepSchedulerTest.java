@@ -0,0 +1,194 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   LockstepSchedulerTest.java                                             */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:42:54 by ceketrum                               */
+/*   Updated: 2026/10/17 22:42:54 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ceke.multiplayer.core.server.GameMod;
+import com.ceke.multiplayer.core.server.ModLoader;
+import com.ceke.multiplayer.core.server.network.packets.PacketInputFrame;
+import com.ceke.multiplayer.core.server.network.packets.PacketPlayerInput;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LockstepSchedulerTest {
+
+    private static final int DELAY = 2;
+
+    /** "turn:player:payload" of every applied input, in order. */
+    private final List<String> applied = new ArrayList<>();
+
+    private final GameMod mod = new GameMod() {
+        {
+            inputApplier = (turn, in) -> applied.add(turn + ":" + in.playerId + ":" + in.payload);
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public int getMaxPlayers() {
+            return 4;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        ModLoader.setActiveMod(mod);
+        ClockSync.host().reset();
+        LockstepScheduler.reset();
+        LockstepScheduler.setEnabled(true);
+        LockstepScheduler.setInputDelay(DELAY);
+        LockstepScheduler.useLocalSettings();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LockstepScheduler.setEnabled(false);
+        LockstepScheduler.useLocalSettings();
+        LockstepScheduler.reset();
+        ModLoader.setActiveMod(null);
+    }
+
+    @Test
+    void closeTurnStampsTheDelayedTurnAndOrdersByPlayer() {
+        LockstepScheduler.submit(3, input(1));
+        LockstepScheduler.submit(1, input(2));
+        LockstepScheduler.submit(3, input(3));
+        LockstepScheduler.submit(1, input(4));
+
+        PacketInputFrame frame = LockstepScheduler.closeTurn(10);
+
+        assertEquals(10 + DELAY, frame.turn);
+        List<String> order = new ArrayList<>();
+        for (PacketPlayerInput in : frame.inputs) {
+            assertEquals(frame.turn, in.executeTurn);
+            order.add(in.playerId + ":" + in.payload);
+        }
+        // by player, then by arrival
+        assertEquals(List.of("1:2", "1:4", "3:1", "3:3"), order);
+    }
+
+    @Test
+    void closeTurnDrainsPendingInputs() {
+        LockstepScheduler.submit(0, input(1));
+        LockstepScheduler.closeTurn(1);
+
+        assertEquals(0, LockstepScheduler.closeTurn(2).inputs.length);
+    }
+
+    @Test
+    void hostAppliesAFrameWhenItsTickReachesTheTurn() {
+        LockstepScheduler.submit(0, input(7));
+        LockstepScheduler.closeTurn(10); // turn 12
+        LockstepScheduler.executeDue();
+        assertTrue(applied.isEmpty());
+
+        LockstepScheduler.closeTurn(11);
+        LockstepScheduler.executeDue();
+        assertTrue(applied.isEmpty());
+
+        LockstepScheduler.closeTurn(12);
+        LockstepScheduler.executeDue();
+        assertEquals(List.of("12:0:7"), applied);
+        assertEquals(12, LockstepScheduler.getExecutedTurn());
+    }
+
+    @Test
+    void clientAppliesFramesUpToTheHostsTurn() {
+        LockstepScheduler.followHost(true, DELAY);
+        LockstepScheduler.onFrame(frame(12, 0, 1));
+        LockstepScheduler.executeDue();
+        assertTrue(applied.isEmpty()); // host is at turn 10
+
+        LockstepScheduler.onFrame(frame(13, 1, 2));
+        LockstepScheduler.onFrame(frame(14, 0, 3));
+        LockstepScheduler.executeDue();
+        assertEquals(List.of("12:0:1"), applied); // host is at turn 12
+
+        LockstepScheduler.onFrame(frame(16, 1, 4));
+        LockstepScheduler.executeDue();
+        assertEquals(List.of("12:0:1", "13:1:2", "14:0:3"), applied);
+    }
+
+    @Test
+    void lateFramesAreDropped() {
+        LockstepScheduler.followHost(true, DELAY);
+        LockstepScheduler.onFrame(frame(12, 0, 1));
+        LockstepScheduler.onFrame(frame(14, 0, 2));
+        LockstepScheduler.executeDue(); // runs turn 12
+
+        LockstepScheduler.onFrame(frame(12, 0, 3)); // turn 12 again, after it ran
+        LockstepScheduler.onFrame(frame(15, 0, 4));
+        LockstepScheduler.onFrame(frame(17, 0, 5));
+        LockstepScheduler.executeDue();
+
+        assertEquals(List.of("12:0:1", "14:0:2", "15:0:4"), applied);
+    }
+
+    @Test
+    void nothingRunsWhileDisabled() {
+        LockstepScheduler.followHost(false, DELAY);
+        LockstepScheduler.onFrame(frame(12, 0, 1));
+        LockstepScheduler.onFrame(frame(20, 0, 2));
+        LockstepScheduler.executeDue();
+
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    void lockstepIsRefusedWithoutAnApplier() {
+        ModLoader.setActiveMod(null);
+        LockstepScheduler.useLocalSettings();
+
+        assertFalse(LockstepScheduler.isEnabled());
+    }
+
+    @Test
+    void clientFollowsTheHostsInputDelay() {
+        LockstepScheduler.followHost(true, 5);
+        assertEquals(5, LockstepScheduler.getInputDelay());
+
+        LockstepScheduler.useLocalSettings();
+        assertEquals(DELAY, LockstepScheduler.getInputDelay());
+    }
+
+    // -----------------------------------------------------------------------
+
+    private static PacketPlayerInput input(int payload) {
+        return new PacketPlayerInput(PacketPlayerInput.TYPE_KEY_PRESS, 0, 0, payload);
+    }
+
+    private static PacketInputFrame frame(long turn, int playerId, int payload) {
+        PacketPlayerInput in = input(payload);
+        in.playerId = playerId;
+        in.executeTurn = turn;
+        return new PacketInputFrame(turn, new PacketPlayerInput[] { in });
+    }
+}
@@ -0,0 +1,113 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ParallelDeflateTest.java                                               */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:09:17 by ceketrum                               */
+/*   Updated: 2026/10/17 23:10:20 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelDeflateTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void multiBlockFileRoundTrips() throws IOException {
+        byte[] data = saveLike(ParallelDeflate.BLOCK_SIZE * 5 / 2, 1);
+        byte[] packed = roundTrip(data, Deflater.DEFAULT_COMPRESSION);
+        assertTrue(packed.length < data.length, "save-like data should shrink");
+    }
+
+    @Test
+    void exactBlockMultipleRoundTrips() throws IOException {
+        roundTrip(saveLike(ParallelDeflate.BLOCK_SIZE * 2, 2), 1);
+    }
+
+    @Test
+    void emptyAndTinyFilesRoundTrip() throws IOException {
+        roundTrip(new byte[0], Deflater.DEFAULT_COMPRESSION);
+        roundTrip(new byte[] { 42 }, 9);
+    }
+
+    @Test
+    void incompressibleDataRoundTripsStored() throws IOException {
+        byte[] data = new byte[ParallelDeflate.BLOCK_SIZE + 123];
+        new Random(3).nextBytes(data);
+        roundTrip(data, 0);
+        roundTrip(data, 9);
+    }
+
+    @Test
+    void outputIsDeterministic() throws IOException {
+        byte[] data = saveLike(ParallelDeflate.BLOCK_SIZE * 3, 4);
+        assertArrayEquals(roundTrip(data, 6), roundTrip(data, 6));
+    }
+
+    @Test
+    void oversizedBlockSizeIsRejected() throws IOException {
+        Path forged = forge(10L, ParallelDeflate.BLOCK_SIZE * 2, 4);
+        assertThrows(IOException.class, () -> ParallelDeflate.decompress(forged, dir.resolve("out.raw")));
+    }
+
+    @Test
+    void oversizedBlockLengthIsRejected() throws IOException {
+        Path forged = forge(10L, ParallelDeflate.BLOCK_SIZE, Integer.MAX_VALUE);
+        IOException e = assertThrows(IOException.class,
+                () -> ParallelDeflate.decompress(forged, dir.resolve("out.raw")));
+        assertTrue(e.getMessage().startsWith("Corrupt block"), e.getMessage());
+    }
+
+    /** A header and the length of its first block, with no block data behind them. */
+    private Path forge(long length, int blockSize, int firstBlockLength) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(20);
+        header.putInt(0x43454B5A).putLong(length).putInt(blockSize).putInt(firstBlockLength);
+        return Files.write(dir.resolve("forged.cekz"), header.array());
+    }
+
+    /** Compresses and restores {@code data}, checks it survived, and returns the compressed bytes. */
+    private byte[] roundTrip(byte[] data, int level) throws IOException {
+        Path source = Files.write(Files.createTempFile(dir, "save", ".raw"), data);
+        Path packed = Files.createTempFile(dir, "save", ".cekz");
+        Path restored = dir.resolve("out").resolve(source.getFileName());
+        ParallelDeflate.compress(source, packed, level);
+        ParallelDeflate.decompress(packed, restored);
+        assertArrayEquals(data, Files.readAllBytes(restored));
+        return Files.readAllBytes(packed);
+    }
+
+    /** Runs of repeated records with some noise, roughly like a serialized save. */
+    static byte[] saveLike(int length, long seed) {
+        Random rnd = new Random(seed);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+            data[i] = rnd.nextInt(8) == 0 ? (byte) rnd.nextInt() : (byte) (i % 64);
+        return data;
+    }
+}
@@ -0,0 +1,174 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   ResourceReplicatorTest.java                                            */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 23:12:25 by ceketrum                               */
+/*   Updated: 2026/10/17 23:12:25 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResources;
+import com.ceke.multiplayer.core.server.network.packets.PacketSyncResourcesDelta;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResourceReplicatorTest {
+
+    private static final int PLAYER = 1;
+
+    @BeforeEach
+    void reset() {
+        ResourceReplicator.resetHost();
+        ResourceReplicator.resetClient();
+    }
+
+    @Test
+    void firstSyncIsFullThenNothingUntilAChange() {
+        ResourceReplicator.publish(tallies());
+
+        Object first = ResourceReplicator.buildPacket(PLAYER);
+        assertInstanceOf(PacketSyncResources.class, first);
+        assertNotNull(ResourceReplicator.applyFull((PacketSyncResources) first));
+
+        assertNull(ResourceReplicator.buildPacket(PLAYER));
+    }
+
+    @Test
+    void deltaIndexesSkipNullArrays() {
+        syncOnce(tallies());
+
+        int[][] next = tallies();
+        next[0][2] = 99;
+        next[2][3] = 42;
+        next[8][0] = 7;
+        ResourceReplicator.publish(next);
+
+        Object packet = ResourceReplicator.buildPacket(PLAYER);
+        PacketSyncResourcesDelta delta = assertInstanceOf(PacketSyncResourcesDelta.class, packet);
+        // arrays[1] is null and takes no slots: arrays[2] starts at 10 and
+        // arrays[8] at 10 + 5 + 5 * 4
+        assertArrayEquals(new int[] { 2, 13, 35 }, delta.indices);
+        assertArrayEquals(new int[] { 99, 42, 7 }, delta.values);
+
+        PacketSyncResources applied = ResourceReplicator.applyDelta(delta);
+        assertNotNull(applied);
+        assertEquals(delta.version, applied.version);
+        assertDeepEquals(next, applied.toArrays());
+    }
+
+    @Test
+    void mostSlotsChangedFallsBackToFull() {
+        syncOnce(tallies());
+
+        int[][] next = tallies();
+        for (int[] array : next) {
+            if (array != null)
+                java.util.Arrays.fill(array, -1);
+        }
+        ResourceReplicator.publish(next);
+
+        assertInstanceOf(PacketSyncResources.class, ResourceReplicator.buildPacket(PLAYER));
+    }
+
+    @Test
+    void layoutChangeFallsBackToFull() {
+        syncOnce(tallies());
+
+        int[][] next = tallies();
+        next[1] = new int[] { 1, 2 };
+        ResourceReplicator.publish(next);
+
+        assertInstanceOf(PacketSyncResources.class, ResourceReplicator.buildPacket(PLAYER));
+    }
+
+    @Test
+    void requestFullResendsEverything() {
+        syncOnce(tallies());
+
+        int[][] next = tallies();
+        next[0][0] = 5;
+        ResourceReplicator.publish(next);
+        ResourceReplicator.requestFull(PLAYER);
+
+        assertInstanceOf(PacketSyncResources.class, ResourceReplicator.buildPacket(PLAYER));
+    }
+
+    @Test
+    void clientsOnTheSameBaseShareOnePacket() {
+        ResourceReplicator.publish(tallies());
+
+        assertSame(ResourceReplicator.buildPacket(1), ResourceReplicator.buildPacket(2));
+    }
+
+    @Test
+    void deltaOnAnotherBaseIsRejected() {
+        syncOnce(tallies());
+        long held = ResourceReplicator.heldVersion();
+
+        PacketSyncResourcesDelta stale = new PacketSyncResourcesDelta(held + 2, held + 1,
+                new int[] { 0 }, new int[] { 1 });
+
+        assertNull(ResourceReplicator.applyDelta(stale));
+        assertEquals(held, ResourceReplicator.heldVersion());
+    }
+
+    @Test
+    void deltaPastTheLastSlotIsRejected() {
+        syncOnce(tallies());
+        long held = ResourceReplicator.heldVersion();
+
+        PacketSyncResourcesDelta bad = new PacketSyncResourcesDelta(held + 1, held,
+                new int[] { 39 }, new int[] { 1 });
+
+        assertNull(ResourceReplicator.applyDelta(bad));
+        assertEquals(held, ResourceReplicator.heldVersion());
+    }
+
+    /** Publishes {@code arrays} and applies the resulting full packet on the client side. */
+    private static void syncOnce(int[][] arrays) {
+        ResourceReplicator.publish(arrays);
+        ResourceReplicator.applyFull((PacketSyncResources) ResourceReplicator.buildPacket(PLAYER));
+    }
+
+    /** 10 + 5 + 6 * 4 = 39 slots, with the second array missing. */
+    private static int[][] tallies() {
+        int[][] arrays = new int[PacketSyncResources.ARRAYS][];
+        arrays[0] = new int[10];
+        arrays[2] = new int[5];
+        for (int a = 3; a < arrays.length; a++)
+            arrays[a] = new int[4];
+        for (int[] array : arrays) {
+            if (array == null)
+                continue;
+            for (int i = 0; i < array.length; i++)
+                array[i] = i + 1;
+        }
+        return arrays;
+    }
+
+    private static void assertDeepEquals(int[][] expected, int[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int a = 0; a < expected.length; a++)
+            assertArrayEquals(expected[a], actual[a], "array " + a);
+    }
+}
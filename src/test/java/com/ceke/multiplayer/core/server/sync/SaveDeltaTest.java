@@ -0,0 +1,144 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SaveDeltaTest.java                                                     */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:39:31 by ceketrum                               */
+/*   Updated: 2026/10/17 22:39:31 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaveDeltaTest {
+
+    @TempDir
+    Path dir;
+
+    private final Random rnd = new Random(7);
+
+    @Test
+    void identicalSaveIsAllCopies() throws IOException {
+        byte[] save = random(300_000);
+
+        // only the unsigned trailing partial block travels as a literal
+        long deltaSize = roundTrip(save, save);
+        assertTrue(deltaSize < SaveDelta.blockSizeFor(save.length) + 64, "delta was " + deltaSize + " bytes");
+    }
+
+    @Test
+    void editedBytesRoundTrip() throws IOException {
+        byte[] basis = random(200_000);
+        byte[] save = basis.clone();
+        for (int i = 0; i < 20; i++)
+            save[rnd.nextInt(save.length)] ^= 0x5A;
+
+        long deltaSize = roundTrip(basis, save);
+        assertTrue(deltaSize < save.length / 4, "delta was " + deltaSize + " bytes");
+    }
+
+    @Test
+    void shiftedContentRoundTrip() throws IOException {
+        byte[] basis = random(200_000);
+        byte[] inserted = random(333);
+        byte[] save = new byte[basis.length + inserted.length];
+        System.arraycopy(basis, 0, save, 0, 50_000);
+        System.arraycopy(inserted, 0, save, 50_000, inserted.length);
+        System.arraycopy(basis, 50_000, save, 50_000 + inserted.length, basis.length - 50_000);
+
+        long deltaSize = roundTrip(basis, save);
+        assertTrue(deltaSize < 10_000, "delta was " + deltaSize + " bytes");
+    }
+
+    @Test
+    void truncatedAndGrownSavesRoundTrip() throws IOException {
+        byte[] basis = random(120_000);
+
+        roundTrip(basis, Arrays.copyOf(basis, 70_123));
+        byte[] grown = Arrays.copyOf(basis, 190_000);
+        System.arraycopy(random(70_000), 0, grown, 120_000, 70_000);
+        roundTrip(basis, grown);
+    }
+
+    @Test
+    void literalRunsLongerThanTheFlushSizeRoundTrip() throws IOException {
+        roundTrip(random(50_000), random(400_000));
+    }
+
+    @Test
+    void smallAndEmptyFilesRoundTrip() throws IOException {
+        roundTrip(new byte[0], random(500));
+        roundTrip(random(500), new byte[0]);
+        roundTrip(random(500), random(700));
+    }
+
+    @Test
+    void rejectsBlocksTheBasisDoesNotHave() throws IOException {
+        byte[] save = random(100_000);
+        Path basis = write("basis", save);
+        Path delta = dir.resolve("delta");
+        try (OutputStream out = Files.newOutputStream(delta)) {
+            SaveDelta.writeDelta(write("save", save), SaveDelta.signatures(basis), out);
+        }
+
+        Path shorter = write("shorter", Arrays.copyOf(save, 10_000));
+        assertThrows(IOException.class, () -> SaveDelta.apply(shorter, delta, dir.resolve("out")));
+    }
+
+    @Test
+    void rejectsForeignData() throws IOException {
+        Path basis = write("basis", random(5_000));
+        Path junk = write("junk", random(64));
+
+        assertThrows(IOException.class, () -> SaveDelta.apply(basis, junk, dir.resolve("out")));
+    }
+
+    /** Diffs {@code save} against {@code basis}, applies it and checks the result; returns the delta size. */
+    private long roundTrip(byte[] basis, byte[] save) throws IOException {
+        Path basisFile = write("basis", basis);
+        Path saveFile = write("save", save);
+        Path delta = dir.resolve("delta");
+        Path rebuilt = dir.resolve("rebuilt/save");
+
+        try (OutputStream out = Files.newOutputStream(delta)) {
+            SaveDelta.writeDelta(saveFile, SaveDelta.signatures(basisFile), out);
+        }
+        SaveDelta.apply(basisFile, delta, rebuilt);
+
+        assertArrayEquals(save, Files.readAllBytes(rebuilt));
+        return Files.size(delta);
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(dir.resolve(name), content);
+    }
+
+    private byte[] random(int length) {
+        byte[] b = new byte[length];
+        rnd.nextBytes(b);
+        return b;
+    }
+}
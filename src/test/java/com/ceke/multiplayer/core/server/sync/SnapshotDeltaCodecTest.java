@@ -0,0 +1,113 @@
+/* ************************************************************************** */
+/*                                                                            */
+/*       ::::::::  :::::::::: :::    ::: ::::::::::                           */
+/*     :+:    :+: :+:        :+:   :+:  :+:                                   */
+/*    +:+        +:+        +:+  +:+   +:+                                    */
+/*   +#+        +#++:++#   +#++:++    +#++:++#                                */
+/*  +#+        +#+        +#+  +#+   +#+                                      */
+/* #+#    #+# #+#        #+#   #+#  #+#                                       */
+/* ########  ########## ###    ### ##########                                 */
+/*                                                                            */
+/*   SnapshotDeltaCodecTest.java                                            */
+/*                                                                            */
+/*   By: ceketrum <ferrando.ryan.mickael@gmail.com>                         */
+/*                                                                            */
+/*   Created: 2026/10/17 22:39:07 by ceketrum                               */
+/*   Updated: 2026/10/17 22:39:07 by ceketrum                               */
+/*                                                                            */
+/* ************************************************************************** */
+
+package com.ceke.multiplayer.core.server.sync;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SnapshotDeltaCodecTest {
+
+    @Test
+    void keyframeRoundTrip() {
+        int[] values = { 0, 1, -1, 127, 128, -129, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        byte[] data = SnapshotDeltaCodec.encode(null, new WorldSnapshot(1, values));
+
+        assertArrayEquals(values, SnapshotDeltaCodec.decode(null, data, values.length));
+    }
+
+    @Test
+    void deltaRoundTrip() {
+        int[] from = { 10, 20, 30, 40, 50, 60 };
+        int[] to = { 10, 25, 30, -40, 50, 61 };
+        WorldSnapshot base = new WorldSnapshot(1, from);
+        byte[] data = SnapshotDeltaCodec.encode(base, new WorldSnapshot(2, to));
+
+        assertArrayEquals(to, SnapshotDeltaCodec.decode(base, data, to.length));
+    }
+
+    @Test
+    void deltaHandlesOverflowingDifferences() {
+        int[] from = { Integer.MIN_VALUE, Integer.MAX_VALUE, 0 };
+        int[] to = { Integer.MAX_VALUE, Integer.MIN_VALUE, -1 };
+        WorldSnapshot base = new WorldSnapshot(1, from);
+        byte[] data = SnapshotDeltaCodec.encode(base, new WorldSnapshot(2, to));
+
+        assertArrayEquals(to, SnapshotDeltaCodec.decode(base, data, to.length));
+    }
+
+    @Test
+    void unchangedWorldCostsTwoBytes() {
+        int[] values = new int[500];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i * 31;
+        WorldSnapshot base = new WorldSnapshot(1, values);
+        byte[] data = SnapshotDeltaCodec.encode(base, new WorldSnapshot(2, values.clone()));
+
+        // slot count (500 = two varint bytes) plus a zero change count
+        assertEquals(3, data.length);
+        assertArrayEquals(values, SnapshotDeltaCodec.decode(base, data, values.length));
+    }
+
+    @Test
+    void randomDeltasRoundTrip() {
+        Random rnd = new Random(42);
+        int[] prev = new int[300];
+        for (int round = 0; round < 50; round++) {
+            int[] next = prev.clone();
+            for (int n = rnd.nextInt(40); n > 0; n--)
+                next[rnd.nextInt(next.length)] = rnd.nextInt();
+            WorldSnapshot base = new WorldSnapshot(round, prev);
+            byte[] data = SnapshotDeltaCodec.encode(base, new WorldSnapshot(round + 1, next));
+
+            assertArrayEquals(next, SnapshotDeltaCodec.decode(base, data, next.length));
+            prev = next;
+        }
+    }
+
+    @Test
+    void layoutChangeFallsBackToKeyframe() {
+        WorldSnapshot base = new WorldSnapshot(1, new int[] { 1, 2 });
+        int[] to = { 1, 2, 3 };
+        byte[] data = SnapshotDeltaCodec.encode(base, new WorldSnapshot(2, to));
+
+        assertArrayEquals(to, SnapshotDeltaCodec.decode(null, data, to.length));
+    }
+
+    @Test
+    void rejectsSlotCountMismatch() {
+        byte[] data = SnapshotDeltaCodec.encode(null, new WorldSnapshot(1, new int[] { 1, 2, 3 }));
+
+        assertThrows(IllegalArgumentException.class, () -> SnapshotDeltaCodec.decode(null, data, 4));
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] data = SnapshotDeltaCodec.encode(null, new WorldSnapshot(1, new int[] { 1000, 2000 }));
+        byte[] cut = Arrays.copyOf(data, data.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> SnapshotDeltaCodec.decode(null, cut, 2));
+    }
+}